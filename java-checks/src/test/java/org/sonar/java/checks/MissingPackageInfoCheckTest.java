@@ -137,7 +137,7 @@ class MissingPackageInfoCheckTest {
     doReturn(inputStream).when(localReadCache).read("java:S1228;S4032:package:" + cachedFile.key());
     doReturn(true).when(localReadCache).contains(any());
     doReturn(new ByteArrayInputStream(cachedHash))
-      .when(localReadCache).read("java:contentHash:MD5:" + cachedFile.key());
+      .when(localReadCache).read("java:contentHash:MURMUR3_128:" + cachedFile.key());
 
     var localVerifier = CheckVerifier.newVerifier()
       .withCache(localReadCache, localWriteCache)
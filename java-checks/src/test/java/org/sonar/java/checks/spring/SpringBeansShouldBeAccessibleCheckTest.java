@@ -210,7 +210,7 @@ class SpringBeansShouldBeAccessibleCheckTest {
     doReturn(inputStream).when(localReadCache).read("java:S4605:targeted:" + cachedFile.key());
     doReturn(true).when(localReadCache).contains(any());
     doReturn(new ByteArrayInputStream(cachedHash))
-      .when(localReadCache).read("java:contentHash:MD5:" + cachedFile.key());
+      .when(localReadCache).read("java:contentHash:MURMUR3_128:" + cachedFile.key());
 
     var verifier = CheckVerifier.newVerifier()
       .withCache(localReadCache, new InternalWriteCache().bind(localReadCache))
@@ -0,0 +1,195 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * Batch size adjusted after each batch, depending on the heap retained after the garbage collections which happened during the batch.
+ *
+ * Batches shrink when the retained heap gets close to the maximum heap, to avoid running out of memory on modules with large files,
+ * and grow back when there is room for it, to benefit from the ECJ environment shared by all the files of a batch.
+ * The size stays between 1/8 and 4 times the initial size.
+ */
+class AdaptiveBatchSize implements LongSupplier, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchSize.class);
+
+  @VisibleForTesting
+  static final double SHRINK_THRESHOLD = 0.7;
+  @VisibleForTesting
+  static final double GROW_THRESHOLD = 0.4;
+
+  private final long minSizeInBytes;
+  private final long maxSizeInBytes;
+  private final LongSupplier retainedHeapInBytes;
+  private final LongSupplier maxHeapInBytes;
+  private long currentSizeInBytes;
+
+  AdaptiveBatchSize(long initialSizeInBytes) {
+    this(initialSizeInBytes, new HeapAfterCollection(), () -> Runtime.getRuntime().maxMemory());
+  }
+
+  @VisibleForTesting
+  AdaptiveBatchSize(long initialSizeInBytes, LongSupplier retainedHeapInBytes, LongSupplier maxHeapInBytes) {
+    this.currentSizeInBytes = initialSizeInBytes;
+    this.minSizeInBytes = initialSizeInBytes / 8;
+    this.maxSizeInBytes = initialSizeInBytes > Long.MAX_VALUE / 4 ? Long.MAX_VALUE : (initialSizeInBytes * 4);
+    this.retainedHeapInBytes = retainedHeapInBytes;
+    this.maxHeapInBytes = maxHeapInBytes;
+  }
+
+  @Override
+  public long getAsLong() {
+    return currentSizeInBytes;
+  }
+
+  /**
+   * To be called once a batch has been analyzed, to compute the size of the next batch.
+   */
+  void adjust() {
+    long maxHeap = maxHeapInBytes.getAsLong();
+    if (maxHeap <= 0L || maxHeap == Long.MAX_VALUE) {
+      // no limit is known for the heap, there is nothing to adapt to
+      return;
+    }
+    double heapUsage = retainedHeapInBytes.getAsLong() / (double) maxHeap;
+    long previousSizeInBytes = currentSizeInBytes;
+    String decision;
+    if (heapUsage > SHRINK_THRESHOLD && currentSizeInBytes > minSizeInBytes) {
+      currentSizeInBytes = Math.max(minSizeInBytes, currentSizeInBytes / 2);
+      decision = "Shrink";
+    } else if (heapUsage < GROW_THRESHOLD && currentSizeInBytes < maxSizeInBytes) {
+      currentSizeInBytes = Math.min(maxSizeInBytes, Math.max(currentSizeInBytes + 1, currentSizeInBytes + currentSizeInBytes / 2));
+      decision = "Grow";
+    } else {
+      decision = "Keep";
+    }
+    // The number of calls of each decision is reported in the performance measure report
+    PerformanceMeasure.start("AdaptiveBatchSize" + decision).stop();
+    if (currentSizeInBytes != previousSizeInBytes) {
+      LOG.info("Heap retained after batch: {}% of max heap. Batch size changed from {} KB to {} KB.",
+        (int) (heapUsage * 100), previousSizeInBytes / 1_000L, currentSizeInBytes / 1_000L);
+    } else if (LOG.isDebugEnabled()) {
+      LOG.debug("Heap retained after batch: {}% of max heap. Batch size kept at {} KB.", (int) (heapUsage * 100), currentSizeInBytes / 1_000L);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!(retainedHeapInBytes instanceof HeapAfterCollection)) {
+      return;
+    }
+    try {
+      ((HeapAfterCollection) retainedHeapInBytes).close();
+    } catch (ListenerNotFoundException e) {
+      LOG.debug("Failed to stop listening to garbage collections: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Heap used after the last garbage collection which completed since the previous call. The memory pools are not used for that:
+   * their collection usage is only updated by the collections of their own collector, and is stale with G1, where most collections
+   * are young ones.
+   * When no collection completed since the previous call, the heap currently used is returned, which is an upper bound of the heap
+   * which would be retained by a collection.
+   */
+  @VisibleForTesting
+  static class HeapAfterCollection implements LongSupplier, NotificationListener, AutoCloseable {
+
+    private static final long NO_COLLECTION = -1L;
+
+    private final Set<String> heapPoolNames;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final AtomicLong usedAfterLastCollection = new AtomicLong(NO_COLLECTION);
+
+    HeapAfterCollection() {
+      heapPoolNames = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getName)
+        .collect(Collectors.toSet());
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (collector instanceof NotificationEmitter) {
+          NotificationEmitter emitter = (NotificationEmitter) collector;
+          emitter.addNotificationListener(this, null, null);
+          emitters.add(emitter);
+        }
+      }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+      if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        recordCollection(info.getGcInfo().getMemoryUsageAfterGc());
+      }
+    }
+
+    @VisibleForTesting
+    void recordCollection(Map<String, MemoryUsage> usageAfterCollection) {
+      long used = 0L;
+      for (Map.Entry<String, MemoryUsage> poolUsage : usageAfterCollection.entrySet()) {
+        if (heapPoolNames.contains(poolUsage.getKey())) {
+          used += poolUsage.getValue().getUsed();
+        }
+      }
+      usedAfterLastCollection.set(used);
+    }
+
+    @Override
+    public long getAsLong() {
+      long used = usedAfterLastCollection.getAndSet(NO_COLLECTION);
+      if (used == NO_COLLECTION) {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+      }
+      return used;
+    }
+
+    @Override
+    public void close() throws ListenerNotFoundException {
+      for (NotificationEmitter emitter : emitters) {
+        emitter.removeNotificationListener(this);
+      }
+      emitters.clear();
+    }
+  }
+
+}
@@ -19,6 +19,10 @@
  */
 package org.sonar.java;
 
+/**
+ * Progress of the analysis of the batches of a module. It is read by the thread of the progress monitor while the batches are parsed.
+ * When batches are parsed concurrently, each of them has its own progress.
+ */
 public class AnalysisProgress {
   private final int totalFileCount;
   private int currentBatchSize;
@@ -30,24 +34,24 @@ public class AnalysisProgress {
     analysedFileCount = 0;
   }
 
-  public void startBatch(int currentBatchSize) {
+  public synchronized void startBatch(int currentBatchSize) {
     this.currentBatchSize = currentBatchSize;
   }
 
-  public void endBatch() {
+  public synchronized void endBatch() {
     this.analysedFileCount += currentBatchSize;
     this.currentBatchSize = 0;
   }
 
-  public boolean isFirstBatch() {
+  public synchronized boolean isFirstBatch() {
     return analysedFileCount == 0;
   }
 
-  public boolean isLastBatch() {
+  public synchronized boolean isLastBatch() {
     return analysedFileCount + currentBatchSize == totalFileCount;
   }
 
-  public double toGlobalPercentage(double currentBatchPercentage) {
+  public synchronized double toGlobalPercentage(double currentBatchPercentage) {
     if (totalFileCount == 0) {
       return 0;
     }
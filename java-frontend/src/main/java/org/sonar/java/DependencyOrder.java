@@ -0,0 +1,296 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Orders the files of a module so that files depending on each other are next to each other, and then end up in the same batch.
+ *
+ * ECJ resolves the source types referenced by a file from the files of its batch. When a referenced type is in another batch,
+ * ECJ has to parse it again, once per batch referencing it. To reduce this, the files are grouped by package, and each
+ * package is followed by the packages it imports, in a depth-first order.
+ *
+ * The dependencies are computed from a lexical pass over the header of the files (package and import declarations),
+ * which stops at the first type declaration, so this is much cheaper than parsing the files.
+ */
+class DependencyOrder {
+
+  private DependencyOrder() {
+    // utility class
+  }
+
+  static List<InputFile> sort(List<InputFile> inputFiles) {
+    Map<String, List<InputFile>> filesByPackage = new LinkedHashMap<>();
+    Map<String, Set<String>> importsByPackage = new LinkedHashMap<>();
+    for (InputFile inputFile : inputFiles) {
+      Header header = readHeader(inputFile);
+      filesByPackage.computeIfAbsent(header.packageName, k -> new ArrayList<>()).add(inputFile);
+      importsByPackage.computeIfAbsent(header.packageName, k -> new LinkedHashSet<>()).addAll(header.imports);
+    }
+
+    List<InputFile> sorted = new ArrayList<>(inputFiles.size());
+    Set<String> visited = new HashSet<>();
+    Deque<String> toVisit = new ArrayDeque<>();
+    for (String root : filesByPackage.keySet()) {
+      toVisit.push(root);
+      while (!toVisit.isEmpty()) {
+        String packageName = toVisit.pop();
+        if (!visited.add(packageName)) {
+          continue;
+        }
+        sorted.addAll(filesByPackage.get(packageName));
+        List<String> dependencies = new ArrayList<>();
+        for (String importedName : importsByPackage.get(packageName)) {
+          String dependency = importedPackage(importedName, filesByPackage.keySet());
+          if (dependency != null && !visited.contains(dependency)) {
+            dependencies.add(dependency);
+          }
+        }
+        // pushed in reverse order, so that the first imported package is the first visited
+        for (int i = dependencies.size() - 1; i >= 0; i--) {
+          toVisit.push(dependencies.get(i));
+        }
+      }
+    }
+    return sorted;
+  }
+
+  /**
+   * Returns the longest prefix of the imported name which is a package of the module, as the imported name can be a type,
+   * a nested type or a static member.
+   */
+  @CheckForNull
+  @VisibleForTesting
+  static String importedPackage(String importedName, Set<String> packages) {
+    String name = importedName;
+    while (!packages.contains(name)) {
+      int lastDot = name.lastIndexOf('.');
+      if (lastDot < 0) {
+        return null;
+      }
+      name = name.substring(0, lastDot);
+    }
+    return name;
+  }
+
+  @VisibleForTesting
+  static Header readHeader(InputFile inputFile) {
+    Header header = new Header();
+    try (Reader reader = new BufferedReader(new InputStreamReader(inputFile.inputStream(), inputFile.charset()))) {
+      readDeclarations(new HeaderLexer(reader), header);
+    } catch (IOException | RuntimeException e) {
+      // The file will be read again and any failure reported when parsing it, its dependencies are simply ignored
+    }
+    return header;
+  }
+
+  private static void readDeclarations(HeaderLexer lexer, Header header) throws IOException {
+    while (true) {
+      String token = lexer.next();
+      if (";".equals(token)) {
+        // empty declaration
+        continue;
+      }
+      if ("package".equals(token)) {
+        header.packageName = qualifiedName(lexer);
+      } else if ("import".equals(token)) {
+        if ("static".equals(lexer.peek())) {
+          lexer.next();
+        }
+        header.imports.add(qualifiedName(lexer));
+      } else if ("@".equals(token) && !"interface".equals(lexer.peek())) {
+        // annotations of the package declaration (in package-info.java files)
+        qualifiedName(lexer);
+        skipArguments(lexer);
+        continue;
+      } else {
+        // first type declaration, or anything else which is not part of the header
+        return;
+      }
+      if (!";".equals(lexer.next())) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Reads a qualified name, without the ".*" of on-demand imports.
+   */
+  private static String qualifiedName(HeaderLexer lexer) throws IOException {
+    StringBuilder name = new StringBuilder();
+    while (isIdentifier(lexer.peek())) {
+      name.append(lexer.next());
+      if (!".".equals(lexer.peek())) {
+        break;
+      }
+      lexer.next();
+      if ("*".equals(lexer.peek())) {
+        lexer.next();
+        break;
+      }
+      name.append('.');
+    }
+    return name.toString();
+  }
+
+  private static void skipArguments(HeaderLexer lexer) throws IOException {
+    if (!"(".equals(lexer.peek())) {
+      return;
+    }
+    int depth = 0;
+    String token;
+    while ((token = lexer.next()) != null) {
+      if ("(".equals(token)) {
+        depth++;
+      } else if (")".equals(token)) {
+        depth--;
+        if (depth == 0) {
+          return;
+        }
+      }
+    }
+  }
+
+  private static boolean isIdentifier(@Nullable String token) {
+    return token != null && Character.isJavaIdentifierStart(token.charAt(0));
+  }
+
+  /**
+   * Splits the header into identifiers and single-char tokens, skipping whitespaces, comments, and the contents of literals.
+   */
+  private static class HeaderLexer {
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private int nextChar;
+    @Nullable
+    private String peeked = null;
+
+    HeaderLexer(Reader reader) throws IOException {
+      this.reader = reader;
+      this.nextChar = reader.read();
+    }
+
+    @CheckForNull
+    String peek() throws IOException {
+      if (peeked == null) {
+        peeked = read();
+      }
+      return peeked;
+    }
+
+    @CheckForNull
+    String next() throws IOException {
+      String token = peek();
+      peeked = null;
+      return token;
+    }
+
+    @CheckForNull
+    private String read() throws IOException {
+      while (true) {
+        while (nextChar >= 0 && (Character.isWhitespace(nextChar) || nextChar == BYTE_ORDER_MARK)) {
+          advance();
+        }
+        if (nextChar < 0) {
+          return null;
+        }
+        int c = nextChar;
+        advance();
+        if (c == '/' && nextChar == '/') {
+          skipLineComment();
+        } else if (c == '/' && nextChar == '*') {
+          skipBlockComment();
+        } else if (Character.isJavaIdentifierStart(c)) {
+          return identifier(c);
+        } else {
+          if (c == '"' || c == '\'') {
+            skipLiteral(c);
+          }
+          return String.valueOf((char) c);
+        }
+      }
+    }
+
+    private String identifier(int firstChar) throws IOException {
+      StringBuilder identifier = new StringBuilder().append((char) firstChar);
+      while (nextChar >= 0 && Character.isJavaIdentifierPart(nextChar)) {
+        identifier.append((char) nextChar);
+        advance();
+      }
+      return identifier.toString();
+    }
+
+    private void skipLineComment() throws IOException {
+      while (nextChar >= 0 && nextChar != '\n' && nextChar != '\r') {
+        advance();
+      }
+    }
+
+    private void skipBlockComment() throws IOException {
+      // the '*' opening the comment can not close it
+      advance();
+      int previous = 0;
+      while (nextChar >= 0 && !(previous == '*' && nextChar == '/')) {
+        previous = nextChar;
+        advance();
+      }
+      advance();
+    }
+
+    private void skipLiteral(int quote) throws IOException {
+      while (nextChar >= 0 && nextChar != quote && nextChar != '\n') {
+        if (nextChar == '\\') {
+          advance();
+        }
+        advance();
+      }
+      advance();
+    }
+
+    private void advance() throws IOException {
+      nextChar = reader.read();
+    }
+  }
+
+  @VisibleForTesting
+  static class Header {
+    String packageName = "";
+    final List<String> imports = new ArrayList<>();
+  }
+
+}
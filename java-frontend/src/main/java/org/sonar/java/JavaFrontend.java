@@ -29,7 +29,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -45,6 +52,7 @@ import org.sonar.java.caching.CacheContextImpl;
 import org.sonar.java.collections.CollectionUtils;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.model.ClasspathIndex;
 import org.sonar.java.model.JParserConfig;
 import org.sonar.java.model.VisitorsBridge;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -58,6 +66,7 @@ public class JavaFrontend {
 
   private static final Logger LOG = LoggerFactory.getLogger(JavaFrontend.class);
   private static final String BATCH_ERROR_MESSAGE = "Batch Mode failed, analysis of Java Files stopped.";
+  private static final String CLASSPATH_INDEX_FILENAME = "java-classpath-index.txt";
 
   private final JavaVersion javaVersion;
   private final SonarComponents sonarComponents;
@@ -65,6 +74,12 @@ public class JavaFrontend {
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
   private final JavaAstScanner astScannerForGeneratedFiles;
+  @Nullable
+  private ClasspathIndex classpathIndex = null;
+  /**
+   * Batches can be parsed concurrently, but visitors are not thread-safe: files are visited one at a time.
+   */
+  private final Object visitLock = new Object();
 
   public JavaFrontend(JavaVersion javaVersion, @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                       JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
@@ -163,12 +178,20 @@ public class JavaFrontend {
       scanAndMeasureTask(sourceFiles, astScanner::scan, "Main");
       scanAndMeasureTask(testFiles, astScannerForTests::scan, "Test");
       scanAndMeasureTask(generatedFiles, astScannerForGeneratedFiles::scan, "Generated");
-    } else if (isAutoScan()) {
-      scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
     } else {
-      scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+      if (isClasspathIndexEnabled()) {
+        classpathIndex = ClasspathIndex.load(new File(sonarComponents.projectLevelWorkDir(), CLASSPATH_INDEX_FILENAME));
+      }
+      if (isAutoScan()) {
+        scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
+      } else {
+        scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
+        scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
+        scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+      }
+      if (classpathIndex != null) {
+        classpathIndex.save();
+      }
     }
   }
 
@@ -221,26 +244,131 @@ public class JavaFrontend {
     } else {
       long batchSize = batchModeSizeInKB * 1_000L;
       LOG.info("{} with batch size {} KB.", logUsingBatch, batchModeSizeInKB);
-      BatchGenerator generator = new BatchGenerator(allInputFiles.iterator(), batchSize);
+      List<InputFile> inputFiles = allInputFiles;
+      if (isGroupBatchesByDependenciesEnabled()) {
+        LOG.info("Files are grouped in batches by package dependencies.");
+        Duration duration = PerformanceMeasure.start("GroupByDependencies");
+        inputFiles = DependencyOrder.sort(allInputFiles);
+        duration.stop();
+      }
+      int analysisThreads = getAnalysisThreads();
+      if (analysisThreads > 1 && !context.canScanFilesInAnyOrder()) {
+        LOG.info("Some active rules keep state between files, batches will be parsed sequentially.");
+        analysisThreads = 1;
+      }
+      if (analysisThreads > 1) {
+        // the batches parsed at the same time must fit in the heap budget of a single batch
+        long concurrentBatchSize = batchSize / analysisThreads;
+        LOG.info("Parsing batches concurrently using {} threads, with batch size {} KB.", analysisThreads, concurrentBatchSize / 1_000L);
+        if (isAdaptiveBatchSizeEnabled()) {
+          LOG.info("The batch size is not adjusted when batches are parsed concurrently.");
+        }
+        scanBatchesConcurrently(context, new BatchGenerator(inputFiles.iterator(), concurrentBatchSize), analysisThreads);
+      } else {
+        scanBatchesSequentially(context, inputFiles, batchSize, analysisProgress);
+      }
+    }
+  }
+
+  private void scanBatchesSequentially(BatchModeContext context, List<InputFile> inputFiles, long batchSize, AnalysisProgress analysisProgress) {
+    if (!isAdaptiveBatchSizeEnabled()) {
+      BatchGenerator generator = new BatchGenerator(inputFiles.iterator(), batchSize);
+      while (generator.hasNext()) {
+        scanBatch(context, generator.next(), analysisProgress);
+      }
+      return;
+    }
+    LOG.info("The batch size will be adjusted after each batch, depending on the heap usage.");
+    try (AdaptiveBatchSize adaptiveBatchSize = newAdaptiveBatchSize(batchSize)) {
+      BatchGenerator generator = new BatchGenerator(inputFiles.iterator(), adaptiveBatchSize);
       while (generator.hasNext()) {
-        List<InputFile> batch = generator.next();
-        scanBatch(context, batch, analysisProgress);
+        scanBatch(context, generator.next(), analysisProgress);
+        adaptiveBatchSize.adjust();
+      }
+    }
+  }
+
+  /**
+   * Batches are parsed by a pool of threads, each of them with its own ECJ environment. A file is visited by the thread parsing it, while ECJ
+   * is still in {@code acceptAST}: an environment is never used by two threads. Visitors are not thread-safe, the visits of the files are then
+   * serialized. At most one batch per thread is scheduled at a time.
+   */
+  private void scanBatchesConcurrently(BatchModeContext context, BatchGenerator generator, int analysisThreads) {
+    ExecutorService executor = Executors.newFixedThreadPool(analysisThreads);
+    CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<Void>> scheduledBatches = new ArrayList<>();
+    try {
+      int runningBatches = 0;
+      while (generator.hasNext() || runningBatches > 0) {
+        while (runningBatches < analysisThreads && generator.hasNext()) {
+          List<InputFile> batch = generator.next();
+          // performance measures are recorded by the thread which started the analysis measure, not by the threads of the pool
+          JParserConfig parserConfig = batchParserConfig(context).measurePerformance(false);
+          // batches are not processed one after the other, progress is then reported for each batch individually
+          scheduledBatches.add(completionService.submit(() -> scanBatch(parserConfig, context, batch, new AnalysisProgress(batch.size())), null));
+          runningBatches++;
+        }
+        waitForBatch(takeCompletedBatch(completionService));
+        runningBatches--;
+      }
+    } finally {
+      scheduledBatches.forEach(batch -> batch.cancel(true));
+      executor.shutdownNow();
+    }
+  }
+
+  private static Future<Void> takeCompletedBatch(CompletionService<Void> completionService) {
+    try {
+      return completionService.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    }
+  }
+
+  private static void waitForBatch(Future<?> scheduledBatch) {
+    try {
+      scheduledBatch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
       }
+      throw new IllegalStateException(cause);
     }
   }
 
   private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress) {
+    scanBatch(batchParserConfig(context), context, batchFiles, analysisProgress);
+  }
+
+  private <T extends InputFile> void scanBatch(JParserConfig parserConfig, BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress) {
     analysisProgress.startBatch(batchFiles.size());
     Set<Runnable> environmentsCleaners = new HashSet<>();
-    boolean shouldIgnoreUnnamedModuleForSplitPackage = sonarComponents!= null && sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
-    JParserConfig.Mode.BATCH
-      .create(javaVersion, context.getClasspath(), shouldIgnoreUnnamedModuleForSplitPackage)
-      .parse(batchFiles, this::analysisCancelled, analysisProgress, (input, result) -> scanAsBatchCallback(input, result, context, environmentsCleaners));
+    parserConfig.parse(batchFiles, this::analysisCancelled, analysisProgress, (input, result) -> {
+      synchronized (visitLock) {
+        scanAsBatchCallback(input, result, context, environmentsCleaners);
+      }
+    });
     // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually, at the end of each batches. See SONARJAVA-3609.
     environmentsCleaners.forEach(Runnable::run);
     analysisProgress.endBatch();
   }
 
+  private JParserConfig batchParserConfig(BatchModeContext context) {
+    boolean shouldIgnoreUnnamedModuleForSplitPackage = sonarComponents != null && sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
+    List<File> classpath = classpathIndex != null ? classpathIndex.filter(context.getClasspath()) : context.getClasspath();
+    return JParserConfig.Mode.BATCH
+      .create(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage)
+      .prefetchSources(getPrefetchSourcesSizeInKB() * 1_000L);
+  }
+
   private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context, Set<Runnable> environmentsCleaners) {
     JavaAstScanner scanner = context.selectScanner(inputFile);
     Duration duration = PerformanceMeasure.start(context.descriptor(inputFile));
@@ -260,6 +388,8 @@ public class JavaFrontend {
 
     JavaAstScanner selectScanner(InputFile input);
 
+    boolean canScanFilesInAnyOrder();
+
     void endOfAnalysis();
   }
 
@@ -285,6 +415,11 @@ public class JavaFrontend {
       return input.type() == InputFile.Type.TEST ? astScannerForTests : astScanner;
     }
 
+    @Override
+    public boolean canScanFilesInAnyOrder() {
+      return astScanner.canScanFilesInAnyOrder() && astScannerForTests.canScanFilesInAnyOrder();
+    }
+
     @Override
     public void endOfAnalysis() {
       astScanner.endOfAnalysis();
@@ -323,6 +458,11 @@ public class JavaFrontend {
       return scanner;
     }
 
+    @Override
+    public boolean canScanFilesInAnyOrder() {
+      return scanner.canScanFilesInAnyOrder();
+    }
+
     @Override
     public void endOfAnalysis() {
       scanner.endOfAnalysis();
@@ -331,12 +471,19 @@ public class JavaFrontend {
   }
 
   static class BatchGenerator {
-    public final long batchSizeInBytes;
+    private final LongSupplier batchSizeInBytes;
     private final Iterator<InputFile> source;
     private InputFile buffer = null;
 
 
     public BatchGenerator(Iterator<InputFile> source, long batchSizeInBytes) {
+      this(source, () -> batchSizeInBytes);
+    }
+
+    /**
+     * @param batchSizeInBytes read each time a new batch is generated, so the size can change between batches.
+     */
+    public BatchGenerator(Iterator<InputFile> source, LongSupplier batchSizeInBytes) {
       this.source = source;
       this.batchSizeInBytes = batchSizeInBytes;
     }
@@ -346,12 +493,13 @@ public class JavaFrontend {
     }
 
     public List<InputFile> next() {
+      long maxBatchSize = batchSizeInBytes.getAsLong();
       List<InputFile> batch = clearBuffer();
       long batchSize = batch.isEmpty() ? 0L : batch.get(0).file().length();
-      while (source.hasNext() && batchSize <= batchSizeInBytes) {
+      while (source.hasNext() && batchSize <= maxBatchSize) {
         buffer = source.next();
         batchSize += buffer.file().length();
-        if (batchSize > batchSizeInBytes) {
+        if (batchSize > maxBatchSize) {
           // If the batch is empty, we clear the value from the buffer and add it to the batch
           if (batch.isEmpty()) {
             batch.add(buffer);
@@ -377,6 +525,21 @@ public class JavaFrontend {
     }
   }
 
+  @VisibleForTesting
+  AdaptiveBatchSize newAdaptiveBatchSize(long initialBatchSize) {
+    return new AdaptiveBatchSize(initialBatchSize);
+  }
+
+  @VisibleForTesting
+  boolean isClasspathIndexEnabled() {
+    return sonarComponents != null && sonarComponents.isClasspathIndexEnabled();
+  }
+
+  @VisibleForTesting
+  boolean isGroupBatchesByDependenciesEnabled() {
+    return sonarComponents != null && sonarComponents.isGroupBatchesByDependenciesEnabled();
+  }
+
   @VisibleForTesting
   boolean isFileByFileEnabled() {
     return sonarComponents != null && sonarComponents.isFileByFileEnabled();
@@ -392,6 +555,21 @@ public class JavaFrontend {
     return sonarComponents == null ? -1L : sonarComponents.getBatchModeSizeInKB();
   }
 
+  @VisibleForTesting
+  long getPrefetchSourcesSizeInKB() {
+    return sonarComponents == null ? 0L : sonarComponents.getPrefetchSourcesSizeInKB();
+  }
+
+  @VisibleForTesting
+  boolean isAdaptiveBatchSizeEnabled() {
+    return sonarComponents != null && sonarComponents.isAdaptiveBatchSizeEnabled();
+  }
+
+  @VisibleForTesting
+  int getAnalysisThreads() {
+    return sonarComponents == null ? 1 : sonarComponents.getAnalysisThreads();
+  }
+
   private boolean isCacheEnabled() {
     return sonarComponents != null && CacheContextImpl.of(sonarComponents.context()).isCacheEnabled();
   }
@@ -32,6 +32,7 @@ import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
 import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.UnsharedTreeWalk;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -39,7 +40,7 @@ import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
-public class Measurer extends SubscriptionVisitor {
+public class Measurer extends SubscriptionVisitor implements UnsharedTreeWalk {
 
   private final SensorContext sensorContext;
   private final NoSonarFilter noSonarFilter;
@@ -89,6 +89,70 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   public static final String SONAR_AUTOSCAN_CHECK_FILTERING = "sonar.internal.analysis.autoscan.filtering";
   public static final String SONAR_BATCH_SIZE_KEY = "sonar.java.experimental.batchModeSizeInKB";
   public static final String SONAR_FILE_BY_FILE = "sonar.java.fileByFile";
+  /**
+   * Number of threads used to parse batches concurrently. Checks are still executed one file at a time.
+   * By default, or when set to a value lower than 2, batches are parsed sequentially.
+   */
+  public static final String SONAR_ANALYSIS_THREADS_KEY = "sonar.java.experimental.analysisThreads";
+  /**
+   * Describes if the batch size should be adjusted after each batch, depending on the heap retained after garbage collection.
+   * The configured or computed batch size is then only used as initial value.
+   */
+  public static final String SONAR_ADAPTIVE_BATCH_SIZE_KEY = "sonar.java.experimental.adaptiveBatchSize";
+  /**
+   * Describes if jars without classes are removed from the classpath given to ECJ, using an index persisted in the project work directory.
+   * Disabled by default.
+   */
+  public static final String SONAR_CLASSPATH_INDEX_KEY = "sonar.java.experimental.classpathIndex";
+  /**
+   * Describes if the files are ordered by package and package dependencies before being split into batches. Disabled by default.
+   */
+  public static final String SONAR_GROUP_BATCHES_BY_DEPENDENCIES_KEY = "sonar.java.experimental.groupBatchesByDependencies";
+  /**
+   * Describes if the syntax errors are stored in the server-side cache, so that unchanged files which could not be parsed are not
+   * parsed again by the next analyses. Disabled by default.
+   */
+  public static final String SONAR_CACHE_PARSE_ERRORS_KEY = "sonar.java.experimental.cacheParseErrors";
+  /**
+   * Describes if the method behaviors computed by the symbolic execution engine for a file are used for the invocations from the
+   * other files, and stored in the server-side cache for the next analyses. Disabled by default.
+   */
+  public static final String SONAR_SHARE_METHOD_BEHAVIORS_KEY = "sonar.java.experimental.shareMethodBehaviors";
+  /**
+   * Order in which the symbolic execution engine explores the paths of a method: "depth_first" (default), "breadth_first" or
+   * "reverse_post_order".
+   */
+  public static final String SONAR_SE_EXPLORATION_STRATEGY_KEY = "sonar.java.experimental.symbolicExecutionStrategy";
+  /**
+   * Describes if the symbolic execution engine uses the behaviors of the library methods computed from the bytecode of the jars of the
+   * classpath. The behaviors of a jar are kept in the working directory for the next analyses. Disabled by default.
+   */
+  public static final String SONAR_SE_LIBRARY_BEHAVIORS_KEY = "sonar.java.experimental.libraryMethodBehaviors";
+  /**
+   * Maximum number of steps of the symbolic execution of a method. 16000 by default.
+   */
+  public static final String SONAR_SE_METHOD_MAX_STEPS_KEY = "sonar.java.experimental.symbolicExecutionMethodMaxSteps";
+  /**
+   * Maximum time of the symbolic execution of a method, in milliseconds. Not limited by default.
+   */
+  public static final String SONAR_SE_METHOD_TIMEOUT_KEY = "sonar.java.experimental.symbolicExecutionMethodTimeoutInMs";
+  /**
+   * Maximum number of steps of the symbolic execution of all the methods of a file. Not limited by default.
+   */
+  public static final String SONAR_SE_FILE_MAX_STEPS_KEY = "sonar.java.experimental.symbolicExecutionFileMaxSteps";
+  /**
+   * Maximum time of the symbolic execution of all the methods of a file, in milliseconds. Not limited by default.
+   */
+  public static final String SONAR_SE_FILE_TIMEOUT_KEY = "sonar.java.experimental.symbolicExecutionFileTimeoutInMs";
+  /**
+   * Describes if the methods whose symbolic execution is aborted are listed in a JSON report written in the working directory.
+   * Disabled by default.
+   */
+  public static final String SONAR_SE_REPORT_KEY = "sonar.java.experimental.symbolicExecutionReport";
+  /**
+   * Maximum size of the sources read and lexed in advance while ECJ is processing a batch. Disabled by default.
+   */
+  public static final String SONAR_PREFETCH_SOURCES_SIZE_KEY = "sonar.java.experimental.prefetchSourcesSizeInKB";
   /**
    * Describes if an optimized analysis of unchanged by skipping some rules is enabled.
    * By default, the property is not set (null), leaving SQ/SC to decide whether to enable this behavior.
@@ -127,6 +191,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   private final Set<RuleKey> additionalAutoScanCompatibleRuleKeys;
 
   private boolean alreadyLoggedSkipStatus = false;
+  private ContentHashCache contentHashCache;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath,
@@ -180,6 +245,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
 
   public void setSensorContext(SensorContext context) {
     this.context = context;
+    this.contentHashCache = null;
   }
 
   public void setCheckFilter(UnaryOperator<List<JavaCheck>> checkFilter) {
@@ -420,6 +486,84 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     return config.getLong(SONAR_BATCH_SIZE_KEY).orElse(computeIdealBatchSize());
   }
 
+  /**
+   * Returns the number of threads that can be used to parse batches concurrently, as read from configuration.
+   *
+   * @return the configured number of threads, or 1 if no value or an invalid value is configured.
+   */
+  public int getAnalysisThreads() {
+    return Math.max(1, context.config().getInt(SONAR_ANALYSIS_THREADS_KEY).orElse(1));
+  }
+
+  /**
+   * Returns the maximum size of the sources which can be read in advance in batch mode, as read from configuration, in Kilo Bytes.
+   *
+   * @return the configured size, or 0 if sources should not be read in advance.
+   */
+  public long getPrefetchSourcesSizeInKB() {
+    return Math.max(0L, context.config().getLong(SONAR_PREFETCH_SOURCES_SIZE_KEY).orElse(0L));
+  }
+
+  public boolean isAdaptiveBatchSizeEnabled() {
+    return context.config().getBoolean(SONAR_ADAPTIVE_BATCH_SIZE_KEY).orElse(false);
+  }
+
+  public boolean isGroupBatchesByDependenciesEnabled() {
+    return context.config().getBoolean(SONAR_GROUP_BATCHES_BY_DEPENDENCIES_KEY).orElse(false);
+  }
+
+  public boolean isClasspathIndexEnabled() {
+    return context.config().getBoolean(SONAR_CLASSPATH_INDEX_KEY).orElse(false);
+  }
+
+  public boolean isParseErrorCacheEnabled() {
+    return context.config().getBoolean(SONAR_CACHE_PARSE_ERRORS_KEY).orElse(false);
+  }
+
+  public boolean shouldShareMethodBehaviors() {
+    return context.config().getBoolean(SONAR_SHARE_METHOD_BEHAVIORS_KEY).orElse(false);
+  }
+
+  public String symbolicExecutionStrategy() {
+    return context.config().get(SONAR_SE_EXPLORATION_STRATEGY_KEY).orElse("depth_first");
+  }
+
+  public boolean shouldComputeLibraryMethodBehaviors() {
+    return context.config().getBoolean(SONAR_SE_LIBRARY_BEHAVIORS_KEY).orElse(false);
+  }
+
+  /**
+   * @return the configured maximum number of steps of the symbolic execution of a method, or 0 to use the default maximum
+   */
+  public int symbolicExecutionMethodMaxSteps() {
+    return Math.max(0, context.config().getInt(SONAR_SE_METHOD_MAX_STEPS_KEY).orElse(0));
+  }
+
+  /**
+   * @return the configured timeout of the symbolic execution of a method, or 0 if it is not limited
+   */
+  public long symbolicExecutionMethodTimeoutInMs() {
+    return Math.max(0L, context.config().getLong(SONAR_SE_METHOD_TIMEOUT_KEY).orElse(0L));
+  }
+
+  /**
+   * @return the configured maximum number of steps of the symbolic execution of a file, or 0 if it is not limited
+   */
+  public long symbolicExecutionFileMaxSteps() {
+    return Math.max(0L, context.config().getLong(SONAR_SE_FILE_MAX_STEPS_KEY).orElse(0L));
+  }
+
+  /**
+   * @return the configured timeout of the symbolic execution of a file, or 0 if it is not limited
+   */
+  public long symbolicExecutionFileTimeoutInMs() {
+    return Math.max(0L, context.config().getLong(SONAR_SE_FILE_TIMEOUT_KEY).orElse(0L));
+  }
+
+  public boolean shouldReportAbortedSymbolicExecutions() {
+    return context.config().getBoolean(SONAR_SE_REPORT_KEY).orElse(false);
+  }
+
   public boolean shouldIgnoreUnnamedModuleForSplitPackage() {
     return context.config().getBoolean(SONAR_IGNORE_UNNAMED_MODULE_FOR_SPLIT_PACKAGE).orElse(false);
   }
@@ -493,7 +637,10 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
 
 
   public boolean fileCanBeSkipped(InputFile inputFile) {
-    var contentHashCache = new ContentHashCache(context);
+    if (contentHashCache == null) {
+      // Shared by all the files, so that the hash of a file is computed at most once
+      contentHashCache = new ContentHashCache(context);
+    }
     if (inputFile instanceof GeneratedFile) {
       // Generated files should not be skipped as we cannot assess the change status of the source file
       return false;
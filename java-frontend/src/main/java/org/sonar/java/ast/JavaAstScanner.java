@@ -67,6 +67,10 @@ public class JavaAstScanner {
     return visitor.getClasspath();
   }
 
+  public boolean canScanFilesInAnyOrder() {
+    return visitor.canVisitFilesInAnyOrder();
+  }
+
   /**
    * Attempt to scan files without parsing, using the raw input file and cached information.
    *
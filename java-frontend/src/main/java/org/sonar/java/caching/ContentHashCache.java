@@ -22,6 +22,9 @@ package org.sonar.java.caching;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -33,11 +36,16 @@ public class ContentHashCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(ContentHashCache.class);
   private static final String CONTENT_HASH_KEY = String.format("java:contentHash:%s:", FileHashingUtils.HASH_ALGORITHM);
+  private static final String LEGACY_CONTENT_HASH_KEY = String.format("java:contentHash:%s:", FileHashingUtils.LEGACY_HASH_ALGORITHM);
   private static final String HASH_COMPUTE_FAIL_MSG = "Failed to compute content hash for file %s";
 
   private ReadCache readCache;
   private WriteCache writeCache;
   private final boolean enabled;
+  /**
+   * The hash of a file is computed at most once per analysis, even when it is both compared and written to the cache.
+   */
+  private final Map<InputFile, byte[]> hashes = Collections.synchronizedMap(new IdentityHashMap<>());
 
   public ContentHashCache(SensorContext context) {
     CacheContextImpl cacheContext = CacheContextImpl.of(context);
@@ -62,7 +70,7 @@ public class ContentHashCache {
     try {
       LOG.trace("Reading cache for the file {}", inputFile.key());
       byte[] cachedHash = readCache.read(cacheKey).readAllBytes();
-      byte[] fileHash = FileHashingUtils.inputFileContentHash(inputFile);
+      byte[] fileHash = contentHash(inputFile);
       boolean isHashEqual = MessageDigest.isEqual(fileHash, cachedHash);
       if (isHashEqual) {
         copyFromPrevious(inputFile);
@@ -72,19 +80,38 @@ public class ContentHashCache {
       return isHashEqual;
     } catch (IllegalArgumentException e) {
       LOG.trace(String.format("Could not find key %s in the cache", cacheKey));
-      writeToCache(inputFile);
-    } catch (IOException | NoSuchAlgorithmException e) {
+      return hasSameLegacyHashCached(inputFile);
+    } catch (IOException e) {
       LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
     }
     return false;
   }
 
+  /**
+   * Files hashed by previous versions of the analyzer are compared with their legacy hash. Their new hash is written in any case,
+   * so the legacy hash is not needed anymore by the next analysis.
+   */
+  private boolean hasSameLegacyHashCached(InputFile inputFile) {
+    String legacyCacheKey = getLegacyCacheKey(inputFile);
+    boolean isHashEqual = false;
+    if (readCache.contains(legacyCacheKey)) {
+      try {
+        byte[] cachedHash = readCache.read(legacyCacheKey).readAllBytes();
+        isHashEqual = MessageDigest.isEqual(FileHashingUtils.legacyInputFileContentHash(inputFile), cachedHash);
+      } catch (IllegalArgumentException | IOException | NoSuchAlgorithmException e) {
+        LOG.trace(String.format("Could not compare the legacy hash of file %s", inputFile.key()));
+      }
+    }
+    writeToCache(inputFile);
+    return isHashEqual;
+  }
+
   public boolean contains(InputFile inputFile) {
     if (!enabled) {
       LOG.trace("Cannot lookup cached hashes when the cache is disabled ({}).", inputFile.key());
       return false;
     }
-    return readCache.contains(getCacheKey(inputFile));
+    return readCache.contains(getCacheKey(inputFile)) || readCache.contains(getLegacyCacheKey(inputFile));
   }
 
   public boolean writeToCache(InputFile inputFile) {
@@ -95,16 +122,25 @@ public class ContentHashCache {
     LOG.trace("Writing to the cache for file {}", inputFile.key());
     String cacheKey = getCacheKey(inputFile);
     try {
-      writeCache.write(cacheKey, FileHashingUtils.inputFileContentHash(inputFile));
+      writeCache.write(cacheKey, contentHash(inputFile));
       return true;
     } catch (IllegalArgumentException e) {
       LOG.trace(String.format("Tried to write multiple times to cache key %s. Ignoring writes after the first.", cacheKey));
-    } catch (IOException | NoSuchAlgorithmException e) {
+    } catch (IOException e) {
       LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
     }
     return false;
   }
 
+  private byte[] contentHash(InputFile inputFile) throws IOException {
+    byte[] hash = hashes.get(inputFile);
+    if (hash == null) {
+      hash = FileHashingUtils.inputFileContentHash(inputFile);
+      hashes.put(inputFile, hash);
+    }
+    return hash;
+  }
+
   private void copyFromPrevious(InputFile inputFile) {
     LOG.trace("Copying cache from previous for file {}", inputFile.key());
     writeCache.copyFromPrevious(getCacheKey(inputFile));
@@ -113,4 +149,8 @@ public class ContentHashCache {
   private static String getCacheKey(InputFile inputFile) {
     return CONTENT_HASH_KEY + inputFile.key();
   }
+
+  private static String getLegacyCacheKey(InputFile inputFile) {
+    return LEGACY_CONTENT_HASH_KEY + inputFile.key();
+  }
 }
@@ -23,31 +23,44 @@ import org.sonar.api.batch.fs.InputFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 public class FileHashingUtils {
 
   private FileHashingUtils() {
   }
 
-  public static final String HASH_ALGORITHM = "MD5";
+  /**
+   * Non-cryptographic hash of the raw bytes of the files, used to detect unchanged files.
+   */
+  public static final String HASH_ALGORITHM = "MURMUR3_128";
 
-  public static byte[] inputFileContentHash(InputFile inputFile) throws IOException, NoSuchAlgorithmException {
-    byte[] contentBytes = inputFile.contents().getBytes(StandardCharsets.UTF_8);
-    MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
-    return messageDigest.digest(contentBytes);
+  /**
+   * Hash of the UTF-8 encoded contents of the files, used by previous versions of the analyzer. Only read to migrate existing cache entries.
+   */
+  public static final String LEGACY_HASH_ALGORITHM = "MD5";
+
+  public static byte[] inputFileContentHash(InputFile inputFile) throws IOException {
+    try (InputStream input = inputFile.inputStream()) {
+      return Murmur3Hash.hash(input);
+    }
   }
 
-  public static byte[] inputFileContentHash(String filepath) throws IOException, NoSuchAlgorithmException {
+  public static byte[] inputFileContentHash(String filepath) throws IOException {
     File file = new File(filepath);
-    String contents = new String(Files.readAllBytes(file.toPath()), UTF_8);
-    MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
-    return messageDigest.digest(contents.getBytes(UTF_8));
+    try (InputStream input = Files.newInputStream(file.toPath())) {
+      return Murmur3Hash.hash(input);
+    }
+  }
+
+  public static byte[] legacyInputFileContentHash(InputFile inputFile) throws IOException, NoSuchAlgorithmException {
+    byte[] contentBytes = inputFile.contents().getBytes(StandardCharsets.UTF_8);
+    MessageDigest messageDigest = MessageDigest.getInstance(LEGACY_HASH_ALGORITHM);
+    return messageDigest.digest(contentBytes);
   }
 
 }
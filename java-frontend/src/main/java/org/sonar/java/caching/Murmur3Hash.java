@@ -0,0 +1,129 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming implementation of the x64 128-bit variant of MurmurHash3, with a seed of 0.
+ *
+ * The hash is returned as 16 bytes: the two 64-bit halves of the hash, each one in little-endian order.
+ */
+final class Murmur3Hash {
+
+  private static final int BLOCK_SIZE = 16;
+  private static final int BUFFER_SIZE = 8192;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private long h1 = 0L;
+  private long h2 = 0L;
+  private long length = 0L;
+
+  private Murmur3Hash() {
+  }
+
+  static byte[] hash(InputStream input) throws IOException {
+    Murmur3Hash hash = new Murmur3Hash();
+    // the buffer size is a multiple of the block size, only the last read can end with an incomplete block
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int filled = 0;
+    int read;
+    while ((read = input.read(buffer, filled, buffer.length - filled)) != -1) {
+      filled += read;
+      if (filled == buffer.length) {
+        hash.blocks(buffer, filled);
+        filled = 0;
+      }
+    }
+    int completeBlocks = filled - (filled % BLOCK_SIZE);
+    hash.blocks(buffer, completeBlocks);
+    hash.tail(buffer, completeBlocks, filled - completeBlocks);
+    return hash.digest();
+  }
+
+  private void blocks(byte[] bytes, int end) {
+    for (int offset = 0; offset < end; offset += BLOCK_SIZE) {
+      long k1 = littleEndianLong(bytes, offset, 8);
+      long k2 = littleEndianLong(bytes, offset + 8, 8);
+
+      h1 ^= mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      h2 ^= mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+    length += end;
+  }
+
+  private void tail(byte[] bytes, int offset, int size) {
+    h1 ^= mixK1(littleEndianLong(bytes, offset, Math.min(size, 8)));
+    h2 ^= mixK2(littleEndianLong(bytes, offset + 8, Math.max(size - 8, 0)));
+    length += size;
+  }
+
+  private byte[] digest() {
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+    byte[] result = new byte[BLOCK_SIZE];
+    for (int i = 0; i < 8; i++) {
+      result[i] = (byte) (h1 >>> (8 * i));
+      result[i + 8] = (byte) (h2 >>> (8 * i));
+    }
+    return result;
+  }
+
+  private static long littleEndianLong(byte[] bytes, int offset, int size) {
+    long value = 0L;
+    for (int i = 0; i < size; i++) {
+      value |= (bytes[offset + i] & 0xffL) << (8 * i);
+    }
+    return value;
+  }
+
+  private static long mixK1(long k1) {
+    return Long.rotateLeft(k1 * C1, 31) * C2;
+  }
+
+  private static long mixK2(long k2) {
+    return Long.rotateLeft(k2 * C2, 33) * C1;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+}
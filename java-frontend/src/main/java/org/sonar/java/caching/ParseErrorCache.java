@@ -0,0 +1,133 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import com.sonar.sslr.api.RecognitionException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+/**
+ * Keeps the syntax error of the files which could not be parsed, so that it can be reported again for unchanged files without
+ * invoking ECJ. A syntax error only depends on the content of the file, on the Java version and on the version of the analyzer,
+ * which embeds ECJ. Both versions are stored with the error.
+ *
+ * An entry is a compact binary record: the format of the record, the analyzer version, the Java version, the line and the message
+ * of the error. Entries written in another format or by another analyzer version are ignored.
+ *
+ * Only syntax errors are cached. The trees and the semantic of the files which can be parsed are not: the tree implementations are
+ * not serializable, and the semantic is read from the bindings of the ECJ environment which parsed the file, which cannot be
+ * rebuilt without ECJ. Unchanged files which can be parsed are only skipped by the checks able to reuse their own cached data.
+ */
+public class ParseErrorCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParseErrorCache.class);
+  private static final String CACHE_KEY_PREFIX = "java:parseError:";
+  @VisibleForTesting
+  static final int FORMAT_VERSION = 1;
+  private static final String UNKNOWN_ANALYZER_VERSION = "unknown";
+
+  private final CacheContext cacheContext;
+  private final String javaVersion;
+  private final String analyzerVersion;
+
+  public ParseErrorCache(CacheContext cacheContext, String javaVersion) {
+    this(cacheContext, javaVersion, ParseErrorCache.class.getPackage().getImplementationVersion());
+  }
+
+  @VisibleForTesting
+  ParseErrorCache(CacheContext cacheContext, String javaVersion, @Nullable String analyzerVersion) {
+    this.cacheContext = cacheContext;
+    this.javaVersion = javaVersion;
+    this.analyzerVersion = analyzerVersion != null ? analyzerVersion : UNKNOWN_ANALYZER_VERSION;
+  }
+
+  /**
+   * Stores the given error for the next analysis. Only syntax errors are stored: failures of ECJ itself, which come with a cause,
+   * may not happen again.
+   */
+  public void write(InputFile inputFile, RecognitionException error) {
+    if (!cacheContext.isCacheEnabled() || error.getCause() != null) {
+      return;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(analyzerVersion);
+      out.writeUTF(javaVersion);
+      out.writeInt(error.getLine());
+      out.writeUTF(error.getMessage());
+    } catch (IOException e) {
+      // message too long to be encoded, the file will be parsed again
+      LOG.trace("Could not write the parse error of file {} to the cache", inputFile);
+      return;
+    }
+    String key = cacheKey(inputFile);
+    try {
+      cacheContext.getWriteCache().write(key, bytes.toByteArray());
+    } catch (IllegalArgumentException e) {
+      LOG.trace(String.format("Tried to write multiple times to cache key %s. Ignoring writes after the first.", key));
+    }
+  }
+
+  /**
+   * Returns the syntax error found by the previous analysis of the given file, and keeps it for the next analysis.
+   * To be called only for unchanged files.
+   *
+   * @return null when the file was parsed successfully, or when the error was found with another Java version, another version of the
+   * analyzer, or stored in another format.
+   */
+  @CheckForNull
+  public RecognitionException readPrevious(InputFile inputFile) {
+    if (!cacheContext.isCacheEnabled()) {
+      return null;
+    }
+    String key = cacheKey(inputFile);
+    byte[] bytes = cacheContext.getReadCache().readBytes(key);
+    if (bytes == null) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readInt() != FORMAT_VERSION || !analyzerVersion.equals(in.readUTF()) || !javaVersion.equals(in.readUTF())) {
+        return null;
+      }
+      RecognitionException error = new RecognitionException(in.readInt(), in.readUTF());
+      cacheContext.getWriteCache().copyFromPrevious(key);
+      return error;
+    } catch (IOException e) {
+      LOG.trace("Could not read the parse error of file {} from the cache", inputFile);
+      return null;
+    }
+  }
+
+  private static String cacheKey(InputFile inputFile) {
+    return CACHE_KEY_PREFIX + inputFile.key();
+  }
+
+}
@@ -21,7 +21,9 @@ package org.sonar.java.matcher;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -48,18 +50,28 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
   @Nullable
   private final Predicate<String> namePredicate;
 
+  /**
+   * Names accepted by the name predicate, null when it can accept any name. Methods of other names are rejected from the tree,
+   * before resolving the call site type and the parameter types of the method.
+   */
+  @Nullable
+  private final Set<String> names;
+
   @Nullable
   private final Predicate<List<Type>> parametersPredicate;
 
   public MethodMatchersBuilder() {
     this.typePredicate = null;
     this.namePredicate = null;
+    this.names = null;
     this.parametersPredicate = null;
   }
 
-  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate) {
+  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Set<String> names,
+    @Nullable Predicate<List<Type>> parametersPredicate) {
     this.typePredicate = typePredicate;
     this.namePredicate = namePredicate;
+    this.names = names;
     this.parametersPredicate = parametersPredicate;
   }
 
@@ -112,15 +124,27 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public NameBuilder ofType(Predicate<Type> typePredicate) {
-    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate);
+    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, names, parametersPredicate);
   }
 
   @Override
   public ParametersBuilder names(String... names) {
-    return name(substituteAnyAndCreateEfficientPredicate(
+    Predicate<String> predicate = substituteAnyAndCreateEfficientPredicate(
       names,
       name -> name::equals,
-      nameList -> nameList::contains));
+      nameList -> nameList::contains);
+    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, predicate), unionOfNames(names), parametersPredicate);
+  }
+
+  @CheckForNull
+  private Set<String> unionOfNames(String... addedNames) {
+    List<String> addedNameList = Arrays.asList(addedNames);
+    if (addedNameList.contains(ANY) || (namePredicate != null && names == null)) {
+      return null;
+    }
+    Set<String> union = names == null ? new HashSet<>() : new HashSet<>(names);
+    union.addAll(addedNameList);
+    return Collections.unmodifiableSet(union);
   }
 
   @Override
@@ -135,7 +159,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder name(Predicate<String> namePredicate) {
-    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate);
+    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), null, parametersPredicate);
   }
 
   @Override
@@ -164,7 +188,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder addParametersMatcher(Predicate<List<Type>> parametersPredicate) {
-    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate));
+    return new MethodMatchersBuilder(typePredicate, namePredicate, names, or(this.parametersPredicate, parametersPredicate));
   }
 
   private static boolean exactMatchesParameters(List<Predicate<Type>> expectedTypes, List<Type> actualTypes) {
@@ -182,17 +206,20 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public boolean matches(NewClassTree newClassTree) {
-    return matches(newClassTree.methodSymbol(), null);
+    return MethodMatchersIndex.canMatch(names, CONSTRUCTOR) && matches(newClassTree.methodSymbol(), null);
   }
 
   @Override
   public boolean matches(MethodInvocationTree mit) {
     IdentifierTree id = getIdentifier(mit);
-    return matches(id.symbol(), getCallSiteType(mit));
+    return MethodMatchersIndex.canMatch(names, MethodMatchersIndex.invokedName(id)) && matches(id.symbol(), getCallSiteType(mit));
   }
 
   @Override
   public boolean matches(MethodTree methodTree) {
+    if (!MethodMatchersIndex.canMatch(names, MethodMatchersIndex.declaredName(methodTree))) {
+      return false;
+    }
     Symbol.MethodSymbol symbol = methodTree.symbol();
     Symbol.TypeSymbol enclosingClass = symbol.enclosingClass();
     return enclosingClass != null && matches(symbol, enclosingClass.type());
@@ -200,12 +227,18 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public boolean matches(MethodReferenceTree methodReferenceTree) {
-    return matches(methodReferenceTree.method().symbol(), getCallSiteType(methodReferenceTree));
+    return MethodMatchersIndex.canMatch(names, MethodMatchersIndex.referencedName(methodReferenceTree))
+      && matches(methodReferenceTree.method().symbol(), getCallSiteType(methodReferenceTree));
   }
 
   @Override
   public boolean matches(Symbol symbol) {
-    return matches(symbol, null);
+    return MethodMatchersIndex.canMatch(names, symbol.name()) && matches(symbol, null);
+  }
+
+  @CheckForNull
+  Set<String> names() {
+    return names;
   }
 
   @Override
@@ -0,0 +1,76 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.matcher;
+
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+
+/**
+ * Number of method matchers evaluated, and of method matchers rejected by the name of the method, during the visit of the files of an
+ * analysis. They measure how much predicate evaluation is avoided by {@link MethodMatchersIndex}.
+ *
+ * Method matchers are constants shared by the checks of all the analyses: the counters of the analysis visiting a file are attached to
+ * the thread visiting it, between {@link #startCounting()} and {@link #stopCounting()}.
+ */
+public final class MethodMatchersCounters {
+
+  private static final ThreadLocal<MethodMatchersCounters> CURRENT = new ThreadLocal<>();
+
+  private final LongAdder evaluated = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Counts the matchers evaluated by the current thread in these counters, until {@link #stopCounting()}.
+   */
+  public void startCounting() {
+    CURRENT.set(this);
+  }
+
+  public static void stopCounting() {
+    CURRENT.remove();
+  }
+
+  static void evaluated() {
+    MethodMatchersCounters counters = current();
+    if (counters != null) {
+      counters.evaluated.increment();
+    }
+  }
+
+  static void rejected(int count) {
+    MethodMatchersCounters counters = current();
+    if (counters != null && count > 0) {
+      counters.rejected.add(count);
+    }
+  }
+
+  @Nullable
+  private static MethodMatchersCounters current() {
+    return CURRENT.get();
+  }
+
+  public long evaluatedCount() {
+    return evaluated.sum();
+  }
+
+  public long rejectedCount() {
+    return rejected.sum();
+  }
+}
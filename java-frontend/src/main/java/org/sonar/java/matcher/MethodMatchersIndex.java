@@ -0,0 +1,143 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.matcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodReferenceTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Index of method matchers by the names of the methods they can match.
+ *
+ * The name of the invoked method is known from the tree, without resolving the type of the call site nor the parameter types of the
+ * method. Only the matchers indexed under this name, and the ones matching methods of any name, are then evaluated. The evaluated and
+ * rejected matchers are counted in the {@link MethodMatchersCounters} of the current analysis.
+ */
+public final class MethodMatchersIndex {
+
+  private final int size;
+  private final Map<String, List<MethodMatchers>> matchersByName = new HashMap<>();
+  /**
+   * Matchers which can match methods of any name, in the order they were given.
+   */
+  private final List<MethodMatchers> anyNameMatchers = new ArrayList<>();
+  /**
+   * Union of the names of the indexed matchers, null when some matcher can match methods of any name.
+   */
+  @Nullable
+  private final Set<String> names;
+
+  MethodMatchersIndex(List<? extends MethodMatchers> matchers) {
+    size = matchers.size();
+    Set<String> allNames = new HashSet<>();
+    boolean anyName = false;
+    for (MethodMatchers matcher : matchers) {
+      Set<String> matcherNames = names(matcher);
+      if (matcherNames == null) {
+        anyName = true;
+      } else {
+        allNames.addAll(matcherNames);
+      }
+    }
+    allNames.forEach(name -> matchersByName.put(name, new ArrayList<>()));
+    // keep the order of the given matchers in each list of candidates
+    for (MethodMatchers matcher : matchers) {
+      Set<String> matcherNames = names(matcher);
+      if (matcherNames == null) {
+        anyNameMatchers.add(matcher);
+        matchersByName.values().forEach(candidates -> candidates.add(matcher));
+      } else {
+        matcherNames.forEach(name -> matchersByName.get(name).add(matcher));
+      }
+    }
+    names = anyName ? null : Collections.unmodifiableSet(allNames);
+  }
+
+  /**
+   * @return the matchers which can match a method of the given name
+   */
+  List<MethodMatchers> candidates(String methodName) {
+    List<MethodMatchers> candidates = matchersByName.getOrDefault(methodName, anyNameMatchers);
+    MethodMatchersCounters.rejected(size - candidates.size());
+    return candidates;
+  }
+
+  /**
+   * @return the names of the methods which can be matched by the given matcher, or null when they are not known
+   */
+  @CheckForNull
+  static Set<String> names(MethodMatchers matcher) {
+    if (matcher instanceof MethodMatchersBuilder) {
+      return ((MethodMatchersBuilder) matcher).names();
+    }
+    if (matcher instanceof MethodMatchersList) {
+      return ((MethodMatchersList) matcher).names();
+    }
+    if (matcher instanceof NoneMethodMatchers) {
+      return Collections.emptySet();
+    }
+    return null;
+  }
+
+  @CheckForNull
+  Set<String> names() {
+    return names;
+  }
+
+  /**
+   * @return true when a method of the given name can be matched by a matcher restricted to the given names
+   */
+  static boolean canMatch(@Nullable Set<String> names, String methodName) {
+    if (names == null || names.contains(methodName)) {
+      MethodMatchersCounters.evaluated();
+      return true;
+    }
+    MethodMatchersCounters.rejected(1);
+    return false;
+  }
+
+  /**
+   * Name of the invoked method, as matched by the name predicates: "this(...)" and "super(...)" invoke constructors.
+   */
+  static String invokedName(IdentifierTree methodIdentifier) {
+    String name = methodIdentifier.name();
+    return "this".equals(name) || "super".equals(name) ? MethodMatchers.CONSTRUCTOR : name;
+  }
+
+  static String referencedName(MethodReferenceTree methodReferenceTree) {
+    String name = methodReferenceTree.method().name();
+    return "new".equals(name) ? MethodMatchers.CONSTRUCTOR : name;
+  }
+
+  static String declaredName(MethodTree methodTree) {
+    return methodTree.is(Tree.Kind.CONSTRUCTOR) ? MethodMatchers.CONSTRUCTOR : methodTree.simpleName().name();
+  }
+}
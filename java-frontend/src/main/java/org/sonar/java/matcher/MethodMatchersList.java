@@ -21,6 +21,10 @@ package org.sonar.java.matcher;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import org.sonar.java.model.ExpressionUtils;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
@@ -30,35 +34,49 @@ import org.sonar.plugins.java.api.tree.NewClassTree;
 
 public class MethodMatchersList implements MethodMatchers {
 
-  private List<? extends MethodMatchers> matchers;
+  private final MethodMatchersIndex index;
 
   public MethodMatchersList(List<? extends MethodMatchers> matchers) {
-    this.matchers = new ArrayList<>(matchers);
+    this.index = new MethodMatchersIndex(new ArrayList<>(matchers));
   }
 
   @Override
   public boolean matches(NewClassTree newClassTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(newClassTree));
+    return anyMatch(CONSTRUCTOR, matcher -> matcher.matches(newClassTree));
   }
 
   @Override
   public boolean matches(MethodInvocationTree mit) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(mit));
+    return anyMatch(MethodMatchersIndex.invokedName(ExpressionUtils.methodName(mit)), matcher -> matcher.matches(mit));
   }
 
   @Override
   public boolean matches(MethodTree methodTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodTree));
+    return anyMatch(MethodMatchersIndex.declaredName(methodTree), matcher -> matcher.matches(methodTree));
   }
 
   @Override
   public boolean matches(MethodReferenceTree methodReferenceTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodReferenceTree));
+    return anyMatch(MethodMatchersIndex.referencedName(methodReferenceTree), matcher -> matcher.matches(methodReferenceTree));
   }
 
   @Override
   public boolean matches(Symbol symbol) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(symbol));
+    return anyMatch(symbol.name(), matcher -> matcher.matches(symbol));
+  }
+
+  private boolean anyMatch(String methodName, Predicate<MethodMatchers> predicate) {
+    for (MethodMatchers matcher : index.candidates(methodName)) {
+      if (predicate.test(matcher)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @CheckForNull
+  Set<String> names() {
+    return index.names();
   }
 
 }
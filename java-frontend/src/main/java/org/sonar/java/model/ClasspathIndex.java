@@ -0,0 +1,212 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.CheckForNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * Index of the jars of the classpath which are needed by ECJ, persisted between analyses.
+ *
+ * For each batch, ECJ opens all the jars of the classpath and lists their entries to know which packages they contain.
+ * Jars without any class (resources, sources, empty jars) can never answer a lookup, but are opened for every batch anyway.
+ * The index is used to remove them from the classpath given to ECJ. Jars referencing other jars with the Class-Path attribute
+ * of their manifest, like the "pathing" jars used to shorten command lines, are kept even without classes.
+ *
+ * A jar is identified by its path, size and last modification time. A jar is only read again when one of them changes.
+ *
+ * The packages of the jars are not indexed: {@link org.eclipse.jdt.core.dom.ASTParser} only accepts the classpath as a list of paths,
+ * and builds a name environment which lists the entries of each jar by itself. Package lookups cannot be answered by the index, and
+ * dropping the jars which do not contain the packages of a batch is not possible, as the types of other packages are needed to
+ * resolve the supertypes and signatures of the types found in the jars.
+ */
+public class ClasspathIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClasspathIndex.class);
+
+  private static final String SEPARATOR = "\t";
+  /**
+   * First line of the index file, to be changed with the format of the lines. Files with another first line are ignored.
+   */
+  @VisibleForTesting
+  static final String FORMAT_LINE = "# classpath index, format 2";
+
+  private final File indexFile;
+  private final Map<String, JarEntry> jars = new HashMap<>();
+  private boolean modified = false;
+
+  private ClasspathIndex(File indexFile) {
+    this.indexFile = indexFile;
+  }
+
+  /**
+   * Loads the index from the given file. The index is empty when the file does not exist or cannot be read.
+   */
+  public static ClasspathIndex load(File indexFile) {
+    ClasspathIndex index = new ClasspathIndex(indexFile);
+    if (indexFile.isFile()) {
+      try {
+        List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !FORMAT_LINE.equals(lines.get(0))) {
+          LOG.debug("Ignoring the classpath index {}, written in another format.", indexFile);
+          return index;
+        }
+        for (String line : lines.subList(1, lines.size())) {
+          JarEntry jar = JarEntry.parse(line);
+          if (jar != null) {
+            index.jars.put(jar.path, jar);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Unable to read the classpath index {}: {}", indexFile, e.getMessage());
+        index.jars.clear();
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the classpath without the jars which are not needed by ECJ.
+   */
+  public synchronized List<File> filter(List<File> classpath) {
+    List<File> filtered = new ArrayList<>(classpath.size());
+    for (File entry : classpath) {
+      if (!entry.isFile() || JParserConfig.JRE_JARS.contains(entry.getName()) || isNeeded(entry)) {
+        filtered.add(entry);
+      }
+    }
+    return filtered;
+  }
+
+  /**
+   * Returns false only for readable archives which contain no class and reference no other jar.
+   */
+  @VisibleForTesting
+  synchronized boolean isNeeded(File jarFile) {
+    String path = jarFile.getAbsolutePath();
+    long size = jarFile.length();
+    long lastModified = jarFile.lastModified();
+    JarEntry jar = jars.get(path);
+    if (jar == null || jar.size != size || jar.lastModified != lastModified) {
+      boolean needed;
+      try {
+        needed = readNeeded(jarFile);
+      } catch (IOException | RuntimeException e) {
+        // not an archive, the entry is left to ECJ
+        return true;
+      }
+      jar = new JarEntry(path, size, lastModified, needed);
+      jars.put(path, jar);
+      modified = true;
+    }
+    return jar.needed;
+  }
+
+  private static boolean readNeeded(File jarFile) throws IOException {
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("ClasspathIndex");
+    try (ZipFile zipFile = new ZipFile(jarFile)) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        if (entries.nextElement().getName().endsWith(".class")) {
+          return true;
+        }
+      }
+      return hasClassPathInManifest(zipFile);
+    } finally {
+      duration.stop();
+    }
+  }
+
+  private static boolean hasClassPathInManifest(ZipFile zipFile) throws IOException {
+    ZipEntry manifestEntry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+    if (manifestEntry == null) {
+      return false;
+    }
+    try (InputStream manifest = zipFile.getInputStream(manifestEntry)) {
+      return new Manifest(manifest).getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null;
+    }
+  }
+
+  /**
+   * Writes the index to its file, if some jars have been indexed since it has been loaded.
+   */
+  public synchronized void save() {
+    if (!modified) {
+      return;
+    }
+    List<String> lines = new ArrayList<>(jars.size() + 1);
+    lines.add(FORMAT_LINE);
+    jars.values().forEach(jar -> lines.add(jar.toString()));
+    try {
+      Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+      Files.write(indexFile.toPath(), lines, StandardCharsets.UTF_8);
+      modified = false;
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to write the classpath index {}: {}", indexFile, e.getMessage());
+    }
+  }
+
+  private static class JarEntry {
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final boolean needed;
+
+    private JarEntry(String path, long size, long lastModified, boolean needed) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.needed = needed;
+    }
+
+    @CheckForNull
+    private static JarEntry parse(String line) {
+      String[] columns = line.split(SEPARATOR, -1);
+      if (columns.length != 4 || !("true".equals(columns[3]) || "false".equals(columns[3]))) {
+        return null;
+      }
+      return new JarEntry(columns[0], Long.parseLong(columns[1]), Long.parseLong(columns[2]), Boolean.parseBoolean(columns[3]));
+    }
+
+    @Override
+    public String toString() {
+      return path + SEPARATOR + size + SEPARATOR + lastModified + SEPARATOR + needed;
+    }
+  }
+
+}
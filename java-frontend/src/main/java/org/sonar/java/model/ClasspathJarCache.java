@@ -0,0 +1,73 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Keeps the jars of the classpath open while several files are parsed one after the other.
+ *
+ * ECJ creates a new name environment for each file parsed individually, opening all the jars of the classpath again.
+ * The JDK shares the central directory of a jar between all the opened instances of this jar, and only releases it
+ * when the last one is closed. Keeping one instance open avoids reading the central directory of every jar for every file.
+ *
+ * The jars have to be released once the files are parsed, as they stay locked on Windows as long as they are open.
+ */
+class ClasspathJarCache implements AutoCloseable {
+
+  private final List<ZipFile> openedJars = new ArrayList<>();
+
+  static ClasspathJarCache open(List<File> classpath) {
+    ClasspathJarCache cache = new ClasspathJarCache();
+    for (File entry : classpath) {
+      if (entry.isFile()) {
+        try {
+          cache.openedJars.add(new ZipFile(entry));
+        } catch (IOException | RuntimeException e) {
+          // not an archive, or not readable: ECJ will report it, if needed
+        }
+      }
+    }
+    return cache;
+  }
+
+  @VisibleForTesting
+  int size() {
+    return openedJars.size();
+  }
+
+  @Override
+  public void close() {
+    for (ZipFile jar : openedJars) {
+      try {
+        jar.close();
+      } catch (IOException e) {
+        // nothing more can be done
+      }
+    }
+    openedJars.clear();
+  }
+
+}
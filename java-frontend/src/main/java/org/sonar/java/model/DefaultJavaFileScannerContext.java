@@ -34,6 +34,7 @@ import org.sonar.java.ast.visitors.ComplexityVisitor;
 import org.sonar.java.metrics.MetricsComputer;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.java.regex.RegexCache;
+import org.sonar.java.regex.SharedRegexCache;
 import org.sonar.java.regex.RegexCheck;
 import org.sonar.java.regex.RegexScannerContext;
 import org.sonar.java.reporting.AnalyzerMessage;
@@ -65,11 +66,18 @@ public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContex
   public DefaultJavaFileScannerContext(CompilationUnitTree tree, InputFile inputFile, Sema semanticModel,
                                        @Nullable SonarComponents sonarComponents, JavaVersion javaVersion,
                                        boolean fileParsed, boolean inAndroidContext, @Nullable CacheContext cacheContext) {
+    this(tree, inputFile, semanticModel, sonarComponents, javaVersion, fileParsed, inAndroidContext, cacheContext, null);
+  }
+
+  public DefaultJavaFileScannerContext(CompilationUnitTree tree, InputFile inputFile, Sema semanticModel,
+                                       @Nullable SonarComponents sonarComponents, JavaVersion javaVersion,
+                                       boolean fileParsed, boolean inAndroidContext, @Nullable CacheContext cacheContext,
+                                       @Nullable SharedRegexCache sharedRegexCache) {
     super(sonarComponents, inputFile, javaVersion, inAndroidContext, cacheContext);
     this.tree = (JavaTree.CompilationUnitTreeImpl) tree;
     this.semanticEnabled = semanticModel != null;
     this.complexityVisitor = new ComplexityVisitor();
-    this.regexCache = new RegexCache();
+    this.regexCache = new RegexCache(sharedRegexCache);
     this.metricsComputer = new MetricsComputer();
     this.fileParsed = fileParsed;
   }
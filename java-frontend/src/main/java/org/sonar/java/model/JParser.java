@@ -280,6 +280,13 @@ public class JParser {
   }
 
   static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, CompilationUnit astNode) {
+    return convert(version, unitName, source, null, astNode);
+  }
+
+  /**
+   * @param tokens the tokens of the source, as returned by {@link #lex(String, String, char[])}. Computed from the source when null.
+   */
+  static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, @Nullable List<Token> tokens, CompilationUnit astNode) {
     List<IProblem> errors = Stream.of(astNode.getProblems()).filter(IProblem::isError).collect(Collectors.toList());
     Optional<IProblem> possibleSyntaxError = errors.stream().filter(IS_SYNTAX_ERROR).findFirst();
     if (possibleSyntaxError.isPresent()) {
@@ -302,7 +309,8 @@ public class JParser {
     converter.sema = new JSema(astNode.getAST());
     converter.sema.undefinedTypes.addAll(undefinedTypes);
     converter.compilationUnit = astNode;
-    converter.tokenManager = new TokenManager(lex(version, unitName, source.toCharArray()), source, new DefaultCodeFormatterOptions(new HashMap<>()));
+    List<Token> sourceTokens = tokens != null ? tokens : lex(version, unitName, source.toCharArray());
+    converter.tokenManager = new TokenManager(sourceTokens, source, new DefaultCodeFormatterOptions(new HashMap<>()));
 
     JavaTree.CompilationUnitTreeImpl tree = converter.convertCompilationUnit(astNode);
     tree.sema = converter.sema;
@@ -331,7 +339,7 @@ public class JParser {
     return ((JavaTree) node).getChildren().iterator();
   }
 
-  private static List<Token> lex(String version, String unitName, char[] sourceChars) {
+  static List<Token> lex(String version, String unitName, char[] sourceChars) {
     List<Token> tokens = new ArrayList<>();
     Scanner scanner = new Scanner(
       true,
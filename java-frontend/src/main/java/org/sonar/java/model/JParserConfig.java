@@ -32,6 +32,8 @@ import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
@@ -56,11 +58,15 @@ public abstract class JParserConfig {
   private static final Logger LOG = LoggerFactory.getLogger(JParserConfig.class);
 
   private static final String MAXIMUM_ECJ_WARNINGS = "42000";
-  private static final Set<String> JRE_JARS = new HashSet<>(Arrays.asList("rt.jar", "jrt-fs.jar", "android.jar"));
+  static final Set<String> JRE_JARS = new HashSet<>(Arrays.asList("rt.jar", "jrt-fs.jar", "android.jar"));
 
   final JavaVersion javaVersion;
   final List<File> classpath;
   final boolean shouldIgnoreUnnamedModuleForSplitPackage;
+  long maxPrefetchedSourcesSizeInBytes = 0L;
+  boolean measurePerformance = true;
+  private Map<String, String> compilerOptions = null;
+  private String[] classpathEntries = null;
 
   private JParserConfig(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
     this.javaVersion = javaVersion;
@@ -71,6 +77,24 @@ public abstract class JParserConfig {
   public abstract void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
     AnalysisProgress analysisProgress, BiConsumer<InputFile, Result> action);
 
+  /**
+   * In batch mode, read and lex the sources on a dedicated thread while ECJ is processing the batch.
+   *
+   * @param maxRetainedSizeInBytes maximum size of the sources read in advance and not yet processed by ECJ. Disabled when not strictly positive.
+   */
+  public JParserConfig prefetchSources(long maxRetainedSizeInBytes) {
+    this.maxPrefetchedSourcesSizeInBytes = maxRetainedSizeInBytes;
+    return this;
+  }
+
+  /**
+   * Performance measures are not thread-safe: they have to be disabled when several batches are parsed at the same time.
+   */
+  public JParserConfig measurePerformance(boolean measurePerformance) {
+    this.measurePerformance = measurePerformance;
+    return this;
+  }
+
   public enum Mode {
     BATCH(Batch::new),
     FILE_BY_FILE(FileByFile::new);
@@ -117,6 +141,27 @@ public abstract class JParserConfig {
 
   public ASTParser astParser() {
     ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+    // ASTParser forgets its settings after each parsing, but they do not change between files: they are only computed once
+    if (compilerOptions == null) {
+      compilerOptions = compilerOptions();
+      classpathEntries = classpath.stream()
+        .map(File::getAbsolutePath)
+        .toArray(String[]::new);
+    }
+    astParser.setCompilerOptions(new HashMap<>(compilerOptions));
+
+    boolean includeRunningVMBootclasspath = classpath.stream()
+      .noneMatch(f -> JRE_JARS.contains(f.getName()));
+
+    astParser.setEnvironment(classpathEntries, new String[] {}, new String[] {}, includeRunningVMBootclasspath);
+
+    astParser.setResolveBindings(true);
+    astParser.setBindingsRecovery(true);
+
+    return astParser;
+  }
+
+  private Map<String, String> compilerOptions() {
     Map<String, String> options = new HashMap<>();
     options.put(JavaCore.COMPILER_COMPLIANCE, javaVersion.effectiveJavaVersionAsString());
     options.put(JavaCore.COMPILER_SOURCE, javaVersion.effectiveJavaVersionAsString());
@@ -130,20 +175,7 @@ public abstract class JParserConfig {
     // enabling all supported compiler warnings
     JProblem.Type.compilerOptions()
       .forEach(option -> options.put(option, "warning"));
-
-    astParser.setCompilerOptions(options);
-
-    boolean includeRunningVMBootclasspath = classpath.stream()
-      .noneMatch(f -> JRE_JARS.contains(f.getName()));
-
-    astParser.setEnvironment(classpath.stream()
-      .map(File::getAbsolutePath)
-      .toArray(String[]::new), new String[] {}, new String[] {}, includeRunningVMBootclasspath);
-
-    astParser.setResolveBindings(true);
-    astParser.setBindingsRecovery(true);
-
-    return astParser;
+    return options;
   }
 
   @VisibleForTesting
@@ -161,37 +193,42 @@ public abstract class JParserConfig {
       Set<String> analyzedSourceFilePaths = new HashSet<>();
       List<String> encodings = new ArrayList<>();
       Map<File, InputFile> inputs = new HashMap<>();
+      List<InputFile> orderedInputs = new ArrayList<>();
       for (InputFile inputFile : inputFiles) {
         String sourceFilePath = inputFile.absolutePath();
         inputs.put(new File(sourceFilePath), inputFile);
+        orderedInputs.add(inputFile);
         sourceFilePaths.add(sourceFilePath);
         encodings.add(inputFile.charset().name());
       }
 
       ExecutionTimeReport executionTimeReport = new ExecutionTimeReport();
       ProgressMonitor monitor = new ProgressMonitor(isCanceled, analysisProgress);
-      PerformanceMeasure.Duration batchPerformance = PerformanceMeasure.start("ParseAsBatch");
+      PerformanceMeasure.Duration batchPerformance = startMeasure("ParseAsBatch");
+      String version = javaVersion.effectiveJavaVersionAsString();
+      PrefetchedSources sources = PrefetchedSources.start(version, orderedInputs, maxPrefetchedSourcesSizeInBytes);
       try {
         astParser().createASTs(sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new String[0], new FileASTRequestor() {
           @Override
           public void acceptAST(String sourceFilePath, CompilationUnit ast) {
-            PerformanceMeasure.Duration convertDuration = PerformanceMeasure.start("Convert");
+            PerformanceMeasure.Duration convertDuration = startMeasure("Convert");
             analyzedSourceFilePaths.add(sourceFilePath);
 
             InputFile inputFile = inputs.get(new File(sourceFilePath));
             executionTimeReport.start(inputFile);
             Result result;
             try {
-              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast));
+              PrefetchedSources.Source source = sources.take(inputFile);
+              result = new Result(JParser.convert(version, inputFile.filename(), source.contents, source.tokens, ast));
             } catch (Exception e) {
               result = new Result(e);
             }
-            convertDuration.stop();
-            PerformanceMeasure.Duration analyzeDuration = PerformanceMeasure.start("Analyze");
+            stopMeasure(convertDuration);
+            PerformanceMeasure.Duration analyzeDuration = startMeasure("Analyze");
             action.accept(inputFile, result);
 
             executionTimeReport.end();
-            analyzeDuration.stop();
+            stopMeasure(analyzeDuration);
           }
         }, monitor);
       } catch (OperationCanceledException e) {
@@ -212,20 +249,34 @@ public abstract class JParserConfig {
           LOG.warn("Unexpected {}: {}", e.getClass().getName(), e.getMessage());
         }
       } finally {
-        batchPerformance.stop();
+        sources.close();
+        stopMeasure(batchPerformance);
         // ExecutionTimeReport will not include the parsing time by file when using batch mode.
         executionTimeReport.reportAsBatch();
         monitor.done();
       }
     }
 
+    @CheckForNull
+    private PerformanceMeasure.Duration startMeasure(String name) {
+      return measurePerformance ? PerformanceMeasure.start(name) : null;
+    }
+
+    private static void stopMeasure(@Nullable PerformanceMeasure.Duration duration) {
+      if (duration != null) {
+        duration.stop();
+      }
+    }
+
     private void fallbackToFileByFileMode(List<InputFile> inputFiles, BooleanSupplier isCanceled, BiConsumer<InputFile, Result> action) {
       LOG.warn("Fallback to file by file analysis for {} files", inputFiles.size());
-      for (InputFile inputFile : inputFiles) {
-        if (isCanceled.getAsBoolean()) {
-          break;
+      try (ClasspathJarCache jars = ClasspathJarCache.open(classpath)) {
+        for (InputFile inputFile : inputFiles) {
+          if (isCanceled.getAsBoolean()) {
+            break;
+          }
+          FileByFile.parse(astParser(), inputFile, javaVersion, action);
         }
-        FileByFile.parse(astParser(), inputFile, javaVersion, action);
       }
     }
 
@@ -249,7 +300,7 @@ public abstract class JParserConfig {
         .map(InputFile::toString)
         .collect(Collectors.toList());
       progressReport.start(filesNames);
-      try {
+      try (ClasspathJarCache jars = ClasspathJarCache.open(classpath)) {
         for (InputFile inputFile : inputFiles) {
           if (isCanceled.getAsBoolean()) {
             cancelled = true;
@@ -52,6 +52,7 @@ public final class JSema implements Sema {
   private final Map<Symbol.TypeSymbol, JInitializerBlockSymbol> staticInitializerBlockSymbols = new HashMap<>();
   private final Map<IAnnotationBinding, JSymbolMetadata.JAnnotationInstance> annotations = new HashMap<>();
   private final Map<String, Type> nameToTypeCache = new HashMap<>();
+  private final Map<SubtypeQuery, Boolean> subtypeCache = new HashMap<>();
 
   JSema(AST ast) {
     this.ast = ast;
@@ -125,6 +126,46 @@ public final class JSema implements Sema {
     });
   }
 
+  /**
+   * Cache for {@link JType#isSubtypeOf(Type)}, by type and super type: the checks repeatedly query the same types of a compilation unit.
+   */
+  boolean isSubtype(ITypeBinding typeBinding, ITypeBinding superTypeBinding) {
+    SubtypeQuery query = new SubtypeQuery(typeBinding, superTypeBinding);
+    Boolean result = subtypeCache.get(query);
+    if (result == null) {
+      result = JType.isSubtype(typeBinding, superTypeBinding);
+      subtypeCache.put(query, result);
+    }
+    return result;
+  }
+
+  private static final class SubtypeQuery {
+    private final ITypeBinding typeBinding;
+    private final ITypeBinding superTypeBinding;
+
+    SubtypeQuery(ITypeBinding typeBinding, ITypeBinding superTypeBinding) {
+      this.typeBinding = typeBinding;
+      this.superTypeBinding = superTypeBinding;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SubtypeQuery)) {
+        return false;
+      }
+      SubtypeQuery other = (SubtypeQuery) o;
+      return typeBinding.equals(other.typeBinding) && superTypeBinding.equals(other.superTypeBinding);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * typeBinding.hashCode() + superTypeBinding.hashCode();
+    }
+  }
+
   @Nullable
   ITypeBinding resolveType(String name) {
     int dimensions = 0;
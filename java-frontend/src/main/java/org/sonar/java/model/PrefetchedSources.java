@@ -0,0 +1,212 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.eclipse.jdt.internal.formatter.Token;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Reads and lexes the sources of a batch on a dedicated thread, ahead of ECJ.
+ *
+ * Converting the ECJ AST and running the visitors have to happen while ECJ processes the compilation unit, as they rely on its environment.
+ * Reading and lexing the source do not, and are then done in advance by a producer thread, so that the ECJ thread only has to consume them.
+ * The producer stops reading new sources as long as the size of the prefetched sources which are not yet consumed exceeds a given limit.
+ */
+class PrefetchedSources implements AutoCloseable {
+
+  /**
+   * Estimated size of a {@link Token} and of its reference in the list of tokens of a source.
+   */
+  private static final long TOKEN_SIZE_IN_BYTES = 72L;
+
+  static class Source {
+    final String contents;
+    @Nullable
+    final List<Token> tokens;
+    final long sizeInBytes;
+
+    Source(String contents, @Nullable List<Token> tokens) {
+      this.contents = contents;
+      this.tokens = tokens;
+      this.sizeInBytes = sizeInBytes(contents, tokens);
+    }
+  }
+
+  private final String version;
+  private final long maxRetainedSizeInBytes;
+  // InputFile implementations do not always support hashCode (e.g. without project relative path), files are compared by identity
+  private final Map<InputFile, Source> prefetched = new IdentityHashMap<>();
+  private final Set<InputFile> consumedBeforePrefetch = Collections.newSetFromMap(new IdentityHashMap<>());
+  @Nullable
+  private InputFile inProgress = null;
+  private long retainedSizeInBytes = 0L;
+  private boolean closed = false;
+  @Nullable
+  private Thread thread = null;
+
+  private PrefetchedSources(String version, long maxRetainedSizeInBytes) {
+    this.version = version;
+    this.maxRetainedSizeInBytes = maxRetainedSizeInBytes;
+  }
+
+  /**
+   * @param maxRetainedSizeInBytes when not strictly positive, nothing is prefetched and the sources are read on demand.
+   */
+  static PrefetchedSources start(String version, List<InputFile> inputFiles, long maxRetainedSizeInBytes) {
+    PrefetchedSources sources = new PrefetchedSources(version, maxRetainedSizeInBytes);
+    if (maxRetainedSizeInBytes > 0L && !inputFiles.isEmpty()) {
+      Thread thread = new Thread(() -> sources.prefetch(inputFiles));
+      thread.setName("Prefetch sources of Java AST analyzer");
+      thread.setDaemon(true);
+      sources.thread = thread;
+      thread.start();
+    }
+    return sources;
+  }
+
+  /**
+   * Returns the source of the given file, reading it if it has not been prefetched.
+   */
+  Source take(InputFile inputFile) throws IOException {
+    if (thread == null) {
+      return new Source(inputFile.contents(), null);
+    }
+    Source source = takePrefetched(inputFile);
+    if (source == null) {
+      return new Source(inputFile.contents(), null);
+    }
+    return source;
+  }
+
+  @CheckForNull
+  private synchronized Source takePrefetched(InputFile inputFile) {
+    while (!closed && inputFile == inProgress) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+    Source source = prefetched.remove(inputFile);
+    if (source == null) {
+      consumedBeforePrefetch.add(inputFile);
+    } else {
+      retainedSizeInBytes -= source.sizeInBytes;
+      notifyAll();
+    }
+    return source;
+  }
+
+  @VisibleForTesting
+  synchronized long retainedSizeInBytes() {
+    return retainedSizeInBytes;
+  }
+
+  /**
+   * Stops prefetching, and waits for the source being prefetched, if any, to be read.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      prefetched.clear();
+      retainedSizeInBytes = 0L;
+      notifyAll();
+    }
+    if (thread != null) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Strings are counted with two bytes per char, which is their size when they are not Latin-1.
+   */
+  @VisibleForTesting
+  static long sizeInBytes(String contents, @Nullable List<Token> tokens) {
+    long size = 2L * contents.length();
+    if (tokens != null) {
+      size += TOKEN_SIZE_IN_BYTES * tokens.size();
+    }
+    return size;
+  }
+
+  private void prefetch(List<InputFile> inputFiles) {
+    for (InputFile inputFile : inputFiles) {
+      if (!startPrefetch(inputFile)) {
+        continue;
+      }
+      Source source;
+      try {
+        String contents = inputFile.contents();
+        source = new Source(contents, JParser.lex(version, inputFile.filename(), contents.toCharArray()));
+      } catch (IOException | RuntimeException e) {
+        // the file will be read again when consumed, and the failure reported at this time
+        source = null;
+      }
+      if (!endPrefetch(inputFile, source)) {
+        return;
+      }
+    }
+  }
+
+  private synchronized boolean startPrefetch(InputFile inputFile) {
+    while (!closed && retainedSizeInBytes >= maxRetainedSizeInBytes) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        closed = true;
+      }
+    }
+    if (closed || consumedBeforePrefetch.remove(inputFile)) {
+      return false;
+    }
+    inProgress = inputFile;
+    return true;
+  }
+
+  private synchronized boolean endPrefetch(InputFile inputFile, @Nullable Source source) {
+    inProgress = null;
+    notifyAll();
+    if (closed) {
+      return false;
+    }
+    if (source != null) {
+      prefetched.put(inputFile, source);
+      retainedSizeInBytes += source.sizeInBytes;
+    }
+    return true;
+  }
+
+}
@@ -23,12 +23,12 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
-import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -46,9 +46,13 @@ import org.sonar.java.SonarComponents;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.UnsharedTreeWalk;
 import org.sonar.java.caching.CacheContextImpl;
+import org.sonar.java.caching.ParseErrorCache;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.exceptions.ThrowableUtils;
+import org.sonar.java.matcher.MethodMatchersCounters;
+import org.sonar.java.regex.SharedRegexCache;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -60,6 +64,7 @@ import org.sonar.plugins.java.api.caching.CacheContext;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.performance.measure.PerformanceMeasure;
@@ -78,6 +83,22 @@ public class VisitorsBridge {
   protected boolean inAndroidContext = false;
   private int fullyScannedFileCount = 0;
   private int skippedFileCount = 0;
+  /**
+   * Walks of the trees made by the subscription visitors runners, each of them shared by all the visitors of the runner.
+   */
+  private long sharedTreeWalkCount = 0L;
+  /**
+   * Scanners driving the visit of the files on their own, most of them by walking the tree.
+   */
+  private long otherScannerRunCount = 0L;
+  /**
+   * Regular expressions parsed in the files of the module, most of them are written identically in many files.
+   */
+  private final SharedRegexCache sharedRegexCache = new SharedRegexCache();
+  /**
+   * Method matchers evaluated and rejected by method name while visiting the files of the module.
+   */
+  private final MethodMatchersCounters methodMatchersCounters = new MethodMatchersCounters();
   @VisibleForTesting
   CacheContext cacheContext;
 
@@ -114,13 +135,16 @@ public class VisitorsBridge {
 
   private List<JavaFileScanner> filterVisitors(Iterable<? extends JavaCheck> visitors, Predicate<Object> predicate) {
     List<JavaFileScanner> scanners = new ArrayList<>();
-    final IssuableSubscriptionVisitorsRunner runner = new IssuableSubscriptionVisitorsRunner();
+    final SubscriptionVisitorsRunner issuableRunner = new SubscriptionVisitorsRunner("IssuableSubscriptionVisitors", false);
+    final SubscriptionVisitorsRunner runner = new SubscriptionVisitorsRunner("SubscriptionVisitors", true);
 
     StreamSupport.stream(visitors.spliterator(), false)
       .filter(predicate)
       .forEach(visitor -> {
         if (visitor instanceof IssuableSubscriptionVisitor) {
-          runner.add((IssuableSubscriptionVisitor) visitor);
+          issuableRunner.add((IssuableSubscriptionVisitor) visitor);
+        } else if (visitor instanceof SubscriptionVisitor && !(visitor instanceof UnsharedTreeWalk)) {
+          runner.add((SubscriptionVisitor) visitor);
         } else if (visitor instanceof JavaFileScanner) {
           scanners.add((JavaFileScanner) visitor);
         }
@@ -129,6 +153,9 @@ public class VisitorsBridge {
     if (!runner.subscriptionVisitors.isEmpty()) {
       scanners.add(runner);
     }
+    if (!issuableRunner.subscriptionVisitors.isEmpty()) {
+      scanners.add(issuableRunner);
+    }
     return scanners;
   }
 
@@ -157,10 +184,30 @@ public class VisitorsBridge {
     return javaVersion;
   }
 
+  /**
+   * Visitors implementing {@link EndOfAnalysis} keep state between files, and their results can depend on the order in which files are visited.
+   *
+   * @return true if no such visitor is active, meaning that the files can be visited in any order.
+   */
+  public boolean canVisitFilesInAnyOrder() {
+    return allScanners.stream().noneMatch(VisitorsBridge::keepsStateBetweenFiles);
+  }
+
+  private static boolean keepsStateBetweenFiles(JavaFileScanner scanner) {
+    if (scanner instanceof SubscriptionVisitorsRunner) {
+      return ((SubscriptionVisitorsRunner) scanner).subscriptionVisitors.stream().anyMatch(EndOfAnalysis.class::isInstance);
+    }
+    return scanner instanceof EndOfAnalysis;
+  }
+
   public List<File> getClasspath() {
     return classpath;
   }
 
+  public MethodMatchersCounters methodMatchersCounters() {
+    return methodMatchersCounters;
+  }
+
   public void setInAndroidContext(boolean inAndroidContext) {
     this.inAndroidContext = inAndroidContext;
   }
@@ -177,6 +224,9 @@ public class VisitorsBridge {
    */
   public boolean scanWithoutParsing(InputFile inputFile) {
     if (sonarComponents != null && sonarComponents.fileCanBeSkipped(inputFile)) {
+      if (restoreParseError(inputFile)) {
+        return true;
+      }
       PerformanceMeasure.Duration duration = PerformanceMeasure.start("ScanWithoutParsing");
       boolean allScansSucceeded = true;
       var fileScannerContext = createScannerContext(sonarComponents, inputFile, javaVersion, inAndroidContext, cacheContext);
@@ -186,7 +236,7 @@ public class VisitorsBridge {
         try {
           allScansSucceeded &= scanner.scanWithoutParsing(fileScannerContext);
         } catch (AnalysisException e) {
-          // In the case where the IssuableSubscriptionVisitorsRunner throws an exception, the problem has already been
+          // In the case where the SubscriptionVisitorsRunner throws an exception, the problem has already been
           // logged and the exception formatted.
           throw e;
         } catch (Exception e) {
@@ -235,17 +285,27 @@ public class VisitorsBridge {
 
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, tree.sema, sonarComponents, fileParsed);
     var scanners = getScanners(fileCanBeSkipped);
+    for (JavaFileScanner scanner : scanners) {
+      if (!(scanner instanceof SubscriptionVisitorsRunner)) {
+        otherScannerRunCount++;
+      }
+    }
 
     PerformanceMeasure.Duration scannersDuration = PerformanceMeasure.start("Scanners");
-    for (JavaFileScanner scanner : scanners) {
-      PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
-      try {
-        runScanner(javaFileScannerContext, scanner);
-      } catch (CheckFailureException e) {
-        interruptIfFailFast(e);
-      } finally {
-        scannerDuration.stop();
+    methodMatchersCounters.startCounting();
+    try {
+      for (JavaFileScanner scanner : scanners) {
+        PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
+        try {
+          runScanner(javaFileScannerContext, scanner);
+        } catch (CheckFailureException e) {
+          interruptIfFailFast(e);
+        } finally {
+          scannerDuration.stop();
+        }
       }
+    } finally {
+      MethodMatchersCounters.stopCounting();
     }
     scannersDuration.stop();
   }
@@ -263,26 +323,36 @@ public class VisitorsBridge {
   private void runScanner(Runnable action, JavaFileScanner scanner) throws CheckFailureException {
     try {
       action.run();
+    } catch (AnalysisException e) {
+      // In the case where the SubscriptionVisitorsRunner throws an exception, the problem has already been logged and the exception formatted.
+      throw e;
     } catch (IllegalRuleParameterException e) {
       // bad configuration of a rule parameter, we want to fail analysis fast.
       throw new AnalysisException("Bad configuration of rule parameter", e);
     } catch (Exception e) {
-      Throwable rootCause = ThrowableUtils.getRootCause(e);
-      if (rootCause instanceof InterruptedIOException
-        || rootCause instanceof InterruptedException
-        || rootCause instanceof CancellationException
-        || analysisCancelled()) {
+      if (isInterruption(e)) {
         throw e;
       }
+      throw checkFailure(e, scanner);
+    }
+  }
+
+  private boolean isInterruption(Exception e) {
+    Throwable rootCause = ThrowableUtils.getRootCause(e);
+    return rootCause instanceof InterruptedIOException
+      || rootCause instanceof InterruptedException
+      || rootCause instanceof CancellationException
+      || analysisCancelled();
+  }
 
-      String message = String.format(
-        "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource.com/",
-        scanner.getClass(), ruleKey(scanner), currentFile);
+  private CheckFailureException checkFailure(Exception e, JavaFileScanner scanner) {
+    String message = String.format(
+      "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource.com/",
+      scanner.getClass(), ruleKey(scanner), currentFile);
 
-      LOG.error(message, e);
+    LOG.error(message, e);
 
-      throw new CheckFailureException(message, e);
-    }
+    return new CheckFailureException(message, e);
   }
 
   private boolean analysisCancelled() {
@@ -318,7 +388,8 @@ public class VisitorsBridge {
       javaVersion,
       fileParsed,
       inAndroidContext,
-      cacheContext
+      cacheContext,
+      sharedRegexCache
     );
   }
 
@@ -342,7 +413,34 @@ public class VisitorsBridge {
     return supportedScannersCanBeSkippedForThisFile ? scannersThatCannotBeSkipped : allScanners;
   }
 
+  /**
+   * Reports again the syntax error found by the previous analysis of an unchanged file, instead of parsing it to get the same error.
+   *
+   * @return true if such an error was cached
+   */
+  private boolean restoreParseError(InputFile inputFile) {
+    if (!sonarComponents.isParseErrorCacheEnabled()) {
+      return false;
+    }
+    RecognitionException e = new ParseErrorCache(cacheContext, javaVersion.effectiveJavaVersionAsString()).readPrevious(inputFile);
+    if (e == null) {
+      return false;
+    }
+    LOG.error("Unable to parse source file : '{}' (syntax error of the previous analysis of this unchanged file)", inputFile);
+    LOG.error(e.getMessage());
+    setCurrentFile(inputFile);
+    reportRecognitionException(e, inputFile);
+    return true;
+  }
+
   public void processRecognitionException(RecognitionException e, InputFile inputFile) {
+    if (sonarComponents != null && sonarComponents.isParseErrorCacheEnabled()) {
+      new ParseErrorCache(cacheContext, javaVersion.effectiveJavaVersionAsString()).write(inputFile, e);
+    }
+    reportRecognitionException(e, inputFile);
+  }
+
+  private void reportRecognitionException(RecognitionException e, InputFile inputFile) {
     if (sonarComponents == null || !sonarComponents.reportAnalysisError(e, inputFile)) {
       this.visitFile(null, false);
       getScanners(false).stream()
@@ -361,6 +459,18 @@ public class VisitorsBridge {
     } else if (fullyScannedFileCount > 0) {
       LOG.info("Did not optimize analysis for any files, performed a full analysis for all {} files.", fullyScannedFileCount);
     }
+    if (LOG.isDebugEnabled() && (skippedFileCount + fullyScannedFileCount) > 0) {
+      int fileCount = skippedFileCount + fullyScannedFileCount;
+      LOG.debug("Per file: {} tree walks shared by subscription visitors, {} other scanners.",
+        sharedTreeWalkCount / fileCount, otherScannerRunCount / fileCount);
+    }
+    if (LOG.isDebugEnabled() && methodMatchersCounters.evaluatedCount() > 0) {
+      LOG.debug("Method matchers: {} evaluated, {} rejected by method name", methodMatchersCounters.evaluatedCount(),
+        methodMatchersCounters.rejectedCount());
+    }
+    if (LOG.isDebugEnabled() && sharedRegexCache.hitCount() > 0) {
+      LOG.debug("Regex parser cache: {} hits, {} misses", sharedRegexCache.hitCount(), sharedRegexCache.missCount());
+    }
 
     var moduleContext = createScannerContext(sonarComponents, javaVersion, inAndroidContext, cacheContext);
 
@@ -370,19 +480,52 @@ public class VisitorsBridge {
       .forEach(check -> check.endOfAnalysis(moduleContext));
   }
 
-  private class IssuableSubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysis {
-    private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
-    private List<SubscriptionVisitor> subscriptionVisitors;
+  private enum Callback {
+    SET_CONTEXT, VISIT_NODE, LEAVE_NODE, VISIT_TOKEN, VISIT_TRIVIA, LEAVE_FILE
+  }
 
-    IssuableSubscriptionVisitorsRunner() {
-      checks = new EnumMap<>(Tree.Kind.class);
-      this.subscriptionVisitors = new ArrayList<>();
+  /**
+   * Runs subscription visitors in a single walk of the tree. Only subscription visitors are run this way: the other scanners, like
+   * the checks extending BaseTreeVisitor, choose which subtrees they visit, and each of them still walks the tree on its own.
+   *
+   * The visitors subscribed to each kind of tree are kept in an array indexed by the ordinal of the kind, and the tree is walked
+   * with an explicit stack, so that visiting a node allocates nothing.
+   * When failures are not isolated, which is the case for issuable subscription visitors, a failure of a visitor interrupts the
+   * walk of the file. Otherwise, the visitors behave as if each of them was walking the tree on its own: a failing visitor only
+   * stops receiving the callbacks of the file.
+   */
+  private class SubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysis {
+    private static final int INITIAL_STACK_SIZE = 64;
+    private final String measureName;
+    private final boolean isolateFailures;
+    private final SubscriptionVisitor[][] visitorsByKind;
+    private boolean hasSubscriptions = false;
+    private final List<SubscriptionVisitor> subscriptionVisitors = new ArrayList<>();
+    private final Set<SubscriptionVisitor> failedVisitors = Collections.newSetFromMap(new IdentityHashMap<>());
+    @Nullable
+    private SubscriptionVisitor currentVisitor = null;
+    private Tree[] stack = new Tree[INITIAL_STACK_SIZE];
+    /**
+     * For each tree of the stack, tells if its children have already been visited, so that it only remains to leave it.
+     */
+    private boolean[] leaving = new boolean[INITIAL_STACK_SIZE];
+
+    SubscriptionVisitorsRunner(String measureName, boolean isolateFailures) {
+      this.measureName = measureName;
+      this.isolateFailures = isolateFailures;
+      visitorsByKind = new SubscriptionVisitor[Tree.Kind.values().length][];
+      Arrays.fill(visitorsByKind, new SubscriptionVisitor[0]);
     }
 
     private void add(SubscriptionVisitor subscriptionVisitor) {
       this.subscriptionVisitors.add(subscriptionVisitor);
-      subscriptionVisitor.nodesToVisit()
-        .forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(subscriptionVisitor));
+      for (Tree.Kind kind : subscriptionVisitor.nodesToVisit()) {
+        hasSubscriptions = true;
+        SubscriptionVisitor[] subscribed = visitorsByKind[kind.ordinal()];
+        SubscriptionVisitor[] newSubscribed = Arrays.copyOf(subscribed, subscribed.length + 1);
+        newSubscribed[subscribed.length] = subscriptionVisitor;
+        visitorsByKind[kind.ordinal()] = newSubscribed;
+      }
     }
 
     @Override
@@ -410,15 +553,31 @@ public class VisitorsBridge {
 
     @Override
     public void scanFile(JavaFileScannerContext javaFileScannerContext) {
-      PerformanceMeasure.Duration issuableSubscriptionVisitorsDuration = PerformanceMeasure.start("IssuableSubscriptionVisitors");
+      PerformanceMeasure.Duration subscriptionVisitorsDuration = PerformanceMeasure.start(measureName);
       try {
-        forEach(subscriptionVisitors, s -> s.setContext(javaFileScannerContext));
-        visit(javaFileScannerContext.getTree());
-        forEach(subscriptionVisitors, s -> s.leaveFile(javaFileScannerContext));
-      } catch (CheckFailureException e) {
-        interruptIfFailFast(e);
+        for (SubscriptionVisitor visitor : subscriptionVisitors) {
+          call(visitor, Callback.SET_CONTEXT, javaFileScannerContext);
+        }
+        if (hasSubscriptions) {
+          sharedTreeWalkCount++;
+          visit(javaFileScannerContext.getTree());
+        }
+        for (SubscriptionVisitor visitor : subscriptionVisitors) {
+          call(visitor, Callback.LEAVE_FILE, javaFileScannerContext);
+        }
+      } catch (IllegalRuleParameterException e) {
+        // bad configuration of a rule parameter, we want to fail analysis fast.
+        throw new AnalysisException("Bad configuration of rule parameter", e);
+      } catch (Exception e) {
+        if (isolateFailures || isInterruption(e) || currentVisitor == null) {
+          throw e;
+        }
+        interruptIfFailFast(checkFailure(e, currentVisitor));
       } finally {
-        issuableSubscriptionVisitorsDuration.stop();
+        currentVisitor = null;
+        failedVisitors.clear();
+        Arrays.fill(stack, null);
+        subscriptionVisitorsDuration.stop();
       }
     }
 
@@ -430,44 +589,91 @@ public class VisitorsBridge {
         .forEach(check -> check.endOfAnalysis(cachedContext));
     }
 
-    private void visitChildren(Tree tree) throws CheckFailureException {
-      JavaTree javaTree = (JavaTree) tree;
-      if (!javaTree.isLeaf()) {
-        for (Tree next : javaTree.getChildren()) {
-          if (next != null) {
-            visit(next);
+    private void visit(Tree root) {
+      int size = 0;
+      push(root, 0);
+      size++;
+      while (size > 0) {
+        size--;
+        Tree tree = stack[size];
+        Kind kind = tree.kind();
+        SubscriptionVisitor[] subscribed = visitorsByKind[kind.ordinal()];
+        if (leaving[size]) {
+          for (SubscriptionVisitor visitor : subscribed) {
+            call(visitor, Callback.LEAVE_NODE, tree);
+          }
+        } else if (kind == Tree.Kind.TOKEN) {
+          for (SubscriptionVisitor visitor : subscribed) {
+            call(visitor, Callback.VISIT_TOKEN, tree);
+          }
+          for (SubscriptionVisitor visitor : visitorsByKind[Tree.Kind.TRIVIA.ordinal()]) {
+            call(visitor, Callback.VISIT_TRIVIA, tree);
+          }
+        } else {
+          for (SubscriptionVisitor visitor : subscribed) {
+            call(visitor, Callback.VISIT_NODE, tree);
+          }
+          // the tree stays on the stack to be left once its children are visited
+          leaving[size] = true;
+          size++;
+          JavaTree javaTree = (JavaTree) tree;
+          if (!javaTree.isLeaf()) {
+            List<Tree> children = javaTree.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+              push(children.get(i), size);
+              size++;
+            }
           }
         }
       }
     }
 
-    private void visit(Tree tree) throws CheckFailureException {
-      Kind kind = tree.kind();
-      List<SubscriptionVisitor> subscribed = checks.getOrDefault(kind, Collections.emptyList());
-      Consumer<SubscriptionVisitor> callback;
-      boolean isToken = (kind == Tree.Kind.TOKEN);
-      if (isToken) {
-        callback = s -> s.visitToken((SyntaxToken) tree);
-      } else {
-        callback = s -> s.visitNode(tree);
-      }
-      forEach(subscribed, callback);
-      if (isToken) {
-        forEach(checks.getOrDefault(Tree.Kind.TRIVIA, Collections.emptyList()), s -> ((SyntaxToken) tree).trivias().forEach(s::visitTrivia));
-      } else {
-        visitChildren(tree);
-      }
-      if (!isToken) {
-        forEach(subscribed, s -> s.leaveNode(tree));
+    private void push(Tree tree, int index) {
+      if (index == stack.length) {
+        stack = Arrays.copyOf(stack, index * 2);
+        leaving = Arrays.copyOf(leaving, index * 2);
       }
+      stack[index] = tree;
+      leaving[index] = false;
     }
 
-    private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
-      for (SubscriptionVisitor visitor : visitors) {
-        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
-        runScanner(() -> callback.accept(visitor), visitor);
-        visitorDuration.stop();
+    private void call(SubscriptionVisitor visitor, Callback callback, Object argument) {
+      if (isolateFailures && failedVisitors.contains(visitor)) {
+        return;
+      }
+      currentVisitor = visitor;
+      PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+      try {
+        switch (callback) {
+          case SET_CONTEXT:
+            visitor.setContext((JavaFileScannerContext) argument);
+            break;
+          case VISIT_NODE:
+            visitor.visitNode((Tree) argument);
+            break;
+          case LEAVE_NODE:
+            visitor.leaveNode((Tree) argument);
+            break;
+          case VISIT_TOKEN:
+            visitor.visitToken((SyntaxToken) argument);
+            break;
+          case VISIT_TRIVIA:
+            for (SyntaxTrivia trivia : ((SyntaxToken) argument).trivias()) {
+              visitor.visitTrivia(trivia);
+            }
+            break;
+          default:
+            visitor.leaveFile((JavaFileScannerContext) argument);
+            break;
+        }
+      } catch (Exception e) {
+        if (!isolateFailures || e instanceof IllegalRuleParameterException || isInterruption(e)) {
+          throw e;
+        }
+        failedVisitors.add(visitor);
+        interruptIfFailFast(checkFailure(e, visitor));
       }
+      visitorDuration.stop();
     }
   }
 }
@@ -40,14 +40,28 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
   /**
    * Maps an index of the regular expression to the TextSpan string literal that starts at the index
    */
-  private final TextSpanTracker indexToTextSpan = new TextSpanTracker();
+  private TextSpanTracker indexToTextSpan;
 
   public JavaAnalyzerRegexSource(List<LiteralTree> stringLiterals) {
     super(literalsToString(stringLiterals));
+    indexToTextSpan = textSpanTracker(stringLiterals);
+  }
+
+  /**
+   * Locates the regular expression in other string literals, with the same content as the ones it was created from. The regular
+   * expression parsed from this source can then report issues on these literals.
+   */
+  void relocate(List<LiteralTree> stringLiterals) {
+    indexToTextSpan = textSpanTracker(stringLiterals);
+  }
+
+  private static TextSpanTracker textSpanTracker(List<LiteralTree> stringLiterals) {
+    TextSpanTracker tracker = new TextSpanTracker();
     for (LiteralTree literal : stringLiterals) {
       String text = getString(literal);
-      indexToTextSpan.addLiteral(literal, text.length());
+      tracker.addLiteral(literal, text.length());
     }
+    return tracker;
   }
 
   private static String literalsToString(List<LiteralTree> stringLiterals) {
@@ -100,14 +114,11 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
     if (newTextSpan.endCharacter <= textSpan.endCharacter) {
       return false;
     }
-    LiteralTree literal = indexToTextSpan.getLiteral(textSpan);
+    Integer lastLine = indexToTextSpan.textBlockLastLine(textSpan);
     // is not a text block
-    if (literal == null || !literal.is(Tree.Kind.TEXT_BLOCK)) {
+    if (lastLine == null) {
       return false;
     }
-    int lastLine = LineUtils.startLine(literal.token())
-      + literal.value().split("\n").length
-      - 1;
     // last line will benefit from the closing """
     return textSpan.endLine != lastLine;
   }
@@ -120,7 +131,10 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
 
   private static class TextSpanTracker {
     final NavigableMap<Integer, TextSpan> indexToTextSpan = new TreeMap<>();
-    final Map<TextSpan, LiteralTree> textSpanToLiteral = new HashMap<>();
+    /**
+     * Last line of the text block of each text span, the literal trees are not kept so that sources can outlive their file
+     */
+    final Map<TextSpan, Integer> textSpanToTextBlockLastLine = new HashMap<>();
     int index = 0;
 
     void addLiteral(LiteralTree literal, int length) {
@@ -136,7 +150,6 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
       // Create a text span for the string with the quotes stripped out
       TextSpan textSpan = new TextSpan(literalSpan.startLine, literalSpan.startCharacter + 1, literalSpan.endLine, literalSpan.endCharacter - 1);
       indexToTextSpan.put(index, textSpan);
-      textSpanToLiteral.put(textSpan, literal);
       index += length;
     }
 
@@ -146,6 +159,7 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
 
       int indent = LiteralUtils.indentationOfTextBlock(literalTreeLines);
       int textBlockLine = LineUtils.startLine(literal.token());
+      int lastLine = textBlockLine + literalTreeLines.length - 1;
       for (int i = 0; i < stringLines.length; i++) {
         int line = textBlockLine + i + 1;
         String stringLine = stringLines[i];
@@ -158,7 +172,7 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
           textSpan = new TextSpan(line, indent, line, indent + lineLength - endLineTrimming);
         }
         indexToTextSpan.put(index, textSpan);
-        textSpanToLiteral.put(textSpan, literal);
+        textSpanToTextBlockLastLine.put(textSpan, lastLine);
         index += lineLength;
       }
     }
@@ -174,8 +188,8 @@ public class JavaAnalyzerRegexSource extends JavaRegexSource {
     }
 
     @Nullable
-    LiteralTree getLiteral(TextSpan textSpan) {
-      return textSpanToLiteral.get(textSpan);
+    Integer textBlockLastLine(TextSpan textSpan) {
+      return textSpanToTextBlockLastLine.get(textSpan);
     }
 
     @Nullable
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.plugins.java.api.tree.LiteralTree;
 import org.sonarsource.analyzer.commons.regex.RegexParseResult;
 import org.sonarsource.analyzer.commons.regex.RegexParser;
@@ -31,11 +32,29 @@ import org.sonarsource.performance.measure.PerformanceMeasure;
 
 public final class RegexCache {
   private final Map<List<LiteralTree>, RegexParseResult> cache = new HashMap<>();
+  @Nullable
+  private final SharedRegexCache sharedCache;
+  private final long file;
+
+  public RegexCache() {
+    this(null);
+  }
+
+  /**
+   * @param sharedCache cache of the module, shared with the files analyzed before this one
+   */
+  public RegexCache(@Nullable SharedRegexCache sharedCache) {
+    this.sharedCache = sharedCache;
+    this.file = sharedCache != null ? sharedCache.newFile() : 0L;
+  }
 
   public RegexParseResult getRegexForLiterals(FlagSet initialFlags, LiteralTree... stringLiterals) {
     return cache.computeIfAbsent(
       Arrays.asList(stringLiterals),
       k -> {
+        if (sharedCache != null) {
+          return sharedCache.getRegexForLiterals(file, initialFlags, k);
+        }
         PerformanceMeasure.Duration regexForLiteralsDuration = PerformanceMeasure.start("RegexParser");
         RegexParseResult result = new RegexParser(new JavaAnalyzerRegexSource(k), initialFlags).parse();
         regexForLiteralsDuration.stop();
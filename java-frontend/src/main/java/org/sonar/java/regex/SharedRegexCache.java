@@ -0,0 +1,162 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.regex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonarsource.analyzer.commons.regex.RegexParseResult;
+import org.sonarsource.analyzer.commons.regex.RegexParser;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * Shares the regular expressions parsed from the same string literals, with the same initial flags, between the files of a module.
+ *
+ * Within a file, string literals at different places still get different parse results, because the checks key their state and
+ * deduplicate their issues by regex tree. When a regular expression parsed in a previous file is reused, its source is relocated
+ * to the string literals of the current file, so that issues are reported on them.
+ */
+public final class SharedRegexCache {
+
+  static final int DEFAULT_MAX_SIZE = 10_000;
+
+  private final int maxSize;
+  private final Map<Key, Entry> entries;
+  private long fileCount = 0L;
+  private long hitCount = 0L;
+  private long missCount = 0L;
+
+  public SharedRegexCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  SharedRegexCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > SharedRegexCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return an identifier of the file about to be analyzed, to be passed to {@link #getRegexForLiterals}
+   */
+  synchronized long newFile() {
+    fileCount++;
+    return fileCount;
+  }
+
+  /**
+   * Returns the regular expression of the given string literals, parsed by a previous file when possible.
+   *
+   * Reusing a result relocates its source, which is shared by all the files having used it, to the literals of the given file. This is
+   * only safe because the files of a module are visited one after the other by the {@link org.sonar.java.model.VisitorsBridge} owning
+   * this cache: the regular expressions of a file are no longer used once the next file is visited. The synchronization only protects
+   * the entries of the cache, and is not enough to visit files concurrently.
+   */
+  synchronized RegexParseResult getRegexForLiterals(long file, FlagSet initialFlags, List<LiteralTree> stringLiterals) {
+    Key key = new Key(stringLiterals, initialFlags.getMask());
+    Entry entry = entries.get(key);
+    if (entry != null && entry.file != file) {
+      entry.file = file;
+      entry.source.relocate(stringLiterals);
+      hitCount++;
+      PerformanceMeasure.start("RegexParserCacheHit").stop();
+      return entry.result;
+    }
+    missCount++;
+    PerformanceMeasure.Duration regexForLiteralsDuration = PerformanceMeasure.start("RegexParser");
+    JavaAnalyzerRegexSource source = new JavaAnalyzerRegexSource(stringLiterals);
+    RegexParseResult result = new RegexParser(source, initialFlags).parse();
+    regexForLiteralsDuration.stop();
+    if (entry == null) {
+      entries.put(key, new Entry(file, source, result));
+    }
+    return result;
+  }
+
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private static final class Key {
+    /**
+     * Source code of the string literals, which determines both the regular expression and its layout in the literals
+     */
+    private final List<String> literalValues;
+    private final int flags;
+    private final int hashCode;
+
+    Key(List<LiteralTree> stringLiterals, int flags) {
+      this.literalValues = new ArrayList<>(stringLiterals.size());
+      for (LiteralTree literal : stringLiterals) {
+        literalValues.add(literal.value());
+      }
+      this.flags = flags;
+      this.hashCode = 31 * literalValues.hashCode() + flags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return flags == other.flags && literalValues.equals(other.literalValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Entry {
+    /**
+     * File the string literals of the source currently belong to
+     */
+    private long file;
+    private final JavaAnalyzerRegexSource source;
+    private final RegexParseResult result;
+
+    Entry(long file, JavaAnalyzerRegexSource source, RegexParseResult result) {
+      this.file = file;
+      this.source = source;
+      this.result = result;
+    }
+  }
+
+}
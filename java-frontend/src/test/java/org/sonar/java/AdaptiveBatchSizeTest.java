@@ -0,0 +1,135 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizeTest {
+
+  private static final long MAX_HEAP = 1_000_000L;
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
+
+  @Test
+  void batch_size_shrinks_when_retained_heap_is_high() {
+    AtomicLong retainedHeap = new AtomicLong(800_000L);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(80_000L, retainedHeap::get, () -> MAX_HEAP);
+    assertThat(batchSize.getAsLong()).isEqualTo(80_000L);
+
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(40_000L);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(20_000L);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(10_000L);
+    // never shrinks below 1/8 of the initial size
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(10_000L);
+
+    assertThat(logTester.logs(Level.INFO)).contains("Heap retained after batch: 80% of max heap. Batch size changed from 80 KB to 40 KB.");
+    assertThat(logTester.logs(Level.DEBUG)).contains("Heap retained after batch: 80% of max heap. Batch size kept at 10 KB.");
+  }
+
+  @Test
+  void batch_size_grows_when_retained_heap_is_low() {
+    AtomicLong retainedHeap = new AtomicLong(100_000L);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, retainedHeap::get, () -> MAX_HEAP);
+
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(150_000L);
+    for (int i = 0; i < 10; i++) {
+      batchSize.adjust();
+    }
+    // never grows above 4 times the initial size
+    assertThat(batchSize.getAsLong()).isEqualTo(400_000L);
+
+    retainedHeap.set(900_000L);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(200_000L);
+  }
+
+  @Test
+  void batch_size_is_kept_when_retained_heap_is_between_thresholds() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, () -> 500_000L, () -> MAX_HEAP);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(100_000L);
+  }
+
+  @Test
+  void batch_size_is_kept_when_max_heap_is_unknown() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, () -> 0L, () -> Long.MAX_VALUE);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(100_000L);
+    assertThat(logTester.logs()).isEmpty();
+  }
+
+  @Test
+  void empty_batch_size_can_grow() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(0L, () -> 0L, () -> MAX_HEAP);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isZero();
+
+    batchSize = new AdaptiveBatchSize(1L, () -> 0L, () -> MAX_HEAP);
+    batchSize.adjust();
+    assertThat(batchSize.getAsLong()).isEqualTo(2L);
+  }
+
+  @Test
+  void retained_heap_is_read_from_garbage_collections() {
+    try (AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L)) {
+      System.gc();
+      batchSize.adjust();
+      assertThat(batchSize.getAsLong()).isPositive();
+    }
+  }
+
+  @Test
+  void heap_after_collection_is_only_used_once() throws Exception {
+    try (AdaptiveBatchSize.HeapAfterCollection heap = new AdaptiveBatchSize.HeapAfterCollection()) {
+      String heapPool = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getName)
+        .findFirst()
+        .orElseThrow();
+      Map<String, MemoryUsage> usageAfterCollection = new HashMap<>();
+      usageAfterCollection.put(heapPool, new MemoryUsage(0L, 42L, 100L, 1_000L));
+      usageAfterCollection.put("not a heap pool", new MemoryUsage(0L, 1_000L, 1_000L, 1_000L));
+      heap.recordCollection(usageAfterCollection);
+
+      assertThat(heap.getAsLong()).isEqualTo(42L);
+      // without a new collection, the heap currently used is returned
+      assertThat(heap.getAsLong()).isNotEqualTo(42L).isPositive();
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DependencyOrderTest {
+
+  @Test
+  void header_is_read_until_the_first_type_declaration() {
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile("A.java", "" +
+      "/*\n" +
+      " * import org.foo.InLicense;\n" +
+      " */\n" +
+      "package org.foo;\n" +
+      "\n" +
+      "// import org.foo.InComment;\n" +
+      "import java.util.List;\n" +
+      "import static org.bar.Util.method;\n" +
+      "import org.baz.*;\n" +
+      "/* comment */ \n" +
+      "@Deprecated\n" +
+      "class A {\n" +
+      "  import org.foo.NotAnImport;\n" +
+      "}\n"));
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.imports).containsExactly("java.util.List", "org.bar.Util.method", "org.baz");
+  }
+
+  @Test
+  void header_of_package_info_and_default_package() {
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile("package-info.java", "" +
+      "@ParametersAreNonnullByDefault\n" +
+      "package org.foo;\n" +
+      "import javax.annotation.ParametersAreNonnullByDefault;\n"));
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.imports).containsExactly("javax.annotation.ParametersAreNonnullByDefault");
+
+    header = DependencyOrder.readHeader(inputFile("A.java", "class A {}"));
+    assertThat(header.packageName).isEmpty();
+    assertThat(header.imports).isEmpty();
+  }
+
+  @Test
+  void declarations_are_read_from_tokens_and_not_from_lines() {
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile("A.java", "" +
+      "/* license */ package org.foo;import java.util.List; import static org.bar.Util.*;\n" +
+      "import\n" +
+      "  org . baz\n" +
+      "  .Baz /* comment */ ;;\n" +
+      "class A { import org.foo.NotAnImport; }\n"));
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.imports).containsExactly("java.util.List", "org.bar.Util", "org.baz.Baz");
+  }
+
+  @Test
+  void literals_and_comments_of_package_annotations_are_skipped() {
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile("package-info.java", "" +
+      "\uFEFF@Generated(value = \"import org.foo.InString; /*\", comments = \")\")\n" +
+      "/** doc with ** and */\n" +
+      "@javax.annotation.ParametersAreNonnullByDefault package org.foo;\n" +
+      "import javax.annotation.Generated; // import org.foo.InComment;\n"));
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.imports).containsExactly("javax.annotation.Generated");
+  }
+
+  @Test
+  void header_stops_at_malformed_declaration() {
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile("A.java", "" +
+      "package org.foo;\n" +
+      "import org.bar.Bar\n" +
+      "import org.baz.Baz;\n"));
+    assertThat(header.packageName).isEqualTo("org.foo");
+    assertThat(header.imports).containsExactly("org.bar.Bar");
+  }
+
+  @Test
+  void header_of_unreadable_file_is_empty() throws IOException {
+    InputFile inputFile = mock(InputFile.class);
+    when(inputFile.inputStream()).thenThrow(new IOException("boom"));
+    when(inputFile.charset()).thenReturn(UTF_8);
+    DependencyOrder.Header header = DependencyOrder.readHeader(inputFile);
+    assertThat(header.packageName).isEmpty();
+    assertThat(header.imports).isEmpty();
+  }
+
+  @Test
+  void imported_package_is_the_longest_known_prefix() {
+    Set<String> packages = new HashSet<>(Arrays.asList("org.foo", "org.foo.bar"));
+    assertThat(DependencyOrder.importedPackage("org.foo.A", packages)).isEqualTo("org.foo");
+    assertThat(DependencyOrder.importedPackage("org.foo.bar.B.Inner", packages)).isEqualTo("org.foo.bar");
+    assertThat(DependencyOrder.importedPackage("org.foo.bar", packages)).isEqualTo("org.foo.bar");
+    assertThat(DependencyOrder.importedPackage("java.util.List", packages)).isNull();
+    assertThat(DependencyOrder.importedPackage("List", packages)).isNull();
+  }
+
+  @Test
+  void files_are_grouped_by_package_followed_by_their_dependencies() {
+    InputFile a1 = inputFile("A1.java", "package a;\nimport c.C1;\nclass A1 {}");
+    InputFile b1 = inputFile("B1.java", "package b;\nclass B1 {}");
+    InputFile a2 = inputFile("A2.java", "package a;\nimport java.util.List;\nclass A2 {}");
+    InputFile c1 = inputFile("C1.java", "package c;\nimport static b.B1.method;\nclass C1 {}");
+    InputFile d1 = inputFile("D1.java", "package d;\nimport a.*;\nclass D1 {}");
+    InputFile b2 = inputFile("B2.java", "package b;\nimport d.D1;\nclass B2 {}");
+
+    List<InputFile> sorted = DependencyOrder.sort(Arrays.asList(a1, b1, a2, c1, d1, b2));
+    assertThat(sorted).containsExactly(a1, a2, c1, b1, b2, d1);
+  }
+
+  @Test
+  void empty_list() {
+    assertThat(DependencyOrder.sort(Collections.emptyList())).isEmpty();
+  }
+
+  private static InputFile inputFile(String filename, String contents) {
+    return new TestInputFileBuilder("", filename)
+      .setContents(contents)
+      .setCharset(UTF_8)
+      .setLanguage("java")
+      .build();
+  }
+
+}
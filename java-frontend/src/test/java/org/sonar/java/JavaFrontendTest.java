@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -78,6 +80,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -699,6 +702,152 @@ class JavaFrontendTest {
       .contains("Using ECJ batch to parse 2 Main java source files with batch size 0 KB.");
   }
 
+  @Test
+  void test_scan_as_batch_parses_batches_concurrently_when_several_threads_are_configured() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 4)
+      .setProperty(SonarComponents.SONAR_ANALYSIS_THREADS_KEY, 4);
+    File baseDir = temp.getRoot().getAbsoluteFile();
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    List<InputFile> inputFiles = new ArrayList<>();
+    // about 600 bytes per file, the batches of 1 KB of each thread hold one or two files
+    String padding = "// " + "x".repeat(600) + "\n";
+    for (int i = 0; i < 10; i++) {
+      inputFiles.add(addFile(padding + "class A" + i + " {}", sensorContext));
+    }
+    inputFiles.add(addFile("class B extends A0 {}", sensorContext));
+    inputFiles.add(addFile("class C { B b; }", sensorContext));
+    StatelessScanner scanner = new StatelessScanner();
+
+    scan(settings, SONARQUBE_RUNTIME, inputFiles, scanner);
+
+    assertThat(scanner.scannedFiles).containsExactlyInAnyOrderElementsOf(inputFiles);
+    assertThat(scanner.overlappingVisits).isFalse();
+    assertThat(logTester.logs(Level.INFO))
+      .contains("Parsing batches concurrently using 4 threads, with batch size 1 KB.")
+      .doesNotContain("Some active rules keep state between files, batches will be parsed sequentially.");
+  }
+
+  @Test
+  void test_scan_as_batch_parses_batches_sequentially_when_rules_keep_state_between_files() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_ANALYSIS_THREADS_KEY, 4);
+    File baseDir = temp.getRoot().getAbsoluteFile();
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    List<InputFile> inputFiles = Arrays.asList(
+      addFile("class A {}", sensorContext),
+      addFile("class B extends A {}", sensorContext),
+      addFile("class C { B b; }", sensorContext));
+    OrderRecordingScanner scanner = new OrderRecordingScanner();
+
+    scan(settings, SONARQUBE_RUNTIME, inputFiles, scanner);
+
+    assertThat(scanner.scannedFiles).containsExactlyElementsOf(inputFiles);
+    assertThat(scanner.endOfAnalysisInvocationCount).isEqualTo(1);
+    assertThat(logTester.logs(Level.INFO))
+      .contains("Some active rules keep state between files, batches will be parsed sequentially.")
+      .noneMatch(log -> log.startsWith("Parsing batches concurrently"));
+  }
+
+  @Test
+  void test_scan_as_batch_does_not_adjust_the_batch_size_when_batches_are_parsed_concurrently() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, true)
+      .setProperty(SonarComponents.SONAR_ANALYSIS_THREADS_KEY, 2);
+    File baseDir = temp.getRoot().getAbsoluteFile();
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    List<InputFile> inputFiles = Arrays.asList(
+      addFile("class A {}", sensorContext),
+      addFile("class B extends A {}", sensorContext),
+      addFile("class C {}", sensorContext));
+    StatelessScanner scanner = new StatelessScanner();
+
+    scan(settings, SONARQUBE_RUNTIME, inputFiles, scanner);
+
+    assertThat(scanner.scannedFiles).containsExactlyInAnyOrderElementsOf(inputFiles);
+    assertThat(logTester.logs(Level.INFO))
+      .contains("Parsing batches concurrently using 2 threads, with batch size 0 KB.")
+      .contains("The batch size is not adjusted when batches are parsed concurrently.")
+      .doesNotContain("The batch size will be adjusted after each batch, depending on the heap usage.");
+  }
+
+  @Test
+  void test_scan_as_batch_with_prefetched_sources() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_PREFETCH_SOURCES_SIZE_KEY, 1);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}", "class C { B b; }");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(mainCodeIssueScannerAndFilter.lastScannedTree).isNotNull();
+    assertThat(String.join("\n", logTester.logs())).doesNotContain("Unresolved imports/types");
+  }
+
+  @Test
+  void test_scan_as_batch_with_adaptive_batch_size() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1)
+      .setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, true);
+    sensorContext = SensorContextTester.create(temp.getRoot().getAbsoluteFile());
+    sensorContext.setSettings(settings);
+    List<InputFile> inputFiles = List.of(addFile("class A {}", sensorContext), addFile("class B extends A {}", sensorContext));
+    scan(settings, SONARQUBE_RUNTIME, inputFiles, mainCodeIssueScannerAndFilter, frontend -> {
+      JavaFrontend spy = spy(frontend);
+      // the analysis of the batch retains no heap, the batch size then grows
+      doReturn(new AdaptiveBatchSize(10_000L, () -> 0L, () -> 100L)).when(spy).newAdaptiveBatchSize(anyLong());
+      return spy;
+    });
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+    assertThat(logTester.logs(Level.INFO)).contains(
+      "The batch size will be adjusted after each batch, depending on the heap usage.",
+      "Heap retained after batch: 0% of max heap. Batch size changed from 10 KB to 15 KB.");
+  }
+
+  @Test
+  void test_scan_as_batch_with_classpath_index() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1)
+      .setProperty(SonarComponents.SONAR_CLASSPATH_INDEX_KEY, true);
+    sensorContext = SensorContextTester.create(temp.getRoot().getAbsoluteFile());
+    sensorContext.setSettings(settings);
+    sensorContext.fileSystem().setWorkDir(temp.newFolder("work").toPath());
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+    // the classpath is empty, there is nothing to index
+    assertThat(new File(sonarComponents.projectLevelWorkDir(), "java-classpath-index.txt")).doesNotExist();
+  }
+
+  @Test
+  void test_scan_as_batch_grouped_by_dependencies() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1)
+      .setProperty(SonarComponents.SONAR_GROUP_BATCHES_BY_DEPENDENCIES_KEY, true);
+    scan(settings, SONARQUBE_RUNTIME, "package a; import b.B; class A {}", "package c; class C {}", "package b; class B {}");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(logTester.logs(Level.INFO)).contains("Files are grouped in batches by package dependencies.");
+  }
+
+  @Test
+  void batch_generator_reads_batch_size_for_each_batch() throws IOException {
+    if (sensorContext == null) {
+      File baseDir = temp.getRoot().getAbsoluteFile();
+      sensorContext = SensorContextTester.create(baseDir);
+      sensorContext.setSettings(new MapSettings());
+    }
+    InputFile A = addFile("class A {}", sensorContext);
+    InputFile B = addFile("class B {}", sensorContext);
+    InputFile C = addFile("class C {}", sensorContext);
+    long[] batchSize = {0L};
+    JavaFrontend.BatchGenerator generator = new JavaFrontend.BatchGenerator(Arrays.asList(A, B, C).iterator(), () -> batchSize[0]);
+    assertThat(generator.next()).containsExactly(A);
+    batchSize[0] = B.file().length() + C.file().length();
+    assertThat(generator.next()).containsExactly(B, C);
+    assertThat(generator.hasNext()).isFalse();
+  }
+
   @Test
   void batch_generator_returns_an_empty_list_when_no_input_files() throws IOException {
     List<InputFile> emptyList = Collections.emptyList();
@@ -830,6 +979,15 @@ class JavaFrontendTest {
   }
 
   private List<InputFile> scan(MapSettings settings, SonarRuntime sonarRuntime, List<InputFile> inputFiles) throws IOException {
+    return scan(settings, sonarRuntime, inputFiles, mainCodeIssueScannerAndFilter);
+  }
+
+  private List<InputFile> scan(MapSettings settings, SonarRuntime sonarRuntime, List<InputFile> inputFiles, JavaFileScanner mainCodeScanner) throws IOException {
+    return scan(settings, sonarRuntime, inputFiles, mainCodeScanner, UnaryOperator.identity());
+  }
+
+  private List<InputFile> scan(MapSettings settings, SonarRuntime sonarRuntime, List<InputFile> inputFiles, JavaFileScanner mainCodeScanner,
+    UnaryOperator<JavaFrontend> frontendDecorator) throws IOException {
     if (sensorContext == null) {
       File baseDir = temp.getRoot().getAbsoluteFile();
       sensorContext = SensorContextTester.create(baseDir);
@@ -847,13 +1005,13 @@ class JavaFrontendTest {
     sonarComponents = new SonarComponents(fileLinesContextFactory, sensorContext.fileSystem(), javaClasspath, javaTestClasspath,
       mock(CheckFactory.class), mock(ActiveRules.class));
     sonarComponents.setSensorContext(sensorContext);
-    sonarComponents.mainChecks().add(mainCodeIssueScannerAndFilter);
+    sonarComponents.mainChecks().add(mainCodeScanner);
     sonarComponents.testChecks().add(testCodeIssueScannerAndFilter);
     JavaVersion javaVersion = settings.asConfig().get(JavaVersion.SOURCE_VERSION)
       .map(JavaVersionImpl::fromString)
       .orElse(new JavaVersionImpl());
-    JavaFrontend frontend = new JavaFrontend(javaVersion, sonarComponents, new Measurer(sensorContext, mock(NoSonarFilter.class)), mock(JavaResourceLocator.class),
-      null, mainCodeIssueScannerAndFilter);
+    JavaFrontend frontend = frontendDecorator.apply(new JavaFrontend(javaVersion, sonarComponents, new Measurer(sensorContext, mock(NoSonarFilter.class)),
+      mock(JavaResourceLocator.class), null, mainCodeScanner));
     frontend.scan(inputFiles, Collections.emptyList(), Collections.emptyList());
 
     return inputFiles;
@@ -880,6 +1038,39 @@ class JavaFrontendTest {
     return defaultFile;
   }
 
+  private static class OrderRecordingScanner implements JavaFileScanner, EndOfAnalysis {
+    final List<InputFile> scannedFiles = new ArrayList<>();
+    int endOfAnalysisInvocationCount = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles.add(context.getInputFile());
+    }
+
+    @Override
+    public void endOfAnalysis(ModuleScannerContext context) {
+      endOfAnalysisInvocationCount++;
+    }
+  }
+
+  /**
+   * Keeps no state between files, the files can then be visited in any order.
+   */
+  private static class StatelessScanner implements JavaFileScanner {
+    final List<InputFile> scannedFiles = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean visiting = new AtomicBoolean();
+    volatile boolean overlappingVisits = false;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      if (!visiting.compareAndSet(false, true)) {
+        overlappingVisits = true;
+      }
+      scannedFiles.add(context.getInputFile());
+      visiting.set(false);
+    }
+  }
+
   private class TestIssueFilter implements JavaFileScanner, SonarJavaIssueFilter, EndOfAnalysis {
     CompilationUnitTree lastScannedTree = null;
     int scanFileInvocationCount = 0;
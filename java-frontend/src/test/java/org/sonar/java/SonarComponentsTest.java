@@ -712,6 +712,140 @@ class SonarComponentsTest {
     assertThat(sonarComponents.getBatchModeSizeInKB()).isEqualTo(-1L);
   }
 
+  @Test
+  void analysis_threads_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // default value
+    assertThat(sonarComponents.getAnalysisThreads()).isEqualTo(1);
+
+    settings.setProperty(SonarComponents.SONAR_ANALYSIS_THREADS_KEY, "8");
+    assertThat(sonarComponents.getAnalysisThreads()).isEqualTo(8);
+
+    // invalid values fall back to a single thread
+    settings.setProperty(SonarComponents.SONAR_ANALYSIS_THREADS_KEY, "-3");
+    assertThat(sonarComponents.getAnalysisThreads()).isEqualTo(1);
+  }
+
+  @Test
+  void adaptive_batch_size_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isAdaptiveBatchSizeEnabled()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, "true");
+    assertThat(sonarComponents.isAdaptiveBatchSizeEnabled()).isTrue();
+  }
+
+  @Test
+  void classpath_index_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isClasspathIndexEnabled()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_CLASSPATH_INDEX_KEY, "true");
+    assertThat(sonarComponents.isClasspathIndexEnabled()).isTrue();
+  }
+
+  @Test
+  void group_batches_by_dependencies_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isGroupBatchesByDependenciesEnabled()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_GROUP_BATCHES_BY_DEPENDENCIES_KEY, "true");
+    assertThat(sonarComponents.isGroupBatchesByDependenciesEnabled()).isTrue();
+  }
+
+  @Test
+  void parse_error_cache_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isParseErrorCacheEnabled()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_CACHE_PARSE_ERRORS_KEY, "true");
+    assertThat(sonarComponents.isParseErrorCacheEnabled()).isTrue();
+  }
+
+  @Test
+  void share_method_behaviors_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.shouldShareMethodBehaviors()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_SHARE_METHOD_BEHAVIORS_KEY, "true");
+    assertThat(sonarComponents.shouldShareMethodBehaviors()).isTrue();
+  }
+
+  @Test
+  void symbolic_execution_strategy_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.symbolicExecutionStrategy()).isEqualTo("depth_first");
+    settings.setProperty(SonarComponents.SONAR_SE_EXPLORATION_STRATEGY_KEY, "reverse_post_order");
+    assertThat(sonarComponents.symbolicExecutionStrategy()).isEqualTo("reverse_post_order");
+  }
+
+  @Test
+  void library_method_behaviors_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.shouldComputeLibraryMethodBehaviors()).isFalse();
+    settings.setProperty(SonarComponents.SONAR_SE_LIBRARY_BEHAVIORS_KEY, "true");
+    assertThat(sonarComponents.shouldComputeLibraryMethodBehaviors()).isTrue();
+  }
+
+  @Test
+  void symbolic_execution_budget_getters() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.symbolicExecutionMethodMaxSteps()).isZero();
+    assertThat(sonarComponents.symbolicExecutionMethodTimeoutInMs()).isZero();
+    assertThat(sonarComponents.symbolicExecutionFileMaxSteps()).isZero();
+    assertThat(sonarComponents.symbolicExecutionFileTimeoutInMs()).isZero();
+    assertThat(sonarComponents.shouldReportAbortedSymbolicExecutions()).isFalse();
+
+    settings.setProperty(SonarComponents.SONAR_SE_METHOD_MAX_STEPS_KEY, "8000");
+    settings.setProperty(SonarComponents.SONAR_SE_METHOD_TIMEOUT_KEY, "500");
+    settings.setProperty(SonarComponents.SONAR_SE_FILE_MAX_STEPS_KEY, "100000");
+    settings.setProperty(SonarComponents.SONAR_SE_FILE_TIMEOUT_KEY, "-1");
+    settings.setProperty(SonarComponents.SONAR_SE_REPORT_KEY, "true");
+    assertThat(sonarComponents.symbolicExecutionMethodMaxSteps()).isEqualTo(8000);
+    assertThat(sonarComponents.symbolicExecutionMethodTimeoutInMs()).isEqualTo(500L);
+    assertThat(sonarComponents.symbolicExecutionFileMaxSteps()).isEqualTo(100000L);
+    assertThat(sonarComponents.symbolicExecutionFileTimeoutInMs()).isZero();
+    assertThat(sonarComponents.shouldReportAbortedSymbolicExecutions()).isTrue();
+  }
+
+  @Test
+  void prefetch_sources_size_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // disabled by default
+    assertThat(sonarComponents.getPrefetchSourcesSizeInKB()).isZero();
+
+    settings.setProperty(SonarComponents.SONAR_PREFETCH_SOURCES_SIZE_KEY, "2000");
+    assertThat(sonarComponents.getPrefetchSourcesSizeInKB()).isEqualTo(2000L);
+
+    settings.setProperty(SonarComponents.SONAR_PREFETCH_SOURCES_SIZE_KEY, "-1");
+    assertThat(sonarComponents.getPrefetchSourcesSizeInKB()).isZero();
+  }
+
   @ParameterizedTest
   @CsvSource({
     "50, 2",
@@ -38,8 +38,12 @@ import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.java.TestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ContentHashCacheTest {
@@ -65,7 +69,7 @@ class ContentHashCacheTest {
   @Test
   void hasSameHashCached_returns_false_when_content_hash_file_is_not_in_read_cache_with_proper_logging() {
     String[] messages = new String[]{
-      "Could not find key java:contentHash:MD5:" + inputFile.key() + " in the cache",
+      "Could not find key java:contentHash:MURMUR3_128:" + inputFile.key() + " in the cache",
       "Reading cache for the file " + inputFile.key(),
       "Writing to the cache for file " + inputFile.key()
     };
@@ -125,8 +129,8 @@ class ContentHashCacheTest {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(true);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -149,12 +153,12 @@ class ContentHashCacheTest {
     // mocking static method requires mockito-inline, which currently breaks the tests.
     InputFile inputFile1 = mock(InputFile.class);
     when(inputFile1.key()).thenReturn("key");
-    when(readCache.read("java:contentHash:MD5:" + inputFile1.key())).thenReturn(new ByteArrayInputStream("string".getBytes()));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile1.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile1.key())).thenReturn(new ByteArrayInputStream("string".getBytes()));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile1.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
-    when(inputFile1.contents()).thenThrow(new IOException());
+    when(inputFile1.inputStream()).thenThrow(new IOException());
     ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
     Assertions.assertFalse(contentHashCache.hasSameHashCached(inputFile1));
 
@@ -163,6 +167,65 @@ class ContentHashCacheTest {
       contains("Failed to compute content hash for file " + inputFile1.key());
   }
 
+  @Test
+  void hasSameHashCached_migrates_legacy_hash() throws IOException, NoSuchAlgorithmException {
+    logTester.setLevel(Level.TRACE);
+    SensorContextTester sensorContext = getSensorContextTesterWithLegacyHash(FileHashingUtils.legacyInputFileContentHash(inputFile));
+    ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
+    Assertions.assertTrue(contentHashCache.contains(inputFile));
+    Assertions.assertTrue(contentHashCache.hasSameHashCached(inputFile));
+    verify(sensorContext.nextCache()).write("java:contentHash:MURMUR3_128:" + inputFile.key(), FileHashingUtils.inputFileContentHash(inputFile));
+    verify(sensorContext.nextCache(), never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void hasSameHashCached_returns_false_when_legacy_hash_is_different() throws IOException {
+    SensorContextTester sensorContext = getSensorContextTesterWithLegacyHash("Dummy content hash".getBytes());
+    ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
+    Assertions.assertFalse(contentHashCache.hasSameHashCached(inputFile));
+    verify(sensorContext.nextCache()).write("java:contentHash:MURMUR3_128:" + inputFile.key(), FileHashingUtils.inputFileContentHash(inputFile));
+  }
+
+  @Test
+  void hasSameHashCached_returns_false_when_legacy_hash_cannot_be_computed() throws IOException {
+    logTester.setLevel(Level.TRACE);
+    InputFile inputFile1 = mock(InputFile.class);
+    when(inputFile1.key()).thenReturn("key");
+    when(inputFile1.inputStream()).thenReturn(new ByteArrayInputStream("class A {}".getBytes()));
+    when(inputFile1.contents()).thenThrow(new IOException());
+    SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
+    sensorContext.setCacheEnabled(true);
+    ReadCache readCache = mock(ReadCache.class);
+    when(readCache.read("java:contentHash:MURMUR3_128:key")).thenThrow(new IllegalArgumentException());
+    when(readCache.contains("java:contentHash:MD5:key")).thenReturn(true);
+    when(readCache.read("java:contentHash:MD5:key")).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
+    sensorContext.setPreviousCache(readCache);
+    sensorContext.setNextCache(mock(WriteCache.class));
+    ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
+    Assertions.assertFalse(contentHashCache.hasSameHashCached(inputFile1));
+
+    List<String> logs = logTester.getLogs(Level.TRACE).stream().map(LogAndArguments::getFormattedMsg).collect(Collectors.toList());
+    assertThat(logs).contains("Could not compare the legacy hash of file key");
+  }
+
+  @Test
+  void hash_is_computed_once_per_file() throws IOException {
+    InputFile inputFile1 = mock(InputFile.class);
+    when(inputFile1.key()).thenReturn("key");
+    when(inputFile1.inputStream()).thenReturn(new ByteArrayInputStream("class A {}".getBytes()));
+    SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
+    sensorContext.setCacheEnabled(true);
+    ReadCache readCache = mock(ReadCache.class);
+    when(readCache.read("java:contentHash:MURMUR3_128:key")).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
+    sensorContext.setPreviousCache(readCache);
+    sensorContext.setNextCache(mock(WriteCache.class));
+    ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
+    // the hash is compared, then written as it is different
+    Assertions.assertFalse(contentHashCache.hasSameHashCached(inputFile1));
+    Assertions.assertTrue(contentHashCache.writeToCache(inputFile1));
+    verify(inputFile1, times(1)).inputStream();
+  }
+
   @Test
   void contains_returns_true_when_file_is_in_cache() throws IOException, NoSuchAlgorithmException {
     ContentHashCache contentHashCache = new ContentHashCache(getSensorContextTester());
@@ -184,7 +247,7 @@ class ContentHashCacheTest {
   @Test
   void writeToCache_returns_false_when_writing_to_cache_throws_exception_with_proper_logging() throws IOException,
     NoSuchAlgorithmException {
-    String message = "Tried to write multiple times to cache key java:contentHash:MD5:" + inputFile.key() + ". Ignoring writes after the " +
+    String message = "Tried to write multiple times to cache key java:contentHash:MURMUR3_128:" + inputFile.key() + ". Ignoring writes after the " +
       "first.";
     assertThat(writeToCache_returns_false_when_writing_to_cache_throws_exception(Level.TRACE)).contains(message);
     assertThat(writeToCache_returns_false_when_writing_to_cache_throws_exception(Level.WARN)).doesNotContain(message);
@@ -197,7 +260,7 @@ class ContentHashCacheTest {
     sensorContext.setCacheEnabled(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setNextCache(writeCache);
-    doThrow(new IllegalArgumentException()).when(writeCache).write("java:contentHash:MD5:" + inputFile.key(),
+    doThrow(new IllegalArgumentException()).when(writeCache).write("java:contentHash:MURMUR3_128:" + inputFile.key(),
       FileHashingUtils.inputFileContentHash(file.getPath()));
     ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
     Assertions.assertFalse(contentHashCache.writeToCache(inputFile));
@@ -215,7 +278,7 @@ class ContentHashCacheTest {
     // mocking static method requires mockito-inline, which currently breaks the tests.
     InputFile inputFile1 = mock(InputFile.class);
     when(inputFile1.key()).thenReturn("key");
-    when(inputFile1.contents()).thenThrow(new IOException());
+    when(inputFile1.inputStream()).thenThrow(new IOException());
     ContentHashCache contentHashCache = new ContentHashCache(sensorContext);
     Assertions.assertFalse(contentHashCache.writeToCache(inputFile1));
 
@@ -228,7 +291,7 @@ class ContentHashCacheTest {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(isCacheEnabled);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenThrow(new IllegalArgumentException());
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenThrow(new IllegalArgumentException());
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -236,12 +299,20 @@ class ContentHashCacheTest {
     return sensorContext;
   }
 
+  private SensorContextTester getSensorContextTesterWithLegacyHash(byte[] legacyHash) {
+    SensorContextTester sensorContext = getSensorContextTesterWithEmptyCache(true);
+    ReadCache readCache = sensorContext.previousCache();
+    when(readCache.contains("java:contentHash:MD5:" + inputFile.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenReturn(new ByteArrayInputStream(legacyHash));
+    return sensorContext;
+  }
+
   private SensorContextTester getSensorContextTester() throws IOException, NoSuchAlgorithmException {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(true);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenReturn(new ByteArrayInputStream(FileHashingUtils.inputFileContentHash(inputFile)));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(new ByteArrayInputStream(FileHashingUtils.inputFileContentHash(inputFile)));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -0,0 +1,60 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Murmur3HashTest {
+
+  @Test
+  void hash_is_the_128_bits_murmur3_hash() throws IOException {
+    Random random = new Random(42);
+    for (int size : new int[] {0, 1, 7, 8, 9, 15, 16, 17, 31, 32, 33, 8191, 8192, 8193, 20_000}) {
+      byte[] bytes = new byte[size];
+      random.nextBytes(bytes);
+      assertThat(Murmur3Hash.hash(new ByteArrayInputStream(bytes)))
+        .as("hash of %d bytes", size)
+        .isEqualTo(Hashing.murmur3_128().hashBytes(bytes).asBytes());
+    }
+  }
+
+  @Test
+  void hash_does_not_depend_on_how_bytes_are_read() throws IOException {
+    byte[] bytes = Files.readAllBytes(new File("src/test/files/api/JavaFileScannerContext.java").toPath());
+    // returns at most 5 bytes for each read
+    InputStream slowInput = new ByteArrayInputStream(bytes) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 5));
+      }
+    };
+    assertThat(Murmur3Hash.hash(slowInput)).isEqualTo(Hashing.murmur3_128().hashBytes(bytes).asBytes());
+  }
+
+}
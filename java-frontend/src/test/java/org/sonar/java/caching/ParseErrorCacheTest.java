@@ -0,0 +1,164 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.caching;
+
+import com.sonar.sslr.api.RecognitionException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ParseErrorCacheTest {
+
+  private static final InputFile INPUT_FILE = TestInputFileBuilder.create("", "A.java").build();
+  private static final String KEY = "java:parseError:" + INPUT_FILE.key();
+
+  private final Map<String, byte[]> previousCache = new HashMap<>();
+  private final Map<String, byte[]> nextCache = new HashMap<>();
+  private CacheContext cacheContext;
+  private JavaWriteCache writeCache;
+
+  @BeforeEach
+  void setUp() {
+    JavaReadCache readCache = mock(JavaReadCache.class);
+    doAnswer(invocation -> previousCache.get(invocation.<String>getArgument(0))).when(readCache).readBytes(anyString());
+    writeCache = mock(JavaWriteCache.class);
+    doAnswer(invocation -> nextCache.put(invocation.getArgument(0), invocation.getArgument(1))).when(writeCache).write(anyString(), any(byte[].class));
+    cacheContext = mock(CacheContext.class);
+    doReturn(true).when(cacheContext).isCacheEnabled();
+    doReturn(readCache).when(cacheContext).getReadCache();
+    doReturn(writeCache).when(cacheContext).getWriteCache();
+  }
+
+  @Test
+  void syntax_error_is_restored_by_next_analysis() {
+    new ParseErrorCache(cacheContext, "17").write(INPUT_FILE, new RecognitionException(3, "Parse error at line 3 column 1: Syntax error"));
+    assertThat(nextCache).containsOnlyKeys(KEY);
+
+    previousCache.putAll(nextCache);
+    RecognitionException error = new ParseErrorCache(cacheContext, "17").readPrevious(INPUT_FILE);
+    assertThat(error).isNotNull();
+    assertThat(error.getLine()).isEqualTo(3);
+    assertThat(error.getMessage()).isEqualTo("Parse error at line 3 column 1: Syntax error");
+    verify(writeCache).copyFromPrevious(KEY);
+  }
+
+  @Test
+  void nothing_is_restored_for_files_parsed_successfully() {
+    assertThat(new ParseErrorCache(cacheContext, "17").readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void nothing_is_restored_when_the_java_version_changed() {
+    new ParseErrorCache(cacheContext, "8").write(INPUT_FILE, new RecognitionException(1, "Parse error at line 1 column 1: Syntax error"));
+    previousCache.putAll(nextCache);
+
+    assertThat(new ParseErrorCache(cacheContext, "17").readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void nothing_is_restored_when_the_analyzer_version_changed() {
+    new ParseErrorCache(cacheContext, "17", "7.30").write(INPUT_FILE, new RecognitionException(1, "Parse error at line 1 column 1: Syntax error"));
+    previousCache.putAll(nextCache);
+
+    assertThat(new ParseErrorCache(cacheContext, "17", "7.31").readPrevious(INPUT_FILE)).isNull();
+    assertThat(new ParseErrorCache(cacheContext, "17", null).readPrevious(INPUT_FILE)).isNull();
+    assertThat(new ParseErrorCache(cacheContext, "17", "7.30").readPrevious(INPUT_FILE)).isNotNull();
+  }
+
+  @Test
+  void entries_in_another_format_are_ignored() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      // record without format and analyzer versions
+      out.writeUTF("17");
+      out.writeInt(1);
+      out.writeUTF("Parse error at line 1 column 1: Syntax error");
+    }
+    previousCache.put(KEY, bytes.toByteArray());
+    assertThat(new ParseErrorCache(cacheContext, "17").readPrevious(INPUT_FILE)).isNull();
+
+    bytes.reset();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(ParseErrorCache.FORMAT_VERSION + 1);
+      out.writeUTF("7.30");
+      out.writeUTF("17");
+      out.writeInt(1);
+      out.writeUTF("Parse error at line 1 column 1: Syntax error");
+    }
+    previousCache.put(KEY, bytes.toByteArray());
+    assertThat(new ParseErrorCache(cacheContext, "17", "7.30").readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void corrupted_entries_are_ignored() {
+    previousCache.put(KEY, new byte[] {0, 2, '1'});
+    assertThat(new ParseErrorCache(cacheContext, "17").readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void failures_of_the_parser_are_not_stored() {
+    new ParseErrorCache(cacheContext, "17").write(INPUT_FILE, new RecognitionException(-1, "ECJ: Unable to parse file.", new IOException("boom")));
+    assertThat(nextCache).isEmpty();
+  }
+
+  @Test
+  void second_write_for_the_same_file_is_ignored() {
+    doThrow(new IllegalArgumentException("Cache already contains key")).when(writeCache).write(anyString(), any(byte[].class));
+    ParseErrorCache parseErrorCache = new ParseErrorCache(cacheContext, "17");
+    parseErrorCache.write(INPUT_FILE, new RecognitionException(1, "Parse error at line 1 column 1: Syntax error"));
+    assertThat(nextCache).isEmpty();
+  }
+
+  @Test
+  void nothing_is_stored_nor_restored_when_the_cache_is_disabled() {
+    CacheContext disabled = mock(CacheContext.class);
+    ParseErrorCache parseErrorCache = new ParseErrorCache(disabled, "17");
+    parseErrorCache.write(INPUT_FILE, new RecognitionException(1, "Parse error at line 1 column 1: Syntax error"));
+    assertThat(parseErrorCache.readPrevious(INPUT_FILE)).isNull();
+    verify(disabled, never()).getWriteCache();
+    verify(disabled, never()).getReadCache();
+    verifyNoInteractions(writeCache);
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClasspathIndexTest {
+
+  @TempDir
+  Path temp;
+
+  @Test
+  void jars_without_classes_are_removed_from_the_classpath() throws IOException {
+    File withClasses = jar("with-classes.jar", "org/foo/A.class", "org/foo/bar/B.class", "Root.class", "META-INF/MANIFEST.MF");
+    File resourcesOnly = jar("resources.jar", "org/foo/messages.properties", "META-INF/MANIFEST.MF");
+    File notAJar = file("not-a-jar.jar", "not a zip file");
+    File directory = temp.resolve("classes").toFile();
+    assertThat(directory.mkdir()).isTrue();
+    File missing = temp.resolve("missing.jar").toFile();
+    File jreJar = jar("rt.jar");
+
+    ClasspathIndex index = ClasspathIndex.load(temp.resolve("index.txt").toFile());
+    assertThat(index.filter(Arrays.asList(withClasses, resourcesOnly, notAJar, directory, missing, jreJar)))
+      .containsExactly(withClasses, notAJar, directory, missing, jreJar);
+    assertThat(index.isNeeded(withClasses)).isTrue();
+    assertThat(index.isNeeded(resourcesOnly)).isFalse();
+    assertThat(index.isNeeded(notAJar)).isTrue();
+  }
+
+  @Test
+  void pathing_jars_are_kept() throws IOException {
+    File pathingJar = jarWithManifest("pathing.jar", "Manifest-Version: 1.0\nClass-Path: lib/a.jar lib/b.jar\n");
+    File otherManifest = jarWithManifest("other.jar", "Manifest-Version: 1.0\nCreated-By: test\n");
+
+    ClasspathIndex index = ClasspathIndex.load(temp.resolve("index.txt").toFile());
+    assertThat(index.filter(Arrays.asList(pathingJar, otherManifest))).containsExactly(pathingJar);
+  }
+
+  @Test
+  void index_is_persisted_and_reused() throws IOException {
+    File indexFile = temp.resolve("work").resolve("index.txt").toFile();
+    File withClasses = jar("with-classes.jar", "org/foo/A.class");
+    File resourcesOnly = jar("resources.jar", "messages.properties");
+
+    ClasspathIndex index = ClasspathIndex.load(indexFile);
+    index.filter(Arrays.asList(withClasses, resourcesOnly));
+    index.save();
+    assertThat(indexFile).isFile();
+    long lastModified = indexFile.lastModified();
+
+    // the jars are not read again when they did not change, the content of the index is then used as is
+    Files.write(indexFile.toPath(), Files.readAllLines(indexFile.toPath()).stream()
+      .map(line -> line.endsWith("true") ? line.replace("true", "false") : line.replace("false", "true"))
+      .collect(Collectors.toList()));
+    ClasspathIndex reloaded = ClasspathIndex.load(indexFile);
+    assertThat(reloaded.isNeeded(withClasses)).isFalse();
+    assertThat(reloaded.isNeeded(resourcesOnly)).isTrue();
+    assertThat(reloaded.filter(Arrays.asList(withClasses, resourcesOnly))).containsExactly(resourcesOnly);
+
+    // nothing changed, nothing is written
+    assertThat(indexFile.delete()).isTrue();
+    reloaded.save();
+    assertThat(indexFile).doesNotExist();
+
+    // a jar is read again when its size or modification time changes
+    assertThat(withClasses.setLastModified(lastModified - 10_000L)).isTrue();
+    assertThat(reloaded.isNeeded(withClasses)).isTrue();
+    reloaded.save();
+    assertThat(indexFile).isFile();
+  }
+
+  @Test
+  void corrupted_index_is_ignored() throws IOException {
+    File indexFile = file("index.txt", ClasspathIndex.FORMAT_LINE + "\nunexpected\nline\tin\tthe\tindex\tfile\nfoo\tnot-a-number\t1\ttrue\n");
+    ClasspathIndex index = ClasspathIndex.load(indexFile);
+    File withClasses = jar("with-classes.jar", "org/foo/A.class");
+    assertThat(index.isNeeded(withClasses)).isTrue();
+  }
+
+  @Test
+  void index_in_another_format_is_ignored() throws IOException {
+    File resourcesOnly = jar("resources.jar", "messages.properties");
+    // previous format, listing the packages of the jars
+    File indexFile = file("index.txt", resourcesOnly.getAbsolutePath() + "\t" + resourcesOnly.length() + "\t" + resourcesOnly.lastModified() + "\torg.foo\n");
+    ClasspathIndex index = ClasspathIndex.load(indexFile);
+    assertThat(index.isNeeded(resourcesOnly)).isFalse();
+  }
+
+  @Test
+  void failure_to_save_the_index_is_ignored() throws IOException {
+    File notADirectory = file("not-a-directory", "");
+    ClasspathIndex index = ClasspathIndex.load(new File(notADirectory, "index.txt"));
+    File withClasses = jar("with-classes.jar", "org/foo/A.class");
+    index.filter(Arrays.asList(withClasses));
+    index.save();
+    assertThat(new File(notADirectory, "index.txt")).doesNotExist();
+  }
+
+  private File jar(String name, String... entries) throws IOException {
+    File jar = temp.resolve(name).toFile();
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      for (String entry : entries) {
+        out.putNextEntry(new ZipEntry(entry));
+        out.write(1);
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private File jarWithManifest(String name, String manifest) throws IOException {
+    File jar = temp.resolve(name).toFile();
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      out.write(manifest.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    return jar;
+  }
+
+  private File file(String name, String content) throws IOException {
+    Path path = temp.resolve(name);
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    return path.toFile();
+  }
+
+}
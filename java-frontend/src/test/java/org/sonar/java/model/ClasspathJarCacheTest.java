@@ -0,0 +1,52 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClasspathJarCacheTest {
+
+  @TempDir
+  Path temp;
+
+  @Test
+  void only_readable_jars_are_kept_open() throws IOException {
+    File jar = temp.resolve("project.jar").toFile();
+    Files.copy(new File("src/test/files/other/project.jar").toPath(), jar.toPath());
+    File notAJar = Files.write(temp.resolve("not-a-jar.jar"), new byte[] {1, 2, 3}).toFile();
+    File directory = temp.toFile();
+    File missing = temp.resolve("missing.jar").toFile();
+
+    ClasspathJarCache cache = ClasspathJarCache.open(Arrays.asList(jar, notAJar, directory, missing));
+    assertThat(cache.size()).isEqualTo(1);
+    cache.close();
+    assertThat(cache.size()).isZero();
+    assertThat(jar.delete()).isTrue();
+  }
+
+}
@@ -21,11 +21,17 @@ package org.sonar.java.model;
 
 import com.google.common.io.Files;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.migrationsupport.rules.EnableRuleMigrationSupport;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.TestUtils;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
@@ -115,6 +121,37 @@ class JParserReleasingJarsTest {
     assertThat(newJar).doesNotExist();
   }
 
+  @Test
+  void file_by_file_mode_should_release_jar_after_use() throws Exception {
+    File newJar = new File(temp.newFolder(), "project4.jar");
+    Files.copy(new File(PROJECT_JAR), newJar);
+    File folder = temp.newFolder();
+    List<InputFile> inputFiles = new ArrayList<>();
+    for (String name : Arrays.asList("B", "C")) {
+      File source = new File(folder, name + ".java");
+      Files.asCharSink(source, StandardCharsets.UTF_8).write(SOURCE.replace("class B", "class " + name));
+      inputFiles.add(TestUtils.inputFile(source));
+    }
+
+    List<Symbol> foos = new ArrayList<>();
+    JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(), Collections.singletonList(newJar))
+      .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {
+        try {
+          JavaTree.CompilationUnitTreeImpl cu = result.get();
+          foos.add(getFooSymbol(cu));
+          cu.sema.getEnvironmentCleaner().run();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+
+    assertThat(foos)
+      .hasSize(2)
+      .allMatch(foo -> !foo.isUnknown() && foo.isMethodSymbol());
+    // can be safely deleted
+    assertThat(newJar.delete()).isTrue();
+  }
+
   @Test
   void environment_cleaner_should_support_equals_and_hashcode() {
     JavaTree.CompilationUnitTreeImpl cu = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse("class A {}");
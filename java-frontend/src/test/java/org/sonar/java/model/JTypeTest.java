@@ -44,6 +44,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonar.java.model.assertions.TypeAssert.assertThat;
 
@@ -296,6 +298,26 @@ class JTypeTest {
       .containsExactly("NullPointerException while resolving isSubTypeCompatible()");
   }
 
+  @Test
+  void is_subtype_of_is_computed_once_per_super_type() {
+    JType objectType = type("java.lang.Object");
+    JType numberType = type("java.lang.Number");
+    ITypeBinding integerBinding = spy(Objects.requireNonNull(sema.resolveType("java.lang.Integer")));
+    JType integerType = new JType(sema, integerBinding);
+
+    assertThat(integerType.isSubtypeOf("java.lang.Number")).isTrue();
+    assertThat(integerType.isSubtypeOf("java.lang.Number")).isTrue();
+    assertThat(integerType.isSubtypeOf(numberType)).isTrue();
+    assertThat(integerType.isSubtypeOf(objectType)).isTrue();
+    assertThat(integerType.isSubtypeOf("java.lang.String")).isFalse();
+    assertThat(integerType.isSubtypeOf("java.lang.String")).isFalse();
+    assertThat(integerType.isSubtypeOf("org.foo.Unknown")).isFalse();
+
+    verify(integerBinding, times(1)).isSubTypeCompatible(numberType.typeBinding);
+    verify(integerBinding, times(1)).isSubTypeCompatible(objectType.typeBinding);
+    verify(integerBinding, times(1)).isSubTypeCompatible(type("java.lang.String").typeBinding);
+  }
+
   @Test
   void wildcard() {
     JavaTree.CompilationUnitTreeImpl cu = test("class C<T1, T2, T3> { C<? extends String, ? extends String, ? super String> f; }");
@@ -0,0 +1,185 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrefetchedSourcesTest {
+
+  private static final String VERSION = new JavaVersionImpl().effectiveJavaVersionAsString();
+
+  @Test
+  void sources_are_read_on_demand_when_prefetch_is_disabled() throws IOException {
+    InputFile a = inputFile("A.java", "class A {}");
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Collections.singletonList(a), 0L)) {
+      PrefetchedSources.Source source = sources.take(a);
+      assertThat(source.contents).isEqualTo("class A {}");
+      assertThat(source.tokens).isNull();
+      assertThat(sources.retainedSizeInBytes()).isZero();
+    }
+  }
+
+  @Test
+  void sources_are_read_and_lexed_in_advance() throws Exception {
+    InputFile a = inputFile("A.java", "class A {}");
+    InputFile b = inputFile("B.java", "class B extends A {}");
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(a, b), 1_000L)) {
+      waitForRetainedSize(sources, prefetchedSize(a) + prefetchedSize(b));
+
+      PrefetchedSources.Source sourceOfA = sources.take(a);
+      assertThat(sourceOfA.contents).isEqualTo("class A {}");
+      assertThat(sourceOfA.tokens).hasSameSizeAs(JParser.lex(VERSION, "A.java", "class A {}".toCharArray()));
+      assertThat(sources.retainedSizeInBytes()).isEqualTo(prefetchedSize(b));
+
+      PrefetchedSources.Source sourceOfB = sources.take(b);
+      assertThat(sourceOfB.contents).isEqualTo("class B extends A {}");
+      assertThat(sourceOfB.tokens).isNotNull();
+      assertThat(sources.retainedSizeInBytes()).isZero();
+    }
+  }
+
+  @Test
+  void prefetch_waits_for_sources_to_be_consumed_when_the_retained_size_is_reached() throws Exception {
+    InputFile a = inputFile("A.java", "class A {}");
+    InputFile b = inputFile("B.java", "class B {}");
+    InputFile c = inputFile("C.java", "class C {}");
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(a, b, c), 1L)) {
+      waitForRetainedSize(sources, prefetchedSize(a));
+      Thread.sleep(50);
+      assertThat(sources.retainedSizeInBytes()).isEqualTo(prefetchedSize(a));
+
+      assertThat(sources.take(a).tokens).isNotNull();
+      waitForRetainedSize(sources, prefetchedSize(b));
+      assertThat(sources.take(b).tokens).isNotNull();
+      waitForRetainedSize(sources, prefetchedSize(c));
+      assertThat(sources.take(c).tokens).isNotNull();
+    }
+  }
+
+  @Test
+  void sources_consumed_before_being_prefetched_are_read_on_demand() throws Exception {
+    InputFile a = inputFile("A.java", "class A {}");
+    InputFile b = inputFile("B.java", "class B {}");
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(a, b), 1L)) {
+      waitForRetainedSize(sources, prefetchedSize(a));
+
+      PrefetchedSources.Source sourceOfB = sources.take(b);
+      assertThat(sourceOfB.contents).isEqualTo("class B {}");
+      assertThat(sourceOfB.tokens).isNull();
+
+      assertThat(sources.take(a).tokens).isNotNull();
+      Thread.sleep(50);
+      assertThat(sources.retainedSizeInBytes()).isZero();
+    }
+  }
+
+  @Test
+  void read_failures_are_reported_when_sources_are_consumed() throws Exception {
+    InputFile failing = mock(InputFile.class);
+    when(failing.filename()).thenReturn("Failing.java");
+    when(failing.contents()).thenThrow(new IOException("boom"));
+    InputFile a = inputFile("A.java", "class A {}");
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(failing, a), 1_000L)) {
+      waitForRetainedSize(sources, prefetchedSize(a));
+      assertThatThrownBy(() -> sources.take(failing))
+        .isInstanceOf(IOException.class)
+        .hasMessage("boom");
+      assertThat(sources.take(a).tokens).isNotNull();
+    }
+  }
+
+  @Test
+  void input_files_are_not_hashed() throws Exception {
+    InputFile a = mock(InputFile.class);
+    when(a.filename()).thenReturn("A.java");
+    when(a.contents()).thenReturn("class A {}");
+    // hashCode fails for an InputFile built from an absolute path, as it has no project relative path
+    InputFile b = new TestInputFileBuilder("", new File("B.java").getAbsolutePath()).setContents("class B {}").setCharset(UTF_8).build();
+    try (PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(a), 1_000L)) {
+      waitForRetainedSize(sources, prefetchedSize(a));
+      assertThat(sources.take(a).tokens).isNotNull();
+      assertThat(sources.take(b).contents).isEqualTo("class B {}");
+    }
+  }
+
+  @Test
+  void closed_sources_are_read_on_demand() throws Exception {
+    InputFile a = inputFile("A.java", "class A {}");
+    PrefetchedSources sources = PrefetchedSources.start(VERSION, Collections.singletonList(a), 1_000L);
+    waitForRetainedSize(sources, prefetchedSize(a));
+    sources.close();
+    assertThat(sources.retainedSizeInBytes()).isZero();
+    assertThat(sources.take(a).tokens).isNull();
+  }
+
+  @Test
+  void prefetch_thread_is_stopped_when_sources_are_closed() throws Exception {
+    InputFile a = inputFile("A.java", "class A {}");
+    InputFile b = inputFile("B.java", "class B {}");
+    PrefetchedSources sources = PrefetchedSources.start(VERSION, Arrays.asList(a, b), 1L);
+    waitForRetainedSize(sources, prefetchedSize(a));
+    // the prefetch thread waits for the source of A to be consumed
+    sources.close();
+    assertThat(Thread.getAllStackTraces().keySet())
+      .noneMatch(thread -> thread.getName().equals("Prefetch sources of Java AST analyzer"));
+  }
+
+  @Test
+  void retained_size_includes_the_tokens() {
+    String contents = "class A {}";
+    assertThat(PrefetchedSources.sizeInBytes(contents, null)).isEqualTo(20L);
+    assertThat(PrefetchedSources.sizeInBytes(contents, JParser.lex(VERSION, "A.java", contents.toCharArray())))
+      .isGreaterThan(20L);
+  }
+
+  private static long prefetchedSize(InputFile inputFile) throws IOException {
+    String contents = inputFile.contents();
+    return PrefetchedSources.sizeInBytes(contents, JParser.lex(VERSION, inputFile.filename(), contents.toCharArray()));
+  }
+
+  private static void waitForRetainedSize(PrefetchedSources sources, long expectedSize) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000L;
+    while (sources.retainedSizeInBytes() != expectedSize && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(sources.retainedSizeInBytes()).isEqualTo(expectedSize);
+  }
+
+  private static InputFile inputFile(String filename, String contents) {
+    return new TestInputFileBuilder("", filename)
+      .setContents(contents)
+      .setCharset(UTF_8)
+      .setLanguage("java")
+      .build();
+  }
+
+}
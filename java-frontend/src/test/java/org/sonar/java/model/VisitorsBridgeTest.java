@@ -19,13 +19,16 @@
  */
 package org.sonar.java.model;
 
+import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.assertj.core.api.Fail;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -43,6 +46,7 @@ import org.sonar.plugins.java.api.JavaVersionAwareVisitor;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.UnsharedTreeWalk;
 import org.sonar.java.checks.EndOfAnalysisVisitor;
 import org.sonar.java.checks.VisitorThatCanBeSkipped;
 import org.sonar.java.exceptions.ApiMismatchException;
@@ -54,6 +58,8 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.ModuleScannerContext;
 import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
@@ -64,6 +70,9 @@ import org.sonar.plugins.java.api.tree.Tree.Kind;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -230,6 +239,43 @@ class VisitorsBridgeTest {
     verify(sonarComponents, never()).symbolizableFor(any());
   }
 
+  @Test
+  void subscription_visitors_are_called_in_tree_order() {
+    List<String> events = new ArrayList<>();
+    IssuableSubscriptionVisitor visitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Tree.Kind> nodesToVisit() {
+        return Arrays.asList(Tree.Kind.CLASS, Tree.Kind.METHOD, Tree.Kind.TOKEN, Tree.Kind.TRIVIA);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        events.add("visit " + tree.kind());
+      }
+
+      @Override
+      public void leaveNode(Tree tree) {
+        events.add("leave " + tree.kind());
+      }
+
+      @Override
+      public void visitToken(SyntaxToken syntaxToken) {
+        events.add("token " + syntaxToken.text());
+      }
+
+      @Override
+      public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+        events.add("trivia " + syntaxTrivia.comment());
+      }
+    };
+    checkFile("A.java", "/* c */ class A { void m() {} }", new VisitorsBridge(visitor));
+
+    assertThat(events).containsExactly(
+      "visit CLASS", "token class", "trivia /* c */", "token A", "token {",
+      "visit METHOD", "token void", "token m", "token (", "token )", "token {", "token }", "leave METHOD",
+      "token }", "leave CLASS", "token ");
+  }
+
   @Test
   void filter_scanner_by_java_version() {
     List<String> trace = new ArrayList<>();
@@ -343,6 +389,40 @@ class VisitorsBridgeTest {
     assertThat(VisitorsBridge.canVisitorBeSkippedOnUnchangedFiles(visitor)).isTrue();
   }
 
+  @Test
+  void subscription_visitors_driving_the_visit_of_the_file_do_not_share_the_walk_of_the_tree() {
+    List<String> events = new ArrayList<>();
+    List<JavaFileScanner> visitors = Arrays.asList(
+      new RecordingSubscriptionVisitor("first", events),
+      new UnsharedRecordingSubscriptionVisitor("unshared", events),
+      new RecordingSubscriptionVisitor("second", events));
+    VisitorsBridge visitorsBridge = visitorsBridge(visitors, false);
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+    visitorsBridge.endOfAnalysis();
+
+    assertThat(events).containsExactly("unshared scanFile",
+      "first setContext", "second setContext", "first visitNode", "second visitNode",
+      "first leaveNode", "second leaveNode", "first leaveFile", "second leaveFile");
+    assertThat(logTester.logs(Level.DEBUG)).contains("Per file: 1 tree walks shared by subscription visitors, 1 other scanners.");
+  }
+
+  @Test
+  void subscription_visitors_share_a_single_walk_of_the_tree() {
+    List<String> events = new ArrayList<>();
+    List<JavaFileScanner> visitors = Arrays.asList(
+      new RecordingSubscriptionVisitor("first", events),
+      new DefaultEndOfAnalysisCheck(),
+      new RecordingSubscriptionVisitor("second", events));
+    VisitorsBridge visitorsBridge = visitorsBridge(visitors, false);
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+    visitorsBridge.endOfAnalysis();
+
+    // the subscription visitors are called node after node, and the other scanner walks the tree on its own
+    assertThat(events).startsWith("first setContext", "second setContext", "first visitNode", "second visitNode")
+      .endsWith("first leaveNode", "second leaveNode", "first leaveFile", "second leaveFile");
+    assertThat(logTester.logs(Level.DEBUG)).contains("Per file: 1 tree walks shared by subscription visitors, 1 other scanners.");
+  }
+
   @Test
   void visitorsBridge_uses_appropriate_scanners() throws ApiMismatchException {
     SonarComponents sonarComponents = mock(SonarComponents.class);
@@ -361,20 +441,20 @@ class VisitorsBridgeTest {
     );
 
     verify(skippableVisitor, times(1)).nodesToVisit();
-    verify(endOfAnalysisVisitor, never()).nodesToVisit();
+    verify(endOfAnalysisVisitor, times(2)).nodesToVisit();
     verify(unskippableVisitor, times(2)).nodesToVisit();
     verify(incompatibleVisitor, never()).nodesToVisit();
 
     visitorsBridge.visitFile(null, true);
 
     verify(skippableVisitor, never()).visitNode(any());
-    verify(endOfAnalysisVisitor, times(1)).scanFile(any());
+    verify(endOfAnalysisVisitor, times(1)).visitNode(any());
     verify(unskippableVisitor, times(1)).visitNode(any());
     verify(incompatibleVisitor, never()).visitNode(any());
 
     visitorsBridge.visitFile(null, false);
     verify(skippableVisitor, times(1)).visitNode(any());
-    verify(endOfAnalysisVisitor, times(2)).scanFile(any());
+    verify(endOfAnalysisVisitor, times(2)).visitNode(any());
     verify(unskippableVisitor, times(2)).visitNode(any());
     verify(incompatibleVisitor, never()).visitNode(any());
   }
@@ -533,6 +613,40 @@ class VisitorsBridgeTest {
       triggers_an_AnalysisException_when_a_scanner_throws_while_scanning_without_parsing(scanner);
     }
 
+    @Test
+    void scanWithoutParsing_reports_the_cached_parse_error_of_an_unchanged_file() throws ApiMismatchException {
+      SonarComponents sonarComponents = mock(SonarComponents.class);
+      doReturn(true).when(sonarComponents).fileCanBeSkipped(any(InputFile.class));
+      doReturn(true).when(sonarComponents).canSkipUnchangedFiles();
+      doReturn(true).when(sonarComponents).isParseErrorCacheEnabled();
+      ScannerThatCannotScanWithoutParsing scanner = spy(new ScannerThatCannotScanWithoutParsing());
+      VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(scanner), Collections.emptyList(), sonarComponents);
+
+      // the same map is used as previous and next cache, to simulate two analyses
+      Map<String, byte[]> cache = new HashMap<>();
+      JavaReadCache readCache = mock(JavaReadCache.class);
+      doAnswer(invocation -> cache.get(invocation.<String>getArgument(0))).when(readCache).readBytes(anyString());
+      JavaWriteCache writeCache = mock(JavaWriteCache.class);
+      doAnswer(invocation -> cache.put(invocation.getArgument(0), invocation.getArgument(1))).when(writeCache).write(anyString(), any(byte[].class));
+      CacheContext cacheContext = mock(CacheContext.class);
+      doReturn(true).when(cacheContext).isCacheEnabled();
+      doReturn(readCache).when(cacheContext).getReadCache();
+      doReturn(writeCache).when(cacheContext).getWriteCache();
+      visitorsBridge.setCacheContext(cacheContext);
+
+      RecognitionException parseError = new RecognitionException(1, "Parse error at line 1 column 7: Syntax error");
+      visitorsBridge.processRecognitionException(parseError, INPUT_FILE);
+      verify(sonarComponents).reportAnalysisError(parseError, INPUT_FILE);
+
+      assertThat(visitorsBridge.scanWithoutParsing(INPUT_FILE)).isTrue();
+      verify(scanner, never()).scanWithoutParsing(any());
+      verify(sonarComponents, times(2)).reportAnalysisError(any(RecognitionException.class), eq(INPUT_FILE));
+      verify(writeCache).copyFromPrevious("java:parseError:" + INPUT_FILE.key());
+      assertThat(logTester.logs(Level.ERROR)).containsExactly(
+        "Unable to parse source file : '" + INPUT_FILE + "' (syntax error of the previous analysis of this unchanged file)",
+        "Parse error at line 1 column 7: Syntax error");
+    }
+
     private void returns_false_when_a_scanner_throws_an_exception_while_scanning_without_parsing_and_fail_fast_is_disabled(JavaFileScanner scanner) throws ApiMismatchException {
       SonarComponents sonarComponents = mock(SonarComponents.class);
       doReturn(true).when(sonarComponents).fileCanBeSkipped(any(InputFile.class));
@@ -739,6 +853,54 @@ class VisitorsBridgeTest {
     }
   }
 
+  private static class RecordingSubscriptionVisitor extends SubscriptionVisitor {
+    protected final String name;
+    protected final List<String> events;
+
+    RecordingSubscriptionVisitor(String name, List<String> events) {
+      this.name = name;
+      this.events = events;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.CLASS);
+    }
+
+    @Override
+    public void setContext(JavaFileScannerContext context) {
+      super.setContext(context);
+      events.add(name + " setContext");
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add(name + " visitNode");
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add(name + " leaveNode");
+    }
+
+    @Override
+    public void leaveFile(JavaFileScannerContext context) {
+      events.add(name + " leaveFile");
+    }
+  }
+
+  private static class UnsharedRecordingSubscriptionVisitor extends RecordingSubscriptionVisitor implements UnsharedTreeWalk {
+
+    UnsharedRecordingSubscriptionVisitor(String name, List<String> events) {
+      super(name, events);
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      events.add(name + " scanFile");
+    }
+  }
+
   private static class ScannerThatCannotScanWithoutParsing implements EndOfAnalysis, JavaFileScanner {
     /**
      * Always fail
@@ -0,0 +1,150 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.regex;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.reporting.AnalyzerMessage.TextSpan;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonarsource.analyzer.commons.regex.RegexParseResult;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+import org.sonarsource.analyzer.commons.regex.ast.RegexTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedRegexCacheTest {
+
+  @Test
+  void same_result_in_different_files() {
+    LiteralTree s0 = literal("class A {\n  String s = \"a+b\";\n}");
+    LiteralTree s1 = literal("class B {\n\n\n  String other = \"a+b\";\n}");
+
+    SharedRegexCache sharedCache = new SharedRegexCache();
+    RegexParseResult resultForS0 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), s0);
+    assertTextSpan(resultForS0.getResult(), 2, 14, 2, 17);
+
+    RegexParseResult resultForS1 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), s1);
+    assertThat(resultForS1).isSameAs(resultForS0);
+    // the regex is now located in the second file
+    assertTextSpan(resultForS1.getResult(), 4, 18, 4, 21);
+
+    assertThat(sharedCache.hitCount()).isEqualTo(1);
+    assertThat(sharedCache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void different_results_in_the_same_file() {
+    CompilationUnitTree cut = JParserTestUtils.parse(
+      "class A {\n"
+        + "  String s0 = \"abc\";\n"
+        + "  String s1 = \"abc\";\n"
+        + "}");
+    LiteralTree s0 = literal(cut, 0);
+    LiteralTree s1 = literal(cut, 1);
+
+    SharedRegexCache sharedCache = new SharedRegexCache();
+    RegexCache cache = new RegexCache(sharedCache);
+    RegexParseResult resultForS0 = cache.getRegexForLiterals(new FlagSet(), s0);
+    RegexParseResult resultForS1 = cache.getRegexForLiterals(new FlagSet(), s1);
+
+    assertThat(resultForS0).isNotSameAs(resultForS1);
+    assertThat(cache.getRegexForLiterals(new FlagSet(), s0)).isSameAs(resultForS0);
+    assertTextSpan(resultForS0.getResult(), 2, 15, 2, 18);
+    assertTextSpan(resultForS1.getResult(), 3, 15, 3, 18);
+    assertThat(sharedCache.hitCount()).isZero();
+    assertThat(sharedCache.size()).isEqualTo(1);
+
+    // the next file reuses the result cached by the first literal
+    RegexParseResult resultInNextFile = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), s1);
+    assertThat(resultInNextFile).isSameAs(resultForS0);
+  }
+
+  @Test
+  void different_results_for_different_flags_or_literals() {
+    LiteralTree s0 = literal("class A {\n  String s = \"abc\";\n}");
+    LiteralTree s1 = literal("class B {\n  String s = \"abc\";\n}");
+    LiteralTree s2 = literal("class C {\n  String s = \"ab\\\\x63\";\n}");
+
+    SharedRegexCache sharedCache = new SharedRegexCache();
+    FlagSet caseInsensitive = new FlagSet(Pattern.CASE_INSENSITIVE);
+    RegexParseResult result = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), s0);
+
+    assertThat(new RegexCache(sharedCache).getRegexForLiterals(caseInsensitive, s1)).isNotSameAs(result);
+    assertThat(new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), s2)).isNotSameAs(result);
+    assertThat(sharedCache.hitCount()).isZero();
+    assertThat(sharedCache.size()).isEqualTo(3);
+  }
+
+  @Test
+  void least_recently_used_results_are_evicted() {
+    LiteralTree a0 = literal("class A {\n  String s = \"a\";\n}");
+    LiteralTree b = literal("class B {\n  String s = \"b\";\n}");
+    LiteralTree a1 = literal("class C {\n  String s = \"a\";\n}");
+
+    SharedRegexCache sharedCache = new SharedRegexCache(1);
+    RegexParseResult resultForA0 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), a0);
+    new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), b);
+
+    assertThat(sharedCache.size()).isEqualTo(1);
+    assertThat(new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), a1)).isNotSameAs(resultForA0);
+    assertThat(sharedCache.hitCount()).isZero();
+  }
+
+  @Test
+  void text_blocks_are_relocated() {
+    LiteralTree t0 = literal("class A {\n  String s = \"\"\"\n    a+\n    b\"\"\";\n}");
+    LiteralTree t1 = literal("class B {\n\n  String s = \"\"\"\n    a+\n    b\"\"\";\n}");
+
+    SharedRegexCache sharedCache = new SharedRegexCache();
+    RegexParseResult resultForT0 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), t0);
+    JavaAnalyzerRegexSource source = (JavaAnalyzerRegexSource) resultForT0.getResult().getSource();
+    List<TextSpan> spansInT0 = source.textSpansFor(resultForT0.getResult().getRange());
+
+    RegexParseResult resultForT1 = new RegexCache(sharedCache).getRegexForLiterals(new FlagSet(), t1);
+    assertThat(resultForT1).isSameAs(resultForT0);
+    List<TextSpan> spansInT1 = source.textSpansFor(resultForT1.getResult().getRange());
+
+    assertThat(spansInT1).hasSameSizeAs(spansInT0);
+    for (int i = 0; i < spansInT0.size(); i++) {
+      assertThat(spansInT1.get(i).startLine).isEqualTo(spansInT0.get(i).startLine + 1);
+      assertThat(spansInT1.get(i).startCharacter).isEqualTo(spansInT0.get(i).startCharacter);
+    }
+  }
+
+  private static void assertTextSpan(RegexTree regex, int startLine, int startCharacter, int endLine, int endCharacter) {
+    List<TextSpan> textSpans = ((JavaAnalyzerRegexSource) regex.getSource()).textSpansFor(regex.getRange());
+    assertThat(textSpans).containsExactly(new TextSpan(startLine, startCharacter, endLine, endCharacter));
+  }
+
+  private static LiteralTree literal(String code) {
+    return literal(JParserTestUtils.parse(code), 0);
+  }
+
+  private static LiteralTree literal(CompilationUnitTree cut, int field) {
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    return (LiteralTree) ((VariableTree) classTree.members().get(field)).initializer();
+  }
+
+}
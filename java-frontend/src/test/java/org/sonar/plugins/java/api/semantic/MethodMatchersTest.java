@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.fs.InputFile;
@@ -413,6 +414,95 @@ class MethodMatchersTest {
       .containsExactly(2, 3, 4);
   }
 
+  @Test
+  void test_constructor_invocations() {
+    String source = "" +
+      /* 01 */ "class A {\n" +
+      /* 02 */ "  A() { this(1); }\n" +
+      /* 03 */ "  A(int x) { }\n" +
+      /* 04 */ "  void f() { }\n" +
+      /* 05 */ "}\n" +
+      /* 06 */ "class B extends A {\n" +
+      /* 07 */ "  B() { super(2); }\n" +
+      /* 08 */ "  void main() {\n" +
+      /* 09 */ "    new A(3);\n" +
+      /* 10 */ "    f();\n" +
+      /* 11 */ "  }\n" +
+      /* 12 */ "}\n";
+
+    MethodMatchers constructor = MethodMatchers.create().ofTypes("A").constructor().addParametersMatcher("int").build();
+    assertThat(findMatchesOnTree(source, constructor)).containsExactly(2, 3, 7, 9);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(constructor, MethodMatchers.none()))).containsExactly(2, 3, 7, 9);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(constructor,
+      MethodMatchers.create().ofTypes("A").names("f").addWithoutParametersMatcher().build())))
+      .containsExactly(2, 3, 4, 7, 9, 10);
+  }
+
+  @Test
+  void matchers_are_only_evaluated_on_methods_of_their_names() {
+    String source = "" +
+      /* 01 */ "class A {\n" +
+      /* 02 */ "  void f() { g(); h(); }\n" +
+      /* 03 */ "  void g() { }\n" +
+      /* 04 */ "  void h() { }\n" +
+      /* 05 */ "}\n";
+    AtomicInteger gEvaluations = new AtomicInteger();
+    AtomicInteger hEvaluations = new AtomicInteger();
+    AtomicInteger anyNameEvaluations = new AtomicInteger();
+    MethodMatchers g = MethodMatchers.create().ofType(type -> {
+      gEvaluations.incrementAndGet();
+      return type.is("A");
+    }).names("g").addWithoutParametersMatcher().build();
+    MethodMatchers h = MethodMatchers.create().ofType(type -> {
+      hEvaluations.incrementAndGet();
+      return type.is("A");
+    }).names("h").addWithoutParametersMatcher().build();
+    MethodMatchers anyName = MethodMatchers.create().ofTypes("B").name(name -> {
+      anyNameEvaluations.incrementAndGet();
+      return true;
+    }).addWithoutParametersMatcher().build();
+
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(g, h, anyName))).containsExactly(2, 2, 3, 4);
+    // "g" and "h" are only evaluated on their declaration and invocation, "anyName" only on the declaration of "f", which has no
+    // other candidate
+    assertThat(gEvaluations).hasValue(2);
+    assertThat(hEvaluations).hasValue(2);
+    assertThat(anyNameEvaluations).hasValue(1);
+
+    gEvaluations.set(0);
+    assertThat(findMatchesOnTree(source, g)).containsExactly(2, 3);
+    assertThat(gEvaluations).hasValue(2);
+  }
+
+  @Test
+  void evaluated_and_rejected_matchers_are_counted_per_analysis() {
+    String source = "" +
+      /* 01 */ "class A {\n" +
+      /* 02 */ "  void f() { g(); h(); }\n" +
+      /* 03 */ "  void g() { }\n" +
+      /* 04 */ "  void h() { }\n" +
+      /* 05 */ "}\n";
+    MethodMatchers g = MethodMatchers.create().ofTypes("A").names("g").addWithoutParametersMatcher().build();
+    MethodMatchers h = MethodMatchers.create().ofTypes("A").names("h").addWithoutParametersMatcher().build();
+    MethodMatchers anyName = MethodMatchers.create().ofTypes("B").name(name -> true).addWithoutParametersMatcher().build();
+
+    Visitor visitor = new Visitor(MethodMatchers.or(g, h, anyName), false);
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), null);
+    JavaAstScanner.scanSingleFileForTests(inputFile(source), visitorsBridge);
+    assertThat(visitor.matches).containsExactly(2, 2, 3, 4);
+    // only "anyName" is evaluated on the declaration of "f", only "g" or "h" on the other 4 trees
+    assertThat(visitorsBridge.methodMatchersCounters().evaluatedCount()).isEqualTo(5);
+    assertThat(visitorsBridge.methodMatchersCounters().rejectedCount()).isEqualTo(6);
+
+    visitor = new Visitor(g, false);
+    VisitorsBridge otherVisitorsBridge = new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), null);
+    JavaAstScanner.scanSingleFileForTests(inputFile(source), otherVisitorsBridge);
+    assertThat(visitor.matches).containsExactly(2, 3);
+    assertThat(otherVisitorsBridge.methodMatchersCounters().evaluatedCount()).isEqualTo(2);
+    assertThat(otherVisitorsBridge.methodMatchersCounters().rejectedCount()).isEqualTo(3);
+    assertThat(visitorsBridge.methodMatchersCounters().evaluatedCount()).isEqualTo(5);
+  }
+
   private static List<Integer> findMatchesOnTree(String fileContent, MethodMatchers matcher) {
     return findMatches(fileContent, matcher, false);
   }
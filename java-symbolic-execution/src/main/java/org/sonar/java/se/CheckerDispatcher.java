@@ -19,8 +19,11 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -39,6 +42,7 @@ import org.sonarsource.performance.measure.PerformanceMeasure;
 public class CheckerDispatcher implements CheckerContext {
   private final ExplodedGraphWalker explodedGraphWalker;
   private final List<SECheck> checks;
+  private final Map<Tree.Kind, List<SECheck>> checksByKind;
   private int currentCheckerIndex = -1;
   private boolean transition = false;
   private Exception interruptionCause = null;
@@ -49,15 +53,42 @@ public class CheckerDispatcher implements CheckerContext {
   MethodYield methodYield = null;
 
   public CheckerDispatcher(ExplodedGraphWalker explodedGraphWalker, List<SECheck> checks, JavaFileScannerContext scannerContext) {
+    this(explodedGraphWalker, checks, checksByKind(checks), scannerContext);
+  }
+
+  CheckerDispatcher(ExplodedGraphWalker explodedGraphWalker, List<SECheck> checks, Map<Tree.Kind, List<SECheck>> checksByKind,
+    JavaFileScannerContext scannerContext) {
     this.explodedGraphWalker = explodedGraphWalker;
     this.checks = checks;
+    this.checksByKind = checksByKind;
     this.scannerContext = scannerContext;
   }
 
+  /**
+   * Dispatch table of the pre and post statement callbacks: for each kind of syntax node, the checks interested in it, in the order
+   * of the given checks.
+   *
+   * @see SECheck#nodesToVisit()
+   */
+  static Map<Tree.Kind, List<SECheck>> checksByKind(List<SECheck> checks) {
+    Map<Tree.Kind, List<SECheck>> checksByKind = new EnumMap<>(Tree.Kind.class);
+    for (Tree.Kind kind : Tree.Kind.values()) {
+      checksByKind.put(kind, new ArrayList<>());
+    }
+    for (SECheck check : checks) {
+      check.nodesToVisit().forEach(kind -> checksByKind.get(kind).add(check));
+    }
+    return checksByKind;
+  }
+
+  private List<SECheck> checksFor(Tree syntaxNode) {
+    return checksByKind.getOrDefault(syntaxNode.kind(), checks);
+  }
+
   public boolean executeCheckPreStatement(Tree syntaxNode) {
     this.syntaxNode = syntaxNode;
     ProgramState ps;
-    for (SECheck checker : checks) {
+    for (SECheck checker : checksFor(syntaxNode)) {
       PerformanceMeasure.Duration checkerDuration = PerformanceMeasure.start(checker);
       ps = checker.checkPreStatement(this, syntaxNode);
       checkerDuration.stop();
@@ -108,8 +139,9 @@ public class CheckerDispatcher implements CheckerContext {
 
   private void executePost() {
     this.transition = false;
-    if (currentCheckerIndex < checks.size()) {
-      explodedGraphWalker.programState = checks.get(currentCheckerIndex).checkPostStatement(this, syntaxNode);
+    List<SECheck> postStatementChecks = checksFor(syntaxNode);
+    if (currentCheckerIndex < postStatementChecks.size()) {
+      explodedGraphWalker.programState = postStatementChecks.get(currentCheckerIndex).checkPostStatement(this, syntaxNode);
     } else {
       CFG.Block block = (CFG.Block) explodedGraphWalker.programPosition.block;
       if (explodedGraphWalker.programPosition.i < block.elements().size()) {
@@ -19,10 +19,13 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import org.sonar.java.Preconditions;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
 
 import org.sonar.java.se.xproc.MethodYield;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -35,14 +38,31 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class ExplodedGraph {
 
   private final Map<Node, Node> nodes = new HashMap<>();
   private final Map<ProgramPoint, List<Node>> nodesByProgramPoint = new HashMap<>();
+  private final Map<CFG.IBlock<?>, ProgramPoint> programPoints = new IdentityHashMap<>();
+  private final ConstraintsByDomain.Interner constraintsInterner = new ConstraintsByDomain.Interner();
+  // flows computed since the last change of the edges of the graph, see FlowComputation
+  private final Map<FlowComputation.Key, Set<Flow>> flows = new HashMap<>();
+
+  /**
+   * Returns the program point at the start of the given block. It is shared by all the nodes of the graph, as well as the program points
+   * following it in the block.
+   */
+  public ProgramPoint programPoint(CFG.IBlock<?> block) {
+    return programPoints.computeIfAbsent(block, ProgramPoint::new);
+  }
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
+   *
+   * Only equal states share a node: a state is not dropped because another one of the same program point has a subset of its
+   * constraints, as the checks report their issues and flows from the constraints learned along each path. The constraints of the
+   * symbolic values which are no longer live are already removed at the end of each block, see {@link ProgramState#cleanupDeadSymbols}.
    */
   public Node node(ProgramPoint programPoint, @Nullable ProgramState programState) {
     Node result = new Node(programPoint, programState, this);
@@ -53,7 +73,7 @@ public class ExplodedGraph {
     }
     result.isNew = true;
     nodes.put(result, result);
-    nodesByProgramPoint.computeIfAbsent(programPoint, k -> new LinkedList<>()).add(result);
+    nodesByProgramPoint.computeIfAbsent(programPoint, k -> new ArrayList<>(1)).add(result);
     return result;
   }
 
@@ -61,13 +81,24 @@ public class ExplodedGraph {
     return nodes;
   }
 
+  /**
+   * Shares the equal constraints of the program states of this graph.
+   */
+  public ConstraintsByDomain.Interner constraintsInterner() {
+    return constraintsInterner;
+  }
+
   public static final class Node {
 
     public final ProgramPoint programPoint;
     @Nullable
     public final ProgramState programState;
 
-    private final Map<Node, Edge> edges = new HashMap<>();
+    // most nodes have a single parent: the map of edges is only created for the second one
+    @Nullable
+    private Edge singleEdge;
+    @Nullable
+    private Map<Node, Edge> edges;
 
     private boolean isNew;
     boolean exitPath = false;
@@ -86,13 +117,34 @@ public class ExplodedGraph {
       if (parent == null) {
         return;
       }
-      Edge edge = edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      // the flows are computed backward from the edges of the nodes
+      if (!explodedGraph.flows.isEmpty()) {
+        explodedGraph.flows.clear();
+      }
+      Edge edge = edge(parent);
       if (methodYield != null) {
         Preconditions.checkState(parent.programPoint.syntaxTree().is(Tree.Kind.METHOD_INVOCATION), "Yield on edge where parent is not MIT");
         edge.yields.add(methodYield);
       }
     }
 
+    private Edge edge(Node parent) {
+      if (edges != null) {
+        return edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      }
+      if (singleEdge == null) {
+        singleEdge = new Edge(this, parent);
+        return singleEdge;
+      }
+      if (singleEdge.parent.equals(parent)) {
+        return singleEdge;
+      }
+      edges = new HashMap<>();
+      edges.put(singleEdge.parent, singleEdge);
+      singleEdge = null;
+      return edges.computeIfAbsent(parent, p -> new Edge(this, p));
+    }
+
     public Collection<Node> siblings() {
       Collection<Node> collection = explodedGraph.nodesByProgramPoint.getOrDefault(programPoint, Collections.emptyList());
       collection.remove(this);
@@ -108,7 +160,10 @@ public class ExplodedGraph {
      * @return the ordered (by insertion) sets of parents
      */
     public Set<Node> parents() {
-      return edges.keySet();
+      if (edges != null) {
+        return edges.keySet();
+      }
+      return singleEdge == null ? Collections.emptySet() : Collections.singleton(singleEdge.parent);
     }
 
     @Override
@@ -132,12 +187,28 @@ public class ExplodedGraph {
     }
 
     public Collection<Edge> edges() {
-      return edges.values();
+      if (edges != null) {
+        return edges.values();
+      }
+      return singleEdge == null ? Collections.emptyList() : Collections.singletonList(singleEdge);
     }
 
     public boolean isNew() {
       return isNew;
     }
+
+    /**
+     * Returns the flows of the given computation starting from this node, computing them unless they were already computed since the
+     * last edge added to the graph.
+     */
+    Set<Flow> flows(FlowComputation.Key key, Supplier<Set<Flow>> computation) {
+      Set<Flow> result = explodedGraph.flows.get(key);
+      if (result == null) {
+        result = computation.get();
+        explodedGraph.flows.put(key, result);
+      }
+      return result;
+    }
   }
 
   public static final class Edge {
@@ -23,15 +23,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
@@ -104,7 +103,7 @@ public class ExplodedGraphWalker {
   /**
    * Arbitrary number to limit symbolic execution.
    */
-  private static final int MAX_STEPS = 16_000;
+  static final int MAX_STEPS = 16_000;
   public static final int MAX_NESTED_BOOLEAN_STATES = 10_000;
   // would correspond to 10 parameters annotated with @Nullable
   private static final int MAX_STARTING_STATES = 1_024;
@@ -135,8 +134,9 @@ public class ExplodedGraphWalker {
 
   private ExplodedGraph explodedGraph;
 
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.DEPTH_FIRST;
   @VisibleForTesting
-  Deque<ExplodedGraph.Node> workList;
+  WorkList workList;
   ExplodedGraph.Node node;
   ProgramPoint programPosition;
   ProgramState programState;
@@ -149,6 +149,9 @@ public class ExplodedGraphWalker {
   private final BehaviorCache behaviorCache;
   @VisibleForTesting
   int steps;
+  private int maxSteps = MAX_STEPS;
+  private long timeoutInNanos = 0L;
+  private long startTime;
 
   ConstraintManager constraintManager;
   private boolean cleanup = true;
@@ -174,6 +177,13 @@ public class ExplodedGraphWalker {
     }
   }
 
+  public static class TimeoutReachedException extends MaximumStepsReachedException {
+
+    public TimeoutReachedException(String s) {
+      super(s);
+    }
+  }
+
   public static class TooManyNestedBooleanStatesException extends RuntimeException {
   }
 
@@ -201,12 +211,31 @@ public class ExplodedGraphWalker {
 
   @VisibleForTesting
   protected ExplodedGraphWalker(List<SECheck> seChecks, BehaviorCache behaviorCache, JavaFileScannerContext context) {
+    this(seChecks, CheckerDispatcher.checksByKind(seChecks), behaviorCache, context);
+  }
+
+  private ExplodedGraphWalker(List<SECheck> seChecks, Map<Tree.Kind, List<SECheck>> checksByKind, BehaviorCache behaviorCache,
+    JavaFileScannerContext context) {
     this.alwaysTrueOrFalseExpressionCollector = new AlwaysTrueOrFalseExpressionCollector();
-    this.checkerDispatcher = new CheckerDispatcher(this, seChecks, context);
+    this.checkerDispatcher = new CheckerDispatcher(this, seChecks, checksByKind, context);
     this.behaviorCache = behaviorCache;
     this.semanticModel = (Sema) context.getSemanticModel();
   }
 
+  private ExplodedGraphWalker(List<SECheck> seChecks, Map<Tree.Kind, List<SECheck>> checksByKind, BehaviorCache behaviorCache,
+    JavaFileScannerContext context, ExplorationStrategy explorationStrategy) {
+    this(seChecks, checksByKind, behaviorCache, context);
+    this.explorationStrategy = explorationStrategy;
+  }
+
+  /**
+   * Limits the exploration of the next methods to the given number of steps and, when it is positive, to the given time.
+   */
+  void setBudget(int maxSteps, long timeoutInNanos) {
+    this.maxSteps = maxSteps;
+    this.timeoutInNanos = timeoutInNanos;
+  }
+
   public MethodBehavior visitMethod(MethodTree tree) {
     return visitMethod(tree, null);
   }
@@ -239,17 +268,19 @@ public class ExplodedGraphWalker {
     explodedGraph = new ExplodedGraph();
     methodTree = tree;
     constraintManager = new ConstraintManager();
-    workList = new LinkedList<>();
+    workList = explorationStrategy.newWorkList(cfg);
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
-    programState = ProgramState.EMPTY_STATE;
+    programState = ProgramState.EMPTY_STATE.withConstraintsInterner(explodedGraph.constraintsInterner());
     steps = 0;
+    startTime = System.nanoTime();
     enqueueStartingStates(tree, cfg);
     while (!workList.isEmpty()) {
       steps++;
       throwExceptionIfMaxStepsHasBeenReached(tree);
-      // LIFO:
-      setNode(workList.removeFirst());
+      setNode(workList.pop());
+      // checked once the node is set, so that the interrupted checks always have a current node, even at the first step
+      throwExceptionIfTimeoutHasBeenReached(tree);
       CFG.Block block = (CFG.Block) programPosition.block;
       if (block.successors().isEmpty()) {
         endOfExecutionPath.add(node);
@@ -298,7 +329,7 @@ public class ExplodedGraphWalker {
 
   private void enqueueStartingStates(MethodTree tree, CFG cfg) {
     for (ProgramState startingState : startingStates(tree, programState)) {
-      enqueue(new ProgramPoint(cfg.entryBlock()), startingState);
+      enqueue(explodedGraph.programPoint(cfg.entryBlock()), startingState);
     }
   }
 
@@ -328,6 +359,17 @@ public class ExplodedGraphWalker {
     }
   }
 
+  private void throwExceptionIfTimeoutHasBeenReached(MethodTree tree) {
+    if (timeoutInNanos > 0 && System.nanoTime() - startTime > timeoutInNanos) {
+      String message = String.format("reached timeout of %d ms after %d steps for method %s#%d in class %s",
+        TimeUnit.NANOSECONDS.toMillis(timeoutInNanos), steps, tree.simpleName().name(), LineUtils.startLine(tree.simpleName()),
+        tree.symbol().owner().name());
+      TimeoutReachedException cause = new TimeoutReachedException(message);
+      interrupted(cause);
+      throw cause;
+    }
+  }
+
   private void interrupted(Exception cause) {
     handleEndOfExecutionPath(true);
     checkerDispatcher.interruptedExecution(cause);
@@ -490,17 +532,17 @@ public class ExplodedGraphWalker {
     // unconditional jumps, for-statement, synchronized:
     if (exitPath) {
       if (block.exitBlock() != null) {
-        enqueue(new ProgramPoint(block.exitBlock()), programState, true);
+        enqueue(explodedGraph.programPoint(block.exitBlock()), programState, true);
       } else {
         for (CFG.Block successor : block.successors()) {
-          enqueue(new ProgramPoint(successor), programState, true);
+          enqueue(explodedGraph.programPoint(successor), programState, true);
         }
       }
 
     } else {
       for (CFG.Block successor : block.successors()) {
         if (!block.isFinallyBlock() || isDirectFlowSuccessorOf(successor, block)) {
-          enqueue(new ProgramPoint(successor), programState, successor == block.exitBlock());
+          enqueue(explodedGraph.programPoint(successor), programState, successor == block.exitBlock());
         }
       }
     }
@@ -569,7 +611,7 @@ public class ExplodedGraphWalker {
       for (ProgramState.SymbolicValueSymbol caseValue : caseValues.get(caseGroup)) {
         SymbolicValue equality = constraintManager.createEquality(switchValue, caseValue);
         ProgramState ps = setConstraint(state, equality, BooleanConstraint.TRUE);
-        enqueue(new ProgramPoint(successor), ps, node.exitPath);
+        enqueue(explodedGraph.programPoint(successor), ps, node.exitPath);
         elseState = setConstraint(elseState, equality, BooleanConstraint.FALSE);
       }
       if (successor.isDefaultBlock()) {
@@ -579,7 +621,7 @@ public class ExplodedGraphWalker {
     }
     if (elseBlock != null) {
       // for a switch covering all items from an enum, there will be no elseState
-      enqueue(new ProgramPoint(elseBlock), elseState, node.exitPath);
+      enqueue(explodedGraph.programPoint(elseBlock), elseState, node.exitPath);
     }
   }
 
@@ -598,7 +640,7 @@ public class ExplodedGraphWalker {
 
   private void handleBranch(CFG.Block programPosition, Tree condition, boolean checkPath) {
     Pair<List<ProgramState>, List<ProgramState>> pair = constraintManager.assumeDual(programState);
-    ProgramPoint falseBlockProgramPoint = new ProgramPoint(programPosition.falseBlock());
+    ProgramPoint falseBlockProgramPoint = explodedGraph.programPoint(programPosition.falseBlock());
     for (ProgramState state : pair.a) {
       ProgramState ps = state;
       if (condition.parent().is(Tree.Kind.CONDITIONAL_AND) && !isConditionBranchingExpressionOrStatement(condition)) {
@@ -612,7 +654,7 @@ public class ExplodedGraphWalker {
         alwaysTrueOrFalseExpressionCollector.evaluatedToFalse(cleanupCondition((ExpressionTree) condition), node);
       }
     }
-    ProgramPoint trueBlockProgramPoint = new ProgramPoint(programPosition.trueBlock());
+    ProgramPoint trueBlockProgramPoint = explodedGraph.programPoint(programPosition.trueBlock());
     for (ProgramState state : pair.b) {
       ProgramState ps = state;
       if (condition.parent().is(Tree.Kind.CONDITIONAL_OR) && !isConditionBranchingExpressionOrStatement(condition)) {
@@ -897,14 +939,14 @@ public class ExplodedGraphWalker {
       .sorted((b1, b2) -> Integer.compare(b2.id(), b1.id()))
       .collect(Collectors.toList());
     if (!caughtBlocks.isEmpty()) {
-      caughtBlocks.forEach(b -> enqueue(new ProgramPoint(b), ps, methodYield));
+      caughtBlocks.forEach(b -> enqueue(explodedGraph.programPoint(b), ps, methodYield));
       return;
     }
 
     // branch to any unchecked exception catch
     catchBlocks.stream()
       .filter(ExplodedGraphWalker::isCatchingUncheckedException)
-      .forEach(b -> enqueue(new ProgramPoint(b), ps, methodYield));
+      .forEach(b -> enqueue(explodedGraph.programPoint(b), ps, methodYield));
 
     // store the exception as exit value in case of method exit in next block
     ps.storeExitValue();
@@ -921,10 +963,10 @@ public class ExplodedGraphWalker {
         .filter(CFG.Block::isMethodExitBlock)
         .findFirst()
         .orElse(exitBlock);
-      enqueue(new ProgramPoint(methodExit), ps, true, methodYield);
+      enqueue(explodedGraph.programPoint(methodExit), ps, true, methodYield);
     } else {
       var stateWithoutException = ps.unstackValue(1).state.withEntryException(exceptionSV);
-      otherBlocks.forEach(b -> enqueue(new ProgramPoint(b), stateWithoutException, true, methodYield));
+      otherBlocks.forEach(b -> enqueue(explodedGraph.programPoint(b), stateWithoutException, true, methodYield));
     }
   }
 
@@ -1260,7 +1302,7 @@ public class ExplodedGraphWalker {
     if (nbOfExecution > MAX_EXEC_PROGRAM_POINT) {
       if (isRestartingForEachLoop(programPoint)) {
         // reached the max number of visit by program point, so take the false branch with current program state
-        programPoint = new ProgramPoint(((CFG.Block) programPoint.block).falseBlock());
+        programPoint = explodedGraph.programPoint(((CFG.Block) programPoint.block).falseBlock());
       } else {
         return;
       }
@@ -1275,7 +1317,7 @@ public class ExplodedGraphWalker {
     }
     cachedNode.exitPath = exitPath;
     cachedNode.addParent(node, methodYield);
-    workList.addFirst(cachedNode);
+    workList.push(cachedNode);
   }
 
   private static boolean isRestartingForEachLoop(ProgramPoint programPoint) {
@@ -1293,7 +1335,16 @@ public class ExplodedGraphWalker {
 
   @VisibleForTesting
   protected int maxSteps() {
-    return MAX_STEPS;
+    return maxSteps;
+  }
+
+  int explodedGraphSize() {
+    return explodedGraph == null ? 0 : explodedGraph.nodes().size();
+  }
+
+  @CheckForNull
+  ExplodedGraph explodedGraph() {
+    return explodedGraph;
   }
 
   AlwaysTrueOrFalseExpressionCollector alwaysTrueOrFalseExpressionCollector() {
@@ -1309,8 +1360,15 @@ public class ExplodedGraphWalker {
 
     @VisibleForTesting
     final List<SECheck> seChecks = new ArrayList<>();
+    private final Map<Tree.Kind, List<SECheck>> checksByKind;
+    private final ExplorationStrategy explorationStrategy;
 
     public ExplodedGraphWalkerFactory(List<SECheck> activeSEChecks) {
+      this(activeSEChecks, ExplorationStrategy.DEPTH_FIRST);
+    }
+
+    public ExplodedGraphWalkerFactory(List<SECheck> activeSEChecks, ExplorationStrategy explorationStrategy) {
+      this.explorationStrategy = explorationStrategy;
       List<SECheck> checks = new ArrayList<>(activeSEChecks);
 
       // This order of the mandatory SE checks is required by the ExplodedGraphWalker
@@ -1325,10 +1383,11 @@ public class ExplodedGraphWalker {
       seChecks.add(removeOrDefault(checks, new RedundantAssignmentsCheck()));
 
       seChecks.addAll(checks);
+      checksByKind = CheckerDispatcher.checksByKind(seChecks);
     }
 
     public ExplodedGraphWalker createWalker(BehaviorCache behaviorCache, JavaFileScannerContext context) {
-      return new ExplodedGraphWalker(seChecks, behaviorCache, context);
+      return new ExplodedGraphWalker(seChecks, checksByKind, behaviorCache, context, explorationStrategy);
     }
 
     @SuppressWarnings("unchecked")
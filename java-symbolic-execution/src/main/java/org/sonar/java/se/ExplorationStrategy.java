@@ -0,0 +1,79 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.Locale;
+import org.sonar.java.cfg.CFG;
+
+/**
+ * Order in which the nodes of the exploded graph are explored.
+ */
+public enum ExplorationStrategy {
+
+  /**
+   * The last enqueued node is explored first: a path is explored until its end before switching to another one.
+   */
+  DEPTH_FIRST {
+    @Override
+    WorkList newWorkList(CFG cfg) {
+      return new WorkList.Lifo();
+    }
+  },
+
+  /**
+   * The first enqueued node is explored first: all the paths progress together, one step at a time.
+   * Beyond {@link #MAX_BREADTH_FIRST_NODES} waiting nodes, the exploration continues depth first.
+   */
+  BREADTH_FIRST {
+    @Override
+    WorkList newWorkList(CFG cfg) {
+      return new WorkList.Fifo(MAX_BREADTH_FIRST_NODES);
+    }
+  },
+
+  /**
+   * The nodes of the blocks coming first in reverse post-order of the CFG are explored first, so that the paths reaching a join point
+   * arrive there together before going further, and share their nodes once their program states are the same.
+   * Nodes of the same block are explored depth first.
+   */
+  REVERSE_POST_ORDER {
+    @Override
+    WorkList newWorkList(CFG cfg) {
+      return new WorkList.ByBlockOrder(cfg);
+    }
+  };
+
+  static final int MAX_BREADTH_FIRST_NODES = 1_000;
+
+  abstract WorkList newWorkList(CFG cfg);
+
+  /**
+   * @return the strategy with the given name, case insensitive, or {@link #DEPTH_FIRST} for unknown names.
+   */
+  public static ExplorationStrategy fromName(String name) {
+    for (ExplorationStrategy strategy : values()) {
+      if (strategy.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+        return strategy;
+      }
+    }
+    return DEPTH_FIRST;
+  }
+
+}
@@ -127,12 +127,24 @@ public class FlowComputation {
   }
 
   public static Set<Flow> flow(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, List<Class<? extends Constraint>> domains, int maxReturnedFlows) {
-    return flow(currentNode, setFromNullable(currentVal), constraint -> true, c -> false, domains, Collections.emptySet(), false, maxReturnedFlows);
+    return flowOfAllConstraints(currentNode, setFromNullable(currentVal), domains, Collections.emptySet(), maxReturnedFlows);
   }
 
   public static Set<Flow> flow(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, List<Class<? extends Constraint>> domains, @Nullable Symbol trackSymbol,
     int maxReturnedFlows) {
-    return flow(currentNode, setFromNullable(currentVal), c -> true, c -> false, domains, setFromNullable(trackSymbol), false, maxReturnedFlows);
+    return flowOfAllConstraints(currentNode, setFromNullable(currentVal), domains, setFromNullable(trackSymbol), maxReturnedFlows);
+  }
+
+  /**
+   * Flows adding all the constraints of the given domains, shared by the issues reported from the same node on the same values as long as
+   * the graph does not change. The flows of the other computations depend on predicates, which can not be compared.
+   */
+  private static Set<Flow> flowOfAllConstraints(ExplodedGraph.Node currentNode, Set<SymbolicValue> symbolicValues, List<Class<? extends Constraint>> domains,
+    Set<Symbol> symbols, int maxReturnedFlows) {
+    Key key = new Key(currentNode, symbolicValues, domains, symbols, maxReturnedFlows);
+    Set<Flow> flows = currentNode.flows(key, () -> flow(currentNode, symbolicValues, c -> true, c -> false, domains, symbols, false, maxReturnedFlows));
+    // the returned set can be modified by the caller
+    return new HashSet<>(flows);
   }
 
   public static Set<Flow> flowWithoutExceptions(ExplodedGraph.Node currentNode, @Nullable SymbolicValue currentVal, Predicate<Constraint> addToFlow,
@@ -169,6 +181,45 @@ public class FlowComputation {
     return flowComputation.run(currentNode, trackedSymbols);
   }
 
+  static final class Key {
+    private final ExplodedGraph.Node node;
+    private final Set<SymbolicValue> symbolicValues;
+    private final List<Class<? extends Constraint>> domains;
+    private final Set<Symbol> symbols;
+    private final int maxReturnedFlows;
+    private final int hashCode;
+
+    Key(ExplodedGraph.Node node, Set<SymbolicValue> symbolicValues, List<Class<? extends Constraint>> domains, Set<Symbol> symbols, int maxReturnedFlows) {
+      this.node = node;
+      this.symbolicValues = symbolicValues;
+      this.domains = domains;
+      this.symbols = symbols;
+      this.maxReturnedFlows = maxReturnedFlows;
+      this.hashCode = Objects.hash(node, symbolicValues, domains, symbols, maxReturnedFlows);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return maxReturnedFlows == other.maxReturnedFlows
+        && node.equals(other.node)
+        && symbolicValues.equals(other.symbolicValues)
+        && domains.equals(other.domains)
+        && symbols.equals(other.symbols);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
   private static <T> Set<T> setFromNullable(@Nullable T val) {
     return val == null ? Collections.emptySet() : Collections.singleton(val);
   }
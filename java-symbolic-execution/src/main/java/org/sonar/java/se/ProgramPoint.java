@@ -30,6 +30,7 @@ public class ProgramPoint {
   private final int hashcode;
   public final CFG.IBlock<?> block;
   public final int i;
+  private ProgramPoint next;
 
   public ProgramPoint(CFG.IBlock<?> block) {
     this(block, 0);
@@ -48,8 +49,10 @@ public class ProgramPoint {
   }
 
   public ProgramPoint next() {
-    int nextPP = this.i + 1;
-    return new ProgramPoint(block, nextPP);
+    if (next == null) {
+      next = new ProgramPoint(block, i + 1);
+    }
+    return next;
   }
 
   @Override
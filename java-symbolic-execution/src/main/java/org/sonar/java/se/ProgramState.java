@@ -131,6 +131,7 @@ public class ProgramState {
         PCollections.emptyMap(),
     PCollections.emptyStack(),
     null,
+    null,
     null);
 
   private final PMap<ProgramPoint, Integer> visitedPoints;
@@ -142,11 +143,14 @@ public class ProgramState {
   final PMap<Symbol, SymbolicValue> values;
   final PMap<Integer, SymbolicValue> valuesByIndex;
   final PMap<SymbolicValue, ConstraintsByDomain> constraints;
+  // shares the constraints of the states of the same exploded graph, not part of the state
+  @Nullable
+  private final ConstraintsByDomain.Interner constraintsInterner;
 
   private ProgramState(PMap<Symbol, SymbolicValue> values,PMap<Integer, SymbolicValue> valuesByIndex, PMap<SymbolicValue, Integer> references,
                        PMap<SymbolicValue, ConstraintsByDomain> constraints, PMap<ProgramPoint, Integer> visitedPoints,
                        PStack<SymbolicValueSymbol> stack, SymbolicValue exitSymbolicValue,
-                       @Nullable SymbolicValue.ExceptionalSymbolicValue entryException) {
+                       @Nullable SymbolicValue.ExceptionalSymbolicValue entryException, @Nullable ConstraintsByDomain.Interner constraintsInterner) {
     this.values = values;
     this.valuesByIndex = valuesByIndex;
     this.references = references;
@@ -155,13 +159,14 @@ public class ProgramState {
     this.stack = stack;
     this.exitSymbolicValue = exitSymbolicValue;
     this.entryException = entryException;
+    this.constraintsInterner = constraintsInterner;
     constraintSize = 3;
   }
 
   private ProgramState(PMap<Symbol, SymbolicValue> values, PMap<SymbolicValue, Integer> references,
                        PMap<SymbolicValue, ConstraintsByDomain> constraints, PMap<ProgramPoint, Integer> visitedPoints,
                        PStack<SymbolicValueSymbol> stack, SymbolicValue exitSymbolicValue,
-                       @Nullable SymbolicValue.ExceptionalSymbolicValue entryException) {
+                       @Nullable SymbolicValue.ExceptionalSymbolicValue entryException, @Nullable ConstraintsByDomain.Interner constraintsInterner) {
     this.values = values;
     this.valuesByIndex = PCollections.emptyMap();
     this.references = references;
@@ -170,6 +175,7 @@ public class ProgramState {
     this.stack = stack;
     this.exitSymbolicValue = exitSymbolicValue;
     this.entryException = entryException;
+    this.constraintsInterner = constraintsInterner;
     constraintSize = 3;
   }
 
@@ -183,6 +189,7 @@ public class ProgramState {
     exitSymbolicValue = ps.exitSymbolicValue;
     stack = newStack;
     entryException = ps.entryException;
+    constraintsInterner = ps.constraintsInterner;
   }
 
   private ProgramState(ProgramState ps, PMap<SymbolicValue, ConstraintsByDomain> newConstraints) {
@@ -195,10 +202,18 @@ public class ProgramState {
     exitSymbolicValue = ps.exitSymbolicValue;
     stack = ps.stack;
     entryException = ps.entryException;
+    constraintsInterner = ps.constraintsInterner;
   }
 
   public ProgramState withEntryException(@Nullable SymbolicValue.ExceptionalSymbolicValue exception) {
-    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints, stack, exitSymbolicValue, exception);
+    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints, stack, exitSymbolicValue, exception, constraintsInterner);
+  }
+
+  /**
+   * @return the same state, whose new constraints are shared through the given table.
+   */
+  public ProgramState withConstraintsInterner(ConstraintsByDomain.Interner interner) {
+    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints, stack, exitSymbolicValue, entryException, interner);
   }
 
   @CheckForNull
@@ -274,7 +289,9 @@ public class ProgramState {
       return false;
     }
     ProgramState that = (ProgramState) o;
-    return Objects.equals(values, that.values) &&
+    // the hash code is computed once per state: comparing it first avoids walking the maps of most different states
+    return hashCode() == that.hashCode() &&
+      Objects.equals(values, that.values) &&
       Objects.equals(constraints, that.constraints) &&
       Objects.equals(exitSymbolicValue, that.exitSymbolicValue) &&
       Objects.equals(stack, that.stack);
@@ -327,7 +344,7 @@ public class ProgramState {
   }
 
   public ProgramState addConstraints(SymbolicValue symbolicValue, ConstraintsByDomain constraintsForSV) {
-    PMap<SymbolicValue, ConstraintsByDomain> newConstraints = constraints.put(symbolicValue, constraintsForSV);
+    PMap<SymbolicValue, ConstraintsByDomain> newConstraints = constraints.put(symbolicValue, intern(constraintsForSV));
     if (newConstraints != constraints) {
       return new ProgramState(this, newConstraints);
     }
@@ -346,6 +363,10 @@ public class ProgramState {
     return addConstraints(sv, newConstraintForSv);
   }
 
+  private ConstraintsByDomain intern(ConstraintsByDomain constraintsForSV) {
+    return constraintsInterner == null ? constraintsForSV : constraintsInterner.intern(constraintsForSV);
+  }
+
   /**
    * To be used only by the ExplodedGraphWalker only, when manipulating program states.
    * Only made 'public' because of some method yield tests.
@@ -363,7 +384,7 @@ public class ProgramState {
       }
       newReferences = increaseReference(newReferences, value);
       PMap<Symbol, SymbolicValue> newValues = values.put(symbol, value);
-      return new ProgramState(newValues, newReferences, constraints, visitedPoints, stack, exitSymbolicValue, entryException);
+      return new ProgramState(newValues, newReferences, constraints, visitedPoints, stack, exitSymbolicValue, entryException, constraintsInterner);
     }
     return this;
   }
@@ -426,7 +447,7 @@ public class ProgramState {
     values.forEach(cleanAction);
     return cleanAction.newProgramState ?
       new ProgramState(cleanAction.newValues, cleanAction.newReferences, cleanAction.newConstraints, visitedPoints, stack,
-        exitSymbolicValue, entryException)
+        exitSymbolicValue, entryException, constraintsInterner)
       : this;
   }
 
@@ -448,7 +469,7 @@ public class ProgramState {
             if (removed.isEmpty()) {
               newConstraints = newConstraints.remove(symbolicValue);
             } else {
-              newConstraints = newConstraints.put(symbolicValue, removed);
+              newConstraints = newConstraints.put(symbolicValue, intern(removed));
             }
             newReferences = newReferences.remove(symbolicValue);
           }
@@ -457,8 +478,8 @@ public class ProgramState {
     }
     CleanAction cleanAction = new CleanAction();
     constraints.forEach(cleanAction);
-    return cleanAction.newProgramState ? new ProgramState(values, cleanAction.newReferences, cleanAction.newConstraints, visitedPoints, stack, exitSymbolicValue, entryException
-    ) : this;
+    return cleanAction.newProgramState ? new ProgramState(values, cleanAction.newReferences, cleanAction.newConstraints, visitedPoints, stack, exitSymbolicValue, entryException,
+      constraintsInterner) : this;
   }
 
   ProgramState resetFieldValues(ConstraintManager constraintManager, boolean resetOnlyStaticFields) {
@@ -489,7 +510,8 @@ public class ProgramState {
   }
 
   public ProgramState visitedPoint(ProgramPoint programPoint, int nbOfVisit) {
-    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints.put(programPoint, nbOfVisit), stack, exitSymbolicValue, entryException);
+    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints.put(programPoint, nbOfVisit), stack, exitSymbolicValue, entryException,
+      constraintsInterner);
   }
 
   @Nullable
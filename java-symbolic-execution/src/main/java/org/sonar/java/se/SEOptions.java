@@ -0,0 +1,153 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.io.File;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.se.xproc.LibraryMethodBehaviors;
+
+/**
+ * Options of the symbolic execution, read from the configuration of the analysis by {@link #from(SonarComponents)}.
+ */
+public final class SEOptions {
+
+  public static final SEOptions DEFAULT = builder().build();
+
+  private static final String LIBRARY_BEHAVIORS_DIRECTORY = "se-library-behaviors";
+
+  private final boolean shareBehaviorsAcrossFiles;
+  private final ExplorationStrategy explorationStrategy;
+  @Nullable
+  private final LibraryMethodBehaviors libraryBehaviors;
+  private final SymbolicExecutionBudget budget;
+  @Nullable
+  private final SymbolicExecutionReport report;
+
+  private SEOptions(Builder builder) {
+    this.shareBehaviorsAcrossFiles = builder.shareBehaviorsAcrossFiles;
+    this.explorationStrategy = builder.explorationStrategy;
+    this.libraryBehaviors = builder.libraryBehaviors;
+    this.budget = builder.budget;
+    this.report = builder.report;
+  }
+
+  public static SEOptions from(SonarComponents sonarComponents) {
+    Builder builder = builder()
+      .shareBehaviorsAcrossFiles(sonarComponents.shouldShareMethodBehaviors())
+      .explorationStrategy(ExplorationStrategy.fromName(sonarComponents.symbolicExecutionStrategy()))
+      .budget(new SymbolicExecutionBudget(
+        sonarComponents.symbolicExecutionMethodMaxSteps(),
+        sonarComponents.symbolicExecutionMethodTimeoutInMs(),
+        sonarComponents.symbolicExecutionFileMaxSteps(),
+        sonarComponents.symbolicExecutionFileTimeoutInMs()));
+    if (sonarComponents.shouldComputeLibraryMethodBehaviors()) {
+      File cacheDirectory = new File(sonarComponents.projectLevelWorkDir(), LIBRARY_BEHAVIORS_DIRECTORY);
+      builder.libraryBehaviors(new LibraryMethodBehaviors(sonarComponents.getJavaClasspath(), cacheDirectory));
+    }
+    if (sonarComponents.shouldReportAbortedSymbolicExecutions()) {
+      builder.report(new SymbolicExecutionReport());
+    }
+    return builder.build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * When true, the completed behaviors of the methods which can not be overridden are kept once their file is analyzed, and stored in
+   * the server-side cache, to be used for the invocations of these methods from other files.
+   */
+  public boolean shareBehaviorsAcrossFiles() {
+    return shareBehaviorsAcrossFiles;
+  }
+
+  public ExplorationStrategy explorationStrategy() {
+    return explorationStrategy;
+  }
+
+  /**
+   * See {@link org.sonar.java.se.xproc.BehaviorCache#BehaviorCache(LibraryMethodBehaviors)}
+   */
+  @CheckForNull
+  public LibraryMethodBehaviors libraryBehaviors() {
+    return libraryBehaviors;
+  }
+
+  /**
+   * Limits the exploration of the methods of each file.
+   */
+  public SymbolicExecutionBudget budget() {
+    return budget;
+  }
+
+  /**
+   * When not null, collects the methods whose exploration is aborted, or skipped because the budget of their file is exhausted.
+   */
+  @CheckForNull
+  public SymbolicExecutionReport report() {
+    return report;
+  }
+
+  public static final class Builder {
+    private boolean shareBehaviorsAcrossFiles = false;
+    private ExplorationStrategy explorationStrategy = ExplorationStrategy.DEPTH_FIRST;
+    @Nullable
+    private LibraryMethodBehaviors libraryBehaviors = null;
+    private SymbolicExecutionBudget budget = SymbolicExecutionBudget.DEFAULT;
+    @Nullable
+    private SymbolicExecutionReport report = null;
+
+    private Builder() {
+    }
+
+    public Builder shareBehaviorsAcrossFiles(boolean shareBehaviorsAcrossFiles) {
+      this.shareBehaviorsAcrossFiles = shareBehaviorsAcrossFiles;
+      return this;
+    }
+
+    public Builder explorationStrategy(ExplorationStrategy explorationStrategy) {
+      this.explorationStrategy = explorationStrategy;
+      return this;
+    }
+
+    public Builder libraryBehaviors(@Nullable LibraryMethodBehaviors libraryBehaviors) {
+      this.libraryBehaviors = libraryBehaviors;
+      return this;
+    }
+
+    public Builder budget(SymbolicExecutionBudget budget) {
+      this.budget = budget;
+      return this;
+    }
+
+    public Builder report(@Nullable SymbolicExecutionReport report) {
+      this.report = report;
+      return this;
+    }
+
+    public SEOptions build() {
+      return new SEOptions(this);
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the symbolic execution of the methods of a file, in number of steps and in time. A method exceeding its budget is aborted, like
+ * a method reaching the default maximum number of steps. Once the budget of a file is exhausted, its remaining methods are not explored,
+ * and the issues already found in the file are kept.
+ */
+public final class SymbolicExecutionBudget {
+
+  public static final SymbolicExecutionBudget DEFAULT = new SymbolicExecutionBudget(ExplodedGraphWalker.MAX_STEPS, 0L, 0L, 0L);
+
+  private final int maxStepsPerMethod;
+  private final long methodTimeoutInNanos;
+  private final long maxStepsPerFile;
+  private final long fileTimeoutInNanos;
+
+  /**
+   * @param maxStepsPerMethod maximum number of steps to explore a method, the default maximum is used when not positive
+   * @param methodTimeoutInMs maximum time to explore a method, no limit when not positive
+   * @param maxStepsPerFile   maximum number of steps to explore all the methods of a file, no limit when not positive
+   * @param fileTimeoutInMs   maximum time to explore all the methods of a file, no limit when not positive
+   */
+  public SymbolicExecutionBudget(int maxStepsPerMethod, long methodTimeoutInMs, long maxStepsPerFile, long fileTimeoutInMs) {
+    this.maxStepsPerMethod = maxStepsPerMethod > 0 ? maxStepsPerMethod : ExplodedGraphWalker.MAX_STEPS;
+    this.methodTimeoutInNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, methodTimeoutInMs));
+    this.maxStepsPerFile = Math.max(0L, maxStepsPerFile);
+    this.fileTimeoutInNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, fileTimeoutInMs));
+  }
+
+  FileBudget startFile() {
+    return new FileBudget(System.nanoTime());
+  }
+
+  /**
+   * Budget of a file, consumed by the exploration of its methods.
+   */
+  final class FileBudget {
+
+    private final long start;
+    private long steps = 0L;
+
+    private FileBudget(long start) {
+      this.start = start;
+    }
+
+    boolean isExhausted() {
+      return (maxStepsPerFile > 0 && steps >= maxStepsPerFile)
+        || (fileTimeoutInNanos > 0 && System.nanoTime() - start >= fileTimeoutInNanos);
+    }
+
+    int maxStepsOfNextMethod() {
+      if (maxStepsPerFile == 0) {
+        return maxStepsPerMethod;
+      }
+      return (int) Math.max(1L, Math.min(maxStepsPerMethod, maxStepsPerFile - steps));
+    }
+
+    /**
+     * @return the time left to explore the next method, 0 when it is not limited
+     */
+    long timeoutOfNextMethodInNanos() {
+      if (fileTimeoutInNanos == 0) {
+        return methodTimeoutInNanos;
+      }
+      long fileTimeLeft = Math.max(1L, fileTimeoutInNanos - (System.nanoTime() - start));
+      return methodTimeoutInNanos == 0 ? fileTimeLeft : Math.min(methodTimeoutInNanos, fileTimeLeft);
+    }
+
+    void consume(int methodSteps) {
+      steps += methodSteps;
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the methods whose symbolic execution was aborted or skipped during an analysis, the number of explorations and of steps
+ * of each {@link ExplorationStrategy}, and the number of constraints shared by the program states, to be written as a JSON report. It helps to tune the budget of the symbolic execution, see
+ * {@link SymbolicExecutionBudget}.
+ */
+public class SymbolicExecutionReport {
+
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+  public enum Cause {
+    MAX_STEPS,
+    TIMEOUT,
+    EXPLODED_GRAPH_TOO_BIG,
+    MAX_STARTING_STATES,
+    FILE_BUDGET_EXHAUSTED
+  }
+
+  private final List<AbortedMethod> abortedMethods = new ArrayList<>();
+  private final Map<ExplorationStrategy, Explorations> explorationsByStrategy = new EnumMap<>(ExplorationStrategy.class);
+  private long internedConstraintsCount = 0L;
+  private long sharedConstraintsCount = 0L;
+
+  synchronized void add(AbortedMethod abortedMethod) {
+    abortedMethods.add(abortedMethod);
+  }
+
+  synchronized void addExploration(ExplorationStrategy strategy, int steps, boolean aborted) {
+    explorationsByStrategy.computeIfAbsent(strategy, s -> new Explorations()).add(steps, aborted);
+  }
+
+  /**
+   * @see org.sonar.java.se.constraint.ConstraintsByDomain.Interner
+   */
+  synchronized void addConstraints(long interned, long shared) {
+    internedConstraintsCount += interned;
+    sharedConstraintsCount += shared;
+  }
+
+  public synchronized List<AbortedMethod> abortedMethods() {
+    return Collections.unmodifiableList(new ArrayList<>(abortedMethods));
+  }
+
+  public synchronized Map<ExplorationStrategy, Explorations> explorationsByStrategy() {
+    Map<ExplorationStrategy, Explorations> copy = new EnumMap<>(ExplorationStrategy.class);
+    explorationsByStrategy.forEach((strategy, explorations) -> copy.put(strategy, explorations.copy()));
+    return Collections.unmodifiableMap(copy);
+  }
+
+  public synchronized long internedConstraintsCount() {
+    return internedConstraintsCount;
+  }
+
+  public synchronized long sharedConstraintsCount() {
+    return sharedConstraintsCount;
+  }
+
+  public void write(Path path) throws IOException {
+    Report report = new Report(abortedMethods(), explorationsByStrategy(), internedConstraintsCount(), sharedConstraintsCount());
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      GSON.toJson(report, writer);
+    }
+  }
+
+  private static final class Report {
+    private final int abortedMethodCount;
+    private final Map<ExplorationStrategy, Explorations> explorationsByStrategy;
+    private final long internedConstraintsCount;
+    private final long sharedConstraintsCount;
+    private final List<AbortedMethod> abortedMethods;
+
+    private Report(List<AbortedMethod> abortedMethods, Map<ExplorationStrategy, Explorations> explorationsByStrategy,
+      long internedConstraintsCount, long sharedConstraintsCount) {
+      this.abortedMethodCount = abortedMethods.size();
+      this.explorationsByStrategy = explorationsByStrategy;
+      this.internedConstraintsCount = internedConstraintsCount;
+      this.sharedConstraintsCount = sharedConstraintsCount;
+      this.abortedMethods = abortedMethods;
+    }
+  }
+
+  /**
+   * Methods explored with a strategy, including the aborted ones, and their total number of steps.
+   */
+  public static final class Explorations {
+    private int methodCount;
+    private int abortedMethodCount;
+    private long steps;
+
+    private void add(int steps, boolean aborted) {
+      methodCount++;
+      if (aborted) {
+        abortedMethodCount++;
+      }
+      this.steps += steps;
+    }
+
+    private Explorations copy() {
+      Explorations copy = new Explorations();
+      copy.methodCount = methodCount;
+      copy.abortedMethodCount = abortedMethodCount;
+      copy.steps = steps;
+      return copy;
+    }
+
+    public int methodCount() {
+      return methodCount;
+    }
+
+    public int abortedMethodCount() {
+      return abortedMethodCount;
+    }
+
+    public long steps() {
+      return steps;
+    }
+  }
+
+  public static final class AbortedMethod {
+    private final String file;
+    private final String method;
+    private final int line;
+    private final Cause cause;
+    private final String message;
+    private final int steps;
+    private final int explodedGraphSize;
+    private final long durationInMs;
+
+    AbortedMethod(String file, String method, int line, Cause cause, String message, int steps, int explodedGraphSize, long durationInMs) {
+      this.file = file;
+      this.method = method;
+      this.line = line;
+      this.cause = cause;
+      this.message = message;
+      this.steps = steps;
+      this.explodedGraphSize = explodedGraphSize;
+      this.durationInMs = durationInMs;
+    }
+
+    public String file() {
+      return file;
+    }
+
+    public String method() {
+      return method;
+    }
+
+    public int line() {
+      return line;
+    }
+
+    public Cause cause() {
+      return cause;
+    }
+
+    public String message() {
+      return message;
+    }
+
+    public int steps() {
+      return steps;
+    }
+
+    public int explodedGraphSize() {
+      return explodedGraphSize;
+    }
+
+    public long durationInMs() {
+      return durationInMs;
+    }
+  }
+}
@@ -23,36 +23,86 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.UnsharedTreeWalk;
 import org.sonar.java.model.JUtils;
+import org.sonar.java.model.LineUtils;
 import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
 import org.sonar.java.se.xproc.BehaviorCache;
 import org.sonar.java.se.xproc.MethodBehavior;
+import org.sonar.java.se.xproc.MethodBehaviorSummaryCache;
+import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonarsource.performance.measure.PerformanceMeasure;
 
-public class SymbolicExecutionVisitor extends SubscriptionVisitor {
+public class SymbolicExecutionVisitor extends SubscriptionVisitor implements EndOfAnalysis, UnsharedTreeWalk {
   private static final Logger LOG = LoggerFactory.getLogger(SymbolicExecutionVisitor.class);
 
   @VisibleForTesting
   public final BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  private final SEOptions options;
+  private final ExplorationStrategy explorationStrategy;
+  private final SymbolicExecutionBudget budget;
+  @Nullable
+  private final SymbolicExecutionReport report;
+  private SymbolicExecutionBudget.FileBudget fileBudget;
+  private int abortedMethodCount = 0;
+  private int skippedMethodCount = 0;
+  private long internedConstraintsCount = 0L;
+  private long sharedConstraintsCount = 0L;
 
   public SymbolicExecutionVisitor(List<SECheck> seChecks) {
-    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(seChecks);
-    this.behaviorCache = new BehaviorCache();
+    this(seChecks, SEOptions.DEFAULT);
+  }
+
+  public SymbolicExecutionVisitor(List<SECheck> seChecks, SEOptions options) {
+    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(seChecks, options.explorationStrategy());
+    this.behaviorCache = new BehaviorCache(options.libraryBehaviors());
+    this.options = options;
+    this.explorationStrategy = options.explorationStrategy();
+    this.budget = options.budget();
+    this.report = options.report();
+    this.fileBudget = budget.startFile();
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.cleanup();
     behaviorCache.setFileContext(this);
+    fileBudget = budget.startFile();
     super.scanFile(context);
+    if (options.shareBehaviorsAcrossFiles()) {
+      List<MethodBehavior> summaries = behaviorCache.completedSummaries();
+      behaviorCache.addSummaries(summaries);
+      new MethodBehaviorSummaryCache(context.getCacheContext()).write(context.getInputFile(), summaries);
+    }
+  }
+
+  /**
+   * The behaviors of the unchanged files are read from the server-side cache, to be used for the invocations from the other files
+   * without exploring these files again.
+   */
+  @Override
+  public boolean scanWithoutParsing(InputFileScannerContext context) {
+    if (options.shareBehaviorsAcrossFiles()) {
+      List<MethodBehavior> previousSummaries = new MethodBehaviorSummaryCache(context.getCacheContext()).readPrevious(context.getInputFile());
+      if (previousSummaries != null) {
+        behaviorCache.addSummaries(previousSummaries);
+      }
+    }
+    return true;
   }
 
   @Override
@@ -62,11 +112,29 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
 
   @Override
   public void visitNode(Tree tree) {
-    execute((MethodTree) tree);
+    MethodTree methodTree = (MethodTree) tree;
+    if (fileBudget.isExhausted()) {
+      if (methodTree.block() != null) {
+        skippedMethodCount++;
+        PerformanceMeasure.start("SkippedByFileBudget").stop();
+        reportAbortedMethod(methodTree, SymbolicExecutionReport.Cause.FILE_BUDGET_EXHAUSTED, "budget of the file exhausted", 0, 0, 0L);
+      }
+      return;
+    }
+    execute(methodTree);
   }
 
   public void execute(MethodTree methodTree) {
+    if (fileBudget.isExhausted()) {
+      // the behaviors of the methods which are not explored are unknown to their callers
+      return;
+    }
     ExplodedGraphWalker walker = getWalker();
+    walker.setBudget(fileBudget.maxStepsOfNextMethod(), fileBudget.timeoutOfNextMethodInNanos());
+    long start = System.nanoTime();
+    boolean aborted = false;
+    // the number of explorations and of aborted explorations of each strategy are reported in the performance measure report
+    PerformanceMeasure.Duration explorationDuration = PerformanceMeasure.start(explorationStrategy.name());
     try {
       Symbol.MethodSymbol methodSymbol = methodTree.symbol();
       if (methodCanNotBeOverriden(methodSymbol)) {
@@ -78,9 +146,13 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       } else {
         walker.visitMethod(methodTree);
       }
+      LOG.trace("Explored method {} in {} steps", methodTree.simpleName().name(), walker.steps);
     } catch (ExplodedGraphWalker.MaximumStepsReachedException
       | ExplodedGraphWalker.ExplodedGraphTooBigException
       | ExplodedGraphWalker.MaximumStartingStatesException exception) {
+      aborted = true;
+      abortedMethodCount++;
+      PerformanceMeasure.start("Aborted").stop();
       LOG.debug("Could not complete symbolic execution: {}", exception.getMessage());
       if (LOG.isTraceEnabled()) {
         StringWriter sw = new StringWriter();
@@ -90,7 +162,80 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       if (walker.methodBehavior != null) {
         walker.methodBehavior.visited();
       }
+      reportAbortedMethod(methodTree, causeOf(exception), exception.getMessage(), walker.steps, walker.explodedGraphSize(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } finally {
+      fileBudget.consume(walker.steps);
+      countConstraints(walker.explodedGraph());
+      explorationDuration.stop();
+      if (report != null) {
+        report.addExploration(explorationStrategy, walker.steps, aborted);
+      }
+    }
+  }
+
+  private void countConstraints(@Nullable ExplodedGraph explodedGraph) {
+    if (explodedGraph != null) {
+      ConstraintsByDomain.Interner interner = explodedGraph.constraintsInterner();
+      internedConstraintsCount += interner.internedCount();
+      sharedConstraintsCount += interner.sharedCount();
+      if (report != null) {
+        report.addConstraints(interner.internedCount(), interner.sharedCount());
+      }
+    }
+  }
+
+  private static SymbolicExecutionReport.Cause causeOf(RuntimeException exception) {
+    if (exception instanceof ExplodedGraphWalker.TimeoutReachedException) {
+      return SymbolicExecutionReport.Cause.TIMEOUT;
+    }
+    if (exception instanceof ExplodedGraphWalker.MaximumStepsReachedException) {
+      return SymbolicExecutionReport.Cause.MAX_STEPS;
+    }
+    if (exception instanceof ExplodedGraphWalker.ExplodedGraphTooBigException) {
+      return SymbolicExecutionReport.Cause.EXPLODED_GRAPH_TOO_BIG;
     }
+    return SymbolicExecutionReport.Cause.MAX_STARTING_STATES;
+  }
+
+  private void reportAbortedMethod(MethodTree methodTree, SymbolicExecutionReport.Cause cause, String message, int steps,
+    int explodedGraphSize, long durationInMs) {
+    if (report != null) {
+      report.add(new SymbolicExecutionReport.AbortedMethod(String.valueOf(context.getInputFile()), methodTree.symbol().signature(),
+        LineUtils.startLine(methodTree.simpleName()), cause, message, steps, explodedGraphSize, durationInMs));
+    }
+  }
+
+  @Override
+  public void endOfAnalysis(ModuleScannerContext moduleContext) {
+    behaviorCache.clearSummaries();
+    if (abortedMethodCount > 0 || skippedMethodCount > 0) {
+      LOG.debug("Symbolic execution aborted for {} method(s), and skipped for {} method(s) once the budget of their file was exhausted.",
+        abortedMethodCount, skippedMethodCount);
+    }
+    if (internedConstraintsCount > 0) {
+      LOG.debug("Symbolic execution constraints: {} interned, {} shared.", internedConstraintsCount, sharedConstraintsCount);
+    }
+  }
+
+  @VisibleForTesting
+  int abortedMethodCount() {
+    return abortedMethodCount;
+  }
+
+  @VisibleForTesting
+  int skippedMethodCount() {
+    return skippedMethodCount;
+  }
+
+  @VisibleForTesting
+  long internedConstraintsCount() {
+    return internedConstraintsCount;
+  }
+
+  @VisibleForTesting
+  long sharedConstraintsCount() {
+    return sharedConstraintsCount;
   }
 
   @VisibleForTesting
@@ -0,0 +1,187 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.sonar.java.cfg.CFG;
+
+/**
+ * Nodes of the exploded graph waiting to be explored, in the order defined by an {@link ExplorationStrategy}.
+ */
+abstract class WorkList {
+
+  abstract void push(ExplodedGraph.Node node);
+
+  /**
+   * Removes and returns the next node to explore.
+   */
+  abstract ExplodedGraph.Node pop();
+
+  /**
+   * Returns the next node to explore, without removing it.
+   */
+  abstract ExplodedGraph.Node peek();
+
+  abstract int size();
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  static class Lifo extends WorkList {
+    final Deque<ExplodedGraph.Node> nodes = new ArrayDeque<>();
+
+    @Override
+    void push(ExplodedGraph.Node node) {
+      nodes.addFirst(node);
+    }
+
+    @Override
+    ExplodedGraph.Node pop() {
+      return nodes.removeFirst();
+    }
+
+    @Override
+    ExplodedGraph.Node peek() {
+      return nodes.peekFirst();
+    }
+
+    @Override
+    int size() {
+      return nodes.size();
+    }
+  }
+
+  /**
+   * Once {@code maxSize} nodes are waiting, the newly enqueued nodes are explored first, as with {@link Lifo}: the paths already waiting
+   * are resumed only when the ones started since then are completed, so that the list does not keep growing with the width of the graph.
+   */
+  static class Fifo extends Lifo {
+    private final int maxSize;
+
+    Fifo(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    void push(ExplodedGraph.Node node) {
+      if (nodes.size() < maxSize) {
+        nodes.addLast(node);
+      } else {
+        nodes.addFirst(node);
+      }
+    }
+  }
+
+  static class ByBlockOrder extends WorkList {
+
+    private static final class Entry {
+      final ExplodedGraph.Node node;
+      final int blockRank;
+      final long sequence;
+
+      Entry(ExplodedGraph.Node node, int blockRank, long sequence) {
+        this.node = node;
+        this.blockRank = blockRank;
+        this.sequence = sequence;
+      }
+    }
+
+    // lowest rank first, then lowest position in the block, then last enqueued first
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.blockRank)
+      .thenComparingInt(entry -> entry.node.programPoint.i)
+      .thenComparing(Comparator.<Entry>comparingLong(entry -> entry.sequence).reversed());
+
+    private final Map<CFG.IBlock<?>, Integer> rankByBlock;
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>(ORDER);
+    private long sequence = 0L;
+
+    ByBlockOrder(CFG cfg) {
+      rankByBlock = reversePostOrder(cfg);
+    }
+
+    @Override
+    void push(ExplodedGraph.Node node) {
+      int rank = rankByBlock.getOrDefault(node.programPoint.block, Integer.MAX_VALUE);
+      entries.add(new Entry(node, rank, sequence));
+      sequence++;
+    }
+
+    @Override
+    ExplodedGraph.Node pop() {
+      return entries.remove().node;
+    }
+
+    @Override
+    ExplodedGraph.Node peek() {
+      Entry next = entries.peek();
+      return next == null ? null : next.node;
+    }
+
+    @Override
+    int size() {
+      return entries.size();
+    }
+
+    /**
+     * Ranks the blocks reachable from the entry block, through normal or exceptional successors, in reverse post-order.
+     */
+    private static Map<CFG.IBlock<?>, Integer> reversePostOrder(CFG cfg) {
+      Map<CFG.IBlock<?>, Integer> postOrder = new IdentityHashMap<>();
+      Map<CFG.Block, Boolean> visited = new IdentityHashMap<>();
+      Deque<CFG.Block> stack = new ArrayDeque<>();
+      Deque<Boolean> expanded = new ArrayDeque<>();
+      stack.push(cfg.entryBlock());
+      expanded.push(Boolean.FALSE);
+      while (!stack.isEmpty()) {
+        CFG.Block block = stack.pop();
+        if (expanded.pop()) {
+          postOrder.put(block, postOrder.size());
+          continue;
+        }
+        if (visited.put(block, Boolean.TRUE) != null) {
+          continue;
+        }
+        stack.push(block);
+        expanded.push(Boolean.TRUE);
+        pushUnvisited(block.exceptions(), visited, stack, expanded);
+        pushUnvisited(block.successors(), visited, stack, expanded);
+      }
+      int count = postOrder.size();
+      postOrder.replaceAll((block, index) -> count - 1 - index);
+      return postOrder;
+    }
+
+    private static void pushUnvisited(Iterable<CFG.Block> blocks, Map<CFG.Block, Boolean> visited, Deque<CFG.Block> stack, Deque<Boolean> expanded) {
+      for (CFG.Block successor : blocks) {
+        if (!visited.containsKey(successor)) {
+          stack.push(successor);
+          expanded.push(Boolean.FALSE);
+        }
+      }
+    }
+  }
+
+}
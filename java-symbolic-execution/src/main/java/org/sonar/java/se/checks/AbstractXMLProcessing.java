@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.sonar.java.se.CheckerContext;
@@ -34,6 +35,11 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 public abstract class AbstractXMLProcessing extends SECheck {
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(context);
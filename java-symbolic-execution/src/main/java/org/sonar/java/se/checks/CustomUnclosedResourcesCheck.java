@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -93,6 +94,11 @@ public class CustomUnclosedResourcesCheck extends SECheck {
   private MethodMatchers openingList;
   private MethodMatchers closingList;
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.NEW_CLASS, Tree.Kind.METHOD_INVOCATION, Tree.Kind.RETURN_STATEMENT);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     AbstractStatementVisitor visitor = new PreStatementVisitor(context);
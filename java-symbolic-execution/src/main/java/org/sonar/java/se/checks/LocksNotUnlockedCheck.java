@@ -165,6 +165,11 @@ public class LocksNotUnlockedCheck extends SECheck {
     return ProgramState.isField(expression.symbol());
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     final PreStatementVisitor visitor = new PreStatementVisitor(context);
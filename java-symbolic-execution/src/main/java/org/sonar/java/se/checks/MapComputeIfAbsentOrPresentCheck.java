@@ -82,6 +82,11 @@ public class MapComputeIfAbsentOrPresentCheck extends SECheck implements JavaVer
     closestIfStatements.clear();
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     if (syntaxNode.is(Tree.Kind.METHOD_INVOCATION)) {
@@ -20,6 +20,7 @@
 package org.sonar.java.se.checks;
 
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -119,6 +120,12 @@ public class MinMaxRangeCheck extends SECheck {
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.INT_LITERAL, Tree.Kind.LONG_LITERAL, Tree.Kind.UNARY_MINUS,
+      Tree.Kind.UNARY_PLUS, Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
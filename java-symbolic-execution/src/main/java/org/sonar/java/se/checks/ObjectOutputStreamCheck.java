@@ -19,7 +19,9 @@
  */
 package org.sonar.java.se.checks;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
@@ -51,6 +53,11 @@ public class ObjectOutputStreamCheck extends SECheck {
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.NEW_CLASS, Tree.Kind.METHOD_INVOCATION, Tree.Kind.MEMBER_SELECT, Tree.Kind.IDENTIFIER);
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState programState = context.getState();
@@ -69,6 +69,11 @@ public class OptionalGetBeforeIsPresentCheck extends SECheck {
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(this, context);
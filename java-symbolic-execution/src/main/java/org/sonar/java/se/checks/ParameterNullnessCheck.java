@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
@@ -53,6 +54,11 @@ public class ParameterNullnessCheck extends SECheck {
     EQUALS_METHODS
   );
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.NEW_CLASS);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     ProgramState state = context.getState();
@@ -68,6 +68,11 @@ public class RedundantAssignmentsCheck extends SECheck {
     assignmentsByMethod.push(new HashMap<>());
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.ASSIGNMENT);
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     if (syntaxNode.is(Tree.Kind.ASSIGNMENT)) {
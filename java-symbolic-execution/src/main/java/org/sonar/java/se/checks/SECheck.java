@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import javax.annotation.CheckForNull;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.Flow;
@@ -29,15 +30,31 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public abstract class SECheck implements JavaFileScanner {
 
-  protected Set<SEIssue> issues = new HashSet<>();
+  private static final List<Tree.Kind> ALL_KINDS = Collections.unmodifiableList(Arrays.asList(Tree.Kind.values()));
+
+  // issues are buffered until the end of the file, and reported in the order in which they were found
+  protected Set<SEIssue> issues = new LinkedHashSet<>();
+  private final Map<Tree, SEIssue> issuesByTree = new HashMap<>();
+
+  /**
+   * Kinds of the syntax nodes for which {@link #checkPreStatement(CheckerContext, Tree)} and
+   * {@link #checkPostStatement(CheckerContext, Tree)} are called. By default, the check is called for all the nodes.
+   */
+  public List<Tree.Kind> nodesToVisit() {
+    return ALL_KINDS;
+  }
 
   public void init(MethodTree methodTree, CFG cfg) {
 
@@ -65,6 +82,7 @@ public abstract class SECheck implements JavaFileScanner {
       context.reportIssueWithFlow(this, seIssue.getTree(), seIssue.getMessage(), seIssue.getFlows(), null);
     }
     issues.clear();
+    issuesByTree.clear();
   }
 
   public void reportIssue(Tree tree, String message) {
@@ -72,14 +90,28 @@ public abstract class SECheck implements JavaFileScanner {
   }
 
   public void reportIssue(Tree tree, String message, Set<Flow> flows) {
-    issues.add(issues.stream()
-      .filter(seIssue -> seIssue.tree.equals(tree))
-      .findFirst()
-      .map(seIssue -> {
-        seIssue.flows.addAll(flows);
-        return seIssue;
-      })
-      .orElse(new SEIssue(tree, message, flows)));
+    SEIssue seIssue = bufferedIssue(tree);
+    if (seIssue == null) {
+      bufferIssue(new SEIssue(tree, message, flows));
+    } else {
+      seIssue.flows.addAll(flows);
+    }
+  }
+
+  @CheckForNull
+  private SEIssue bufferedIssue(Tree tree) {
+    if (issues.isEmpty()) {
+      // the buffered issues can be reported and cleared by subclasses
+      issuesByTree.clear();
+      return null;
+    }
+    SEIssue seIssue = issuesByTree.get(tree);
+    return seIssue != null && issues.contains(seIssue) ? seIssue : null;
+  }
+
+  private void bufferIssue(SEIssue seIssue) {
+    issues.add(seIssue);
+    issuesByTree.put(seIssue.tree, seIssue);
   }
 
   public void interruptedExecution(CheckerContext context) {
@@ -19,11 +19,14 @@
  */
 package org.sonar.java.se.checks;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.annotations.VisibleForTesting;
@@ -75,6 +78,16 @@ public class XmlValidatedSignatureCheck extends SECheck {
 
   private static final List<Class<? extends Constraint>> DOMAINS = Collections.singletonList(DomSecureValidation.class);
 
+  private static final List<Tree.Kind> NODES_TO_VISIT = Stream.concat(
+    Stream.of(Tree.Kind.NEW_CLASS, Tree.Kind.METHOD_INVOCATION),
+    Arrays.stream(Tree.Kind.values()).filter(kind -> kind.getAssociatedInterface() == AssignmentExpressionTree.class))
+    .collect(Collectors.toList());
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return NODES_TO_VISIT;
+  }
+
   @Override
   public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
     PostStatementVisitor visitor = new PostStatementVisitor(context);
@@ -264,6 +264,16 @@ public class XxeProcessingCheck extends SECheck {
     AttributeSchema.class,
     AttributeStyleSheet.class);
 
+  private static final List<Tree.Kind> NODES_TO_VISIT = Stream.concat(
+    Stream.of(Tree.Kind.NEW_CLASS, Tree.Kind.VARIABLE, Tree.Kind.METHOD_INVOCATION),
+    Arrays.stream(Tree.Kind.values()).filter(kind -> kind.getAssociatedInterface() == AssignmentExpressionTree.class))
+    .collect(Collectors.toList());
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return NODES_TO_VISIT;
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     PreStatementVisitor visitor = new PreStatementVisitor(context);
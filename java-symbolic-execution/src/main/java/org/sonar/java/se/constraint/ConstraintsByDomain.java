@@ -19,6 +19,8 @@
  */
 package org.sonar.java.se.constraint;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,14 +28,22 @@ import javax.annotation.Nullable;
 import org.sonarsource.analyzer.commons.collections.PCollections;
 import org.sonarsource.analyzer.commons.collections.PMap;
 
+/**
+ * Constraints of a symbolic value, by domain.
+ *
+ * The program states of an exploration share equal instances through the {@link Interner} of their exploded graph, which keeps the
+ * constraints of large exploded graphs small and makes most comparisons of constraints a reference check.
+ */
 public class ConstraintsByDomain {
 
   private final PMap<Class<? extends Constraint>, Constraint> constraintPMap;
+  private final int hashCode;
 
   private static final ConstraintsByDomain EMPTY = new ConstraintsByDomain(PCollections.emptyMap());
 
   private ConstraintsByDomain(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
     this.constraintPMap = constraintPMap;
+    this.hashCode = constraintPMap.hashCode();
   }
 
   public static ConstraintsByDomain empty() {
@@ -91,7 +101,7 @@ public class ConstraintsByDomain {
       return false;
     }
     ConstraintsByDomain that = (ConstraintsByDomain) o;
-    return constraintPMap.equals(that.constraintPMap);
+    return hashCode == that.hashCode && constraintPMap.equals(that.constraintPMap);
   }
 
   @Override
@@ -101,6 +111,41 @@ public class ConstraintsByDomain {
 
   @Override
   public int hashCode() {
-    return constraintPMap.hashCode();
+    return hashCode;
+  }
+
+  /**
+   * Table of the constraints created during the exploration of a method, owned by its exploded graph. Not thread-safe.
+   */
+  public static final class Interner {
+    private final Map<ConstraintsByDomain, ConstraintsByDomain> interned = new HashMap<>();
+    private int internedCount = 0;
+    private int sharedCount = 0;
+
+    /**
+     * @return the instance of the table equal to the given constraints, which is added to the table when there is none.
+     */
+    public ConstraintsByDomain intern(ConstraintsByDomain constraints) {
+      ConstraintsByDomain shared = interned.putIfAbsent(constraints, constraints);
+      if (shared == null) {
+        internedCount++;
+        return constraints;
+      }
+      if (shared != constraints) {
+        sharedCount++;
+      }
+      return shared;
+    }
+
+    public int internedCount() {
+      return internedCount;
+    }
+
+    /**
+     * @return the number of created instances replaced by an equal instance of the table.
+     */
+    public int sharedCount() {
+      return sharedCount;
+    }
   }
 }
@@ -37,8 +37,10 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -118,12 +120,13 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     if (knownRelations.contains(this)) {
       return Collections.singletonList(initialProgramState);
     }
+    Map<SymbolicValue, List<RelationalSymbolicValue>> knownRelationsByOperand = byOperand(knownRelations);
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     newRelations.add(this);
-    newRelations.addAll(transitiveRelations(knownRelations));
+    newRelations.addAll(transitiveRelations(knownRelations, knownRelationsByOperand));
 
     boolean unfulfilled = newRelations.stream()
-      .map(r -> r.resolveRelationState(knownRelations))
+      .map(r -> r.resolveRelationState(knownRelationsByOperand))
       .anyMatch(RelationState.UNFULFILLED::equals);
 
     if (unfulfilled) {
@@ -240,11 +243,16 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
 
   @VisibleForTesting
   RelationState resolveRelationState(Set<RelationalSymbolicValue> knownRelations) {
+    return resolveRelationState(byOperand(knownRelations));
+  }
+
+  private RelationState resolveRelationState(Map<SymbolicValue, List<RelationalSymbolicValue>> knownRelationsByOperand) {
     if (hasSameOperand()) {
       return relationStateForSameOperand();
     }
 
-    return knownRelations.stream()
+    // a relation can only be implied by a relation on the same operands
+    return knownRelationsByOperand.getOrDefault(leftOp, Collections.emptyList()).stream()
       .map(r -> r.implies(this))
       .filter(RelationState::isDetermined)
       .findAny().orElse(RelationState.UNDETERMINED);
@@ -280,6 +288,11 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
 
   @VisibleForTesting
   Set<RelationalSymbolicValue> transitiveRelations(Set<RelationalSymbolicValue> knownRelations) {
+    return transitiveRelations(knownRelations, byOperand(knownRelations));
+  }
+
+  private Set<RelationalSymbolicValue> transitiveRelations(Set<RelationalSymbolicValue> knownRelations,
+    Map<SymbolicValue, List<RelationalSymbolicValue>> knownRelationsByOperand) {
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     Deque<RelationalSymbolicValue> workList = new ArrayDeque<>();
     int iterations = 0;
@@ -292,7 +305,7 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
       }
       iterations++;
       RelationalSymbolicValue relation = workList.pop();
-      for (RelationalSymbolicValue knownRelation : knownRelations) {
+      for (RelationalSymbolicValue knownRelation : relation.relationsWithCommonOperand(knownRelationsByOperand)) {
         RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
         if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
           workList.add(r);
@@ -302,6 +315,36 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     return newRelations;
   }
 
+  /**
+   * Indexes the relations by operand: a relation is only simplified or combined transitively with the relations sharing one of its
+   * operands, so that deducing the consequences of a new relation does not go through all the known relations.
+   */
+  private static Map<SymbolicValue, List<RelationalSymbolicValue>> byOperand(Set<RelationalSymbolicValue> relations) {
+    Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand = new HashMap<>();
+    for (RelationalSymbolicValue relation : relations) {
+      relationsByOperand.computeIfAbsent(relation.leftOp, k -> new ArrayList<>()).add(relation);
+      if (!relation.hasSameOperand()) {
+        relationsByOperand.computeIfAbsent(relation.rightOp, k -> new ArrayList<>()).add(relation);
+      }
+    }
+    return relationsByOperand;
+  }
+
+  private List<RelationalSymbolicValue> relationsWithCommonOperand(Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand) {
+    List<RelationalSymbolicValue> withLeftOperand = relationsByOperand.getOrDefault(leftOp, Collections.emptyList());
+    List<RelationalSymbolicValue> withRightOperand = hasSameOperand() ? Collections.emptyList()
+      : relationsByOperand.getOrDefault(rightOp, Collections.emptyList());
+    if (withRightOperand.isEmpty()) {
+      return withLeftOperand;
+    }
+    List<RelationalSymbolicValue> result = new ArrayList<>(withLeftOperand);
+    withRightOperand.stream()
+      // relations on both operands are already listed
+      .filter(r -> !r.hasOperand(leftOp))
+      .forEach(result::add);
+    return result;
+  }
+
   @VisibleForTesting
   RelationalSymbolicValue deduceTransitiveOrSimplified(RelationalSymbolicValue other) {
     RelationalSymbolicValue result = simplify(other);
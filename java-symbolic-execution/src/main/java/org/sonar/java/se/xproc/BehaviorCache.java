@@ -26,12 +26,13 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -45,12 +46,27 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 public class BehaviorCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(BehaviorCache.class);
+  private static final Gson SUMMARY_GSON = MethodBehaviorJsonAdapter.compactGson();
 
   private SymbolicExecutionVisitor sev;
 
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
-  private Map<String, MethodBehavior> hardcodedBehaviors = null;
+  // completed behaviors of the methods declared in other files, detached from the exploded graph which computed them
+  private final Map<String, MethodBehavior> summaries = new HashMap<>();
+  @Nullable
+  private final LibraryMethodBehaviors libraryBehaviors;
+
+  public BehaviorCache() {
+    this(null);
+  }
+
+  /**
+   * @param libraryBehaviors behaviors of the library methods without hardcoded behavior, computed from the bytecode of the classpath
+   */
+  public BehaviorCache(@Nullable LibraryMethodBehaviors libraryBehaviors) {
+    this.libraryBehaviors = libraryBehaviors;
+  }
 
   public void setFileContext(@Nullable SymbolicExecutionVisitor sev) {
     this.sev = sev;
@@ -60,13 +76,30 @@ public class BehaviorCache {
     behaviors.clear();
   }
 
-  @VisibleForTesting
-  Map<String, MethodBehavior> hardcodedBehaviors() {
-    if (hardcodedBehaviors == null) {
-      hardcodedBehaviors = HardcodedMethodBehaviors.load();
-      LOG.debug("[SE] Loaded {} hardcoded method behaviors.", hardcodedBehaviors.size());
-    }
-    return hardcodedBehaviors;
+  /**
+   * @return the completed behaviors of the current file, which only contain the yields and no longer reference the nodes of the
+   * exploded graph.
+   */
+  public List<MethodBehavior> completedSummaries() {
+    return behaviors.values().stream()
+      .filter(MethodBehavior::isComplete)
+      .map(BehaviorCache::summarize)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Adds behaviors of methods declared in other files, used for the invocations of these methods.
+   */
+  public void addSummaries(List<MethodBehavior> completedBehaviors) {
+    completedBehaviors.forEach(methodBehavior -> summaries.put(methodBehavior.signature(), methodBehavior));
+  }
+
+  public void clearSummaries() {
+    summaries.clear();
+  }
+
+  private static MethodBehavior summarize(MethodBehavior methodBehavior) {
+    return SUMMARY_GSON.fromJson(SUMMARY_GSON.toJsonTree(methodBehavior), MethodBehavior.class);
   }
 
   public MethodBehavior methodBehaviorForSymbol(Symbol.MethodSymbol symbol) {
@@ -99,14 +132,14 @@ public class BehaviorCache {
       }
     }
 
-    return hardcodedBehaviors().get(signature);
+    return summaryOrHardcodedBehavior(signature);
   }
 
   /**
    * Do not trigger any new computation of method behavior, just check if there is a known method behavior for the symbol.
    *
    * @param signature The targeted method.
-   * @return null for methods having no computed method behavior yet, or its method behavior, based on source or hardcoded set
+   * @return null for methods having no computed method behavior yet, or its method behavior, based on source, hardcoded set or library bytecode
    */
   @CheckForNull
   public MethodBehavior peek(String signature) {
@@ -115,10 +148,30 @@ public class BehaviorCache {
     if (mb != null) {
       return mb;
     }
-    // check for hardcoded signatures
-    return hardcodedBehaviors().get(signature);
+    // check for behaviors of other files and hardcoded signatures
+    return summaryOrHardcodedBehavior(signature);
+  }
+
+  @CheckForNull
+  private MethodBehavior summaryOrHardcodedBehavior(String signature) {
+    MethodBehavior summary = summaries.get(signature);
+    if (summary != null) {
+      return summary;
+    }
+    MethodBehavior hardcodedBehavior = HardcodedMethodBehaviors.INSTANCE.get(signature);
+    if (hardcodedBehavior != null || libraryBehaviors == null) {
+      return hardcodedBehavior;
+    }
+    return libraryBehaviors.get(signature);
   }
 
+  /**
+   * Method behaviors of library methods, stored as JSON resources named after the package of their methods.
+   *
+   * A resource is only read when a method of its package is looked up for the first time: short analyses only pay for the behaviors of
+   * the libraries they invoke. The behaviors of a read resource are kept in an immutable table shared by all the behavior caches of the
+   * JVM, so that the following analyses do not read it again.
+   */
   static class HardcodedMethodBehaviors {
     private static final String UNABLE_LOAD_MSG = "[SE] Unable to load hardcoded method behaviors. Defaulting to no hardcoded method behaviors.";
 
@@ -135,51 +188,47 @@ public class BehaviorCache {
     };
 
     private static final Type LIST_OF_METHOD_BEHAVIORS_TYPE = new TypeToken<List<MethodBehavior>>() {}.getType();
+    private static final Gson GSON = MethodBehaviorJsonAdapter.gson();
 
-    private final Map<String, MethodBehavior> storedHardcodedMethodBehaviors;
+    static final HardcodedMethodBehaviors INSTANCE = new HardcodedMethodBehaviors(BehaviorCache.class::getResourceAsStream);
 
-    private HardcodedMethodBehaviors() {
-      this.storedHardcodedMethodBehaviors = loadHardcodedBehaviors();
-    }
+    private final Function<String, InputStream> resourceOpener;
+    private final Map<String, Map<String, MethodBehavior>> behaviorsByResource = new ConcurrentHashMap<>();
 
-    private static HardcodedMethodBehaviors uniqueInstance = null;
-
-    private static HardcodedMethodBehaviors uniqueInstance() {
-      if (uniqueInstance == null) {
-        uniqueInstance = new HardcodedMethodBehaviors();
-      }
-      return uniqueInstance;
-    }
-
-    public static Map<String, MethodBehavior> load() {
-      return uniqueInstance().storedHardcodedMethodBehaviors;
+    @VisibleForTesting
+    HardcodedMethodBehaviors(Function<String, InputStream> resourceOpener) {
+      this.resourceOpener = resourceOpener;
     }
 
-    private static Map<String, MethodBehavior> loadHardcodedBehaviors() {
-      return loadHardcodedBehaviors(
-        () -> Arrays.stream(BEHAVIORS_RESOURCES)
-          .map(BehaviorCache.class::getResourceAsStream)
-          .collect(Collectors.toList()));
+    @CheckForNull
+    MethodBehavior get(String signature) {
+      for (String resource : BEHAVIORS_RESOURCES) {
+        // all the signatures of a resource start with the package it is named after
+        if (signature.startsWith(resource.substring(0, resource.length() - ".json".length()))) {
+          MethodBehavior methodBehavior = behaviorsByResource.computeIfAbsent(resource, this::readResource).get(signature);
+          if (methodBehavior != null) {
+            return methodBehavior;
+          }
+        }
+      }
+      return null;
     }
 
-    @VisibleForTesting
-    static Map<String, MethodBehavior> loadHardcodedBehaviors(Supplier<List<InputStream>> methodBehaviorStreamsSupplier) {
-      Map<String, MethodBehavior> result = new LinkedHashMap<>();
-      Gson gson = MethodBehaviorJsonAdapter.gson();
-      for (InputStream serializedStream : methodBehaviorStreamsSupplier.get()) {
-        if (serializedStream == null) {
-          LOG.debug(UNABLE_LOAD_MSG);
-          return Collections.emptyMap();
-        }
-        try (Reader reader = new InputStreamReader(serializedStream, StandardCharsets.UTF_8)) {
-          List<MethodBehavior> deserialized = gson.fromJson(reader, LIST_OF_METHOD_BEHAVIORS_TYPE);
-          deserialized.forEach(methodBehavior -> result.put(methodBehavior.signature(), methodBehavior));
-        } catch (Exception e) {
-          LOG.error(UNABLE_LOAD_MSG, e);
-          return Collections.emptyMap();
-        }
+    private Map<String, MethodBehavior> readResource(String resource) {
+      InputStream serializedStream = resourceOpener.apply(resource);
+      if (serializedStream == null) {
+        LOG.debug(UNABLE_LOAD_MSG);
+        return Collections.emptyMap();
+      }
+      try (Reader reader = new InputStreamReader(serializedStream, StandardCharsets.UTF_8)) {
+        List<MethodBehavior> deserialized = GSON.fromJson(reader, LIST_OF_METHOD_BEHAVIORS_TYPE);
+        Map<String, MethodBehavior> behaviors = new HashMap<>();
+        deserialized.forEach(methodBehavior -> behaviors.put(methodBehavior.signature(), methodBehavior));
+        return Collections.unmodifiableMap(behaviors);
+      } catch (Exception e) {
+        LOG.error(UNABLE_LOAD_MSG, e);
+        return Collections.emptyMap();
       }
-      return Collections.unmodifiableMap(result);
     }
   }
 }
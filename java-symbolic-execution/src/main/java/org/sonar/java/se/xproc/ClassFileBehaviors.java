@@ -0,0 +1,433 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+
+/**
+ * Computes the behaviors of the methods of a compiled class from their bytecode.
+ *
+ * Only the parameter checks at the very start of a method are recognized: a parameter compared to null before throwing a new exception,
+ * or given to {@code Objects.requireNonNull}. A method starting with such checks gets an exceptional yield for each checked parameter, and a
+ * happy path yield where all the checked parameters are not null. The other methods get no behavior.
+ *
+ * As for the hardcoded behaviors, only the methods which cannot be overridden are considered: static and final methods, and the methods
+ * of final classes.
+ */
+final class ClassFileBehaviors {
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_PROTECTED = 0x0004;
+  private static final int ACC_STATIC = 0x0008;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_BRIDGE = 0x0040;
+  private static final int ACC_VARARGS = 0x0080;
+  private static final int ACC_NATIVE = 0x0100;
+  private static final int ACC_ABSTRACT = 0x0400;
+  private static final int ACC_SYNTHETIC = 0x1000;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  private static final int ACONST_NULL = 0x01;
+  private static final int ICONST_M1 = 0x02;
+  private static final int ICONST_5 = 0x08;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int LDC = 0x12;
+  private static final int LDC_W = 0x13;
+  private static final int ILOAD = 0x15;
+  private static final int ALOAD = 0x19;
+  private static final int ILOAD_0 = 0x1a;
+  private static final int ILOAD_3 = 0x1d;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int ALOAD_3 = 0x2d;
+  private static final int AASTORE = 0x53;
+  private static final int POP = 0x57;
+  private static final int DUP = 0x59;
+  private static final int INVOKEVIRTUAL = 0xb6;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int INVOKESTATIC = 0xb8;
+  private static final int INVOKEDYNAMIC = 0xba;
+  private static final int NEW = 0xbb;
+  private static final int ANEWARRAY = 0xbd;
+  private static final int ATHROW = 0xbf;
+  private static final int CHECKCAST = 0xc0;
+  private static final int IFNONNULL = 0xc7;
+
+  private static final String NULL_POINTER_EXCEPTION = "java.lang.NullPointerException";
+
+  private final Object[] constantPool;
+
+  private ClassFileBehaviors(Object[] constantPool) {
+    this.constantPool = constantPool;
+  }
+
+  /**
+   * Reads the given class file and returns the completed behaviors of its methods starting with parameter checks.
+   */
+  static List<MethodBehavior> read(InputStream classFile) throws IOException {
+    DataInputStream in = new DataInputStream(classFile);
+    if (in.readInt() != MAGIC) {
+      return Collections.emptyList();
+    }
+    // minor and major versions
+    in.readInt();
+    ClassFileBehaviors classFileBehaviors = new ClassFileBehaviors(readConstantPool(in));
+    int classAccess = in.readUnsignedShort();
+    String className = classFileBehaviors.className(in.readUnsignedShort()).replace('/', '.');
+    // super class
+    in.readUnsignedShort();
+    in.skipBytes(2 * in.readUnsignedShort());
+    int fieldsCount = in.readUnsignedShort();
+    for (int i = 0; i < fieldsCount; i++) {
+      // access flags, name and descriptor
+      in.skipBytes(6);
+      skipAttributes(in);
+    }
+    List<MethodBehavior> behaviors = new ArrayList<>();
+    if ((classAccess & ACC_SYNTHETIC) != 0) {
+      return behaviors;
+    }
+    int methodsCount = in.readUnsignedShort();
+    for (int i = 0; i < methodsCount; i++) {
+      MethodBehavior behavior = classFileBehaviors.readMethod(in, className, (classAccess & ACC_FINAL) != 0);
+      if (behavior != null) {
+        behaviors.add(behavior);
+      }
+    }
+    return behaviors;
+  }
+
+  private static Object[] readConstantPool(DataInputStream in) throws IOException {
+    Object[] constantPool = new Object[in.readUnsignedShort()];
+    for (int i = 1; i < constantPool.length; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case CONSTANT_UTF8:
+          constantPool[i] = in.readUTF();
+          break;
+        case CONSTANT_CLASS:
+          constantPool[i] = in.readUnsignedShort();
+          break;
+        case CONSTANT_METHODREF:
+        case CONSTANT_INTERFACE_METHODREF:
+        case CONSTANT_NAME_AND_TYPE:
+          constantPool[i] = new int[] {in.readUnsignedShort(), in.readUnsignedShort()};
+          break;
+        case CONSTANT_LONG:
+        case CONSTANT_DOUBLE:
+          in.skipBytes(8);
+          // long and double constants take two entries
+          i++;
+          break;
+        case CONSTANT_METHOD_HANDLE:
+          in.skipBytes(3);
+          break;
+        case CONSTANT_STRING:
+        case CONSTANT_METHOD_TYPE:
+        case CONSTANT_MODULE:
+        case CONSTANT_PACKAGE:
+          in.skipBytes(2);
+          break;
+        case CONSTANT_INTEGER:
+        case CONSTANT_FLOAT:
+        case CONSTANT_FIELDREF:
+        case CONSTANT_DYNAMIC:
+        case CONSTANT_INVOKE_DYNAMIC:
+          in.skipBytes(4);
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+    return constantPool;
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributesCount = in.readUnsignedShort();
+    for (int i = 0; i < attributesCount; i++) {
+      in.skipBytes(2);
+      in.skipBytes(in.readInt());
+    }
+  }
+
+  @CheckForNull
+  private MethodBehavior readMethod(DataInputStream in, String className, boolean finalClass) throws IOException {
+    int access = in.readUnsignedShort();
+    String name = utf8(in.readUnsignedShort());
+    String descriptor = utf8(in.readUnsignedShort());
+    byte[] code = null;
+    List<String> declaredExceptions = Collections.emptyList();
+    int attributesCount = in.readUnsignedShort();
+    for (int i = 0; i < attributesCount; i++) {
+      String attributeName = utf8(in.readUnsignedShort());
+      int length = in.readInt();
+      if ("Code".equals(attributeName)) {
+        // max stack and max locals
+        in.skipBytes(4);
+        code = new byte[in.readInt()];
+        in.readFully(code);
+        in.skipBytes(length - 8 - code.length);
+      } else if ("Exceptions".equals(attributeName)) {
+        declaredExceptions = new ArrayList<>();
+        int exceptionsCount = in.readUnsignedShort();
+        for (int j = 0; j < exceptionsCount; j++) {
+          declaredExceptions.add(className(in.readUnsignedShort()).replace('/', '.'));
+        }
+      } else {
+        in.skipBytes(length);
+      }
+    }
+    boolean isStatic = (access & ACC_STATIC) != 0;
+    if (code == null
+      || name.startsWith("<")
+      || (access & (ACC_PUBLIC | ACC_PROTECTED)) == 0
+      || (access & (ACC_SYNTHETIC | ACC_BRIDGE | ACC_NATIVE | ACC_ABSTRACT)) != 0
+      || !(isStatic || finalClass || (access & ACC_FINAL) != 0)) {
+      return null;
+    }
+    Map<Integer, Integer> referenceParameters = referenceParametersBySlot(descriptor, isStatic);
+    Map<Integer, String> checkedParameters = parameterChecks(code, referenceParameters);
+    if (checkedParameters.isEmpty()) {
+      return null;
+    }
+    MethodBehavior behavior = new MethodBehavior(className + "#" + name + descriptor, (access & ACC_VARARGS) != 0);
+    behavior.setDeclaredExceptions(declaredExceptions);
+    addYields(behavior, checkedParameters);
+    behavior.completed();
+    return behavior;
+  }
+
+  /**
+   * Returns the index of the reference parameters, by the local variable slot they are stored in.
+   */
+  private static Map<Integer, Integer> referenceParametersBySlot(String descriptor, boolean isStatic) {
+    Map<Integer, Integer> parameters = new HashMap<>();
+    int slot = isStatic ? 0 : 1;
+    int parameter = 0;
+    int i = 1;
+    while (descriptor.charAt(i) != ')') {
+      char c = descriptor.charAt(i);
+      if (c == 'L' || c == '[') {
+        parameters.put(slot, parameter);
+        while (descriptor.charAt(i) == '[') {
+          i++;
+        }
+        if (descriptor.charAt(i) == 'L') {
+          i = descriptor.indexOf(';', i);
+        }
+        slot++;
+      } else {
+        slot += (c == 'J' || c == 'D') ? 2 : 1;
+      }
+      i++;
+      parameter++;
+    }
+    return parameters;
+  }
+
+  /**
+   * Returns the exception thrown by each parameter checked at the start of the method, by parameter index and in the order of the checks.
+   */
+  private Map<Integer, String> parameterChecks(byte[] code, Map<Integer, Integer> referenceParameters) {
+    Map<Integer, String> checks = new LinkedHashMap<>();
+    int pc = 0;
+    while (true) {
+      int loadLength = aloadLength(code, pc);
+      Integer parameter = loadLength == 0 ? null : referenceParameters.get(aloadSlot(code, pc));
+      if (parameter == null || checks.containsKey(parameter)) {
+        return checks;
+      }
+      pc += loadLength;
+      int next = nullCheckThrowingNewException(code, pc, checks, parameter);
+      if (next < 0) {
+        next = requireNonNull(code, pc, checks, parameter);
+      }
+      if (next < 0) {
+        return checks;
+      }
+      pc = next;
+    }
+  }
+
+  /**
+   * Matches {@code if (p == null) throw new X(...);}, compiled as {@code ifnonnull L; new X; ...; athrow; L:}.
+   *
+   * @return the position following the check, or -1 when it does not match
+   */
+  private int nullCheckThrowingNewException(byte[] code, int pc, Map<Integer, String> checks, int parameter) {
+    if (u1(code, pc) != IFNONNULL || u1(code, pc + 3) != NEW) {
+      return -1;
+    }
+    int target = pc + (short) u2(code, pc + 1);
+    String exception = className(u2(code, pc + 4)).replace('/', '.');
+    int i = pc + 3;
+    while (i < code.length) {
+      int opcode = u1(code, i);
+      if (opcode == ATHROW) {
+        if (target != i + 1) {
+          return -1;
+        }
+        checks.put(parameter, exception);
+        return target;
+      }
+      int length = instructionLength(opcode);
+      if (length == 0) {
+        return -1;
+      }
+      i += length;
+    }
+    return -1;
+  }
+
+  /**
+   * Matches {@code Objects.requireNonNull(p);} and {@code Objects.requireNonNull(p, "message");}.
+   *
+   * @return the position following the check, or -1 when it does not match
+   */
+  private int requireNonNull(byte[] code, int pc, Map<Integer, String> checks, int parameter) {
+    int i = pc;
+    int opcode = u1(code, i);
+    if (opcode == LDC || opcode == LDC_W) {
+      i += instructionLength(opcode);
+    }
+    if (u1(code, i) != INVOKESTATIC || u1(code, i + 3) != POP) {
+      return -1;
+    }
+    int[] methodRef = (int[]) constantPool[u2(code, i + 1)];
+    int[] nameAndType = (int[]) constantPool[methodRef[1]];
+    if (!"java/util/Objects".equals(className(methodRef[0])) || !"requireNonNull".equals(utf8(nameAndType[0]))) {
+      return -1;
+    }
+    checks.put(parameter, NULL_POINTER_EXCEPTION);
+    return i + 4;
+  }
+
+  /**
+   * Length of the instructions allowed while creating the exception of a check: they neither branch, nor store values.
+   *
+   * @return the length of the instruction, or 0 when it is not allowed
+   */
+  private static int instructionLength(int opcode) {
+    if ((opcode >= ICONST_M1 && opcode <= ICONST_5) || (opcode >= ILOAD_0 && opcode <= ILOAD_3) || (opcode >= ALOAD_0 && opcode <= ALOAD_3)) {
+      return 1;
+    }
+    switch (opcode) {
+      case ACONST_NULL:
+      case AASTORE:
+      case DUP:
+        return 1;
+      case BIPUSH:
+      case LDC:
+      case ILOAD:
+      case ALOAD:
+        return 2;
+      case SIPUSH:
+      case LDC_W:
+      case INVOKEVIRTUAL:
+      case INVOKESPECIAL:
+      case INVOKESTATIC:
+      case NEW:
+      case ANEWARRAY:
+      case CHECKCAST:
+        return 3;
+      case INVOKEDYNAMIC:
+        return 5;
+      default:
+        return 0;
+    }
+  }
+
+  private static int aloadLength(byte[] code, int pc) {
+    int opcode = u1(code, pc);
+    if (opcode >= ALOAD_0 && opcode <= ALOAD_3) {
+      return 1;
+    }
+    return opcode == ALOAD ? 2 : 0;
+  }
+
+  private static int aloadSlot(byte[] code, int pc) {
+    int opcode = u1(code, pc);
+    return opcode == ALOAD ? u1(code, pc + 1) : (opcode - ALOAD_0);
+  }
+
+  private static void addYields(MethodBehavior behavior, Map<Integer, String> checkedParameters) {
+    int arity = behavior.methodArity();
+    List<ConstraintsByDomain> checkedSoFar = new ArrayList<>(Collections.nCopies(arity, ConstraintsByDomain.empty()));
+    ConstraintsByDomain notNull = ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL);
+    for (Map.Entry<Integer, String> check : checkedParameters.entrySet()) {
+      ExceptionalYield exceptionalYield = new ExceptionalYield(behavior);
+      exceptionalYield.setExceptionType(check.getValue());
+      exceptionalYield.parametersConstraints.addAll(checkedSoFar);
+      exceptionalYield.parametersConstraints.set(check.getKey(), ConstraintsByDomain.empty().put(ObjectConstraint.NULL));
+      behavior.addYield(exceptionalYield);
+      checkedSoFar.set(check.getKey(), notNull);
+    }
+    HappyPathYield happyPathYield = new HappyPathYield(behavior);
+    happyPathYield.setResult(-1, null);
+    happyPathYield.parametersConstraints.addAll(checkedSoFar);
+    behavior.addYield(happyPathYield);
+  }
+
+  private String utf8(int index) {
+    return (String) constantPool[index];
+  }
+
+  private String className(int index) {
+    return utf8((Integer) constantPool[index]);
+  }
+
+  private static int u1(byte[] code, int pc) {
+    return pc < code.length ? (code[pc] & 0xFF) : -1;
+  }
+
+  private static int u2(byte[] code, int pc) {
+    return (u1(code, pc) << 8) | u1(code, pc + 1);
+  }
+}
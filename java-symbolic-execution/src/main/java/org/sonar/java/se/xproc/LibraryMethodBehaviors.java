@@ -0,0 +1,276 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * Method behaviors of the libraries of the classpath, computed from their bytecode by {@link ClassFileBehaviors}.
+ *
+ * The behaviors of a jar are computed the first time one of its packages is looked up, and stored in a directory holding one file per
+ * package, in the format of the hardcoded behaviors. Like in {@link org.sonar.java.model.ClasspathIndex}, a jar is identified by its path,
+ * size and last modification time: the next analyses read the directory instead of the jar, as long as the jar is unchanged.
+ * Only the files of the looked up packages are read, and their behaviors are only deserialized when they are used.
+ */
+public class LibraryMethodBehaviors {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LibraryMethodBehaviors.class);
+  private static final Gson GSON = MethodBehaviorJsonAdapter.compactGson();
+
+  /**
+   * Part of the name of the cache directories, to be changed with their format or with the behaviors computed from the bytecode.
+   * Directories of another version are ignored.
+   */
+  @VisibleForTesting
+  static final String FORMAT_VERSION = "1";
+
+  private final List<JarBehaviors> jars;
+  private final Set<String> readPackages = new HashSet<>();
+  private final Map<String, JsonElement> serializedBehaviors = new HashMap<>();
+  private final Map<String, MethodBehavior> deserializedBehaviors = new HashMap<>();
+
+  /**
+   * @param classpath the entries of the classpath, only the jars are considered
+   * @param cacheDirectory the directory storing the behaviors computed for each jar
+   */
+  public LibraryMethodBehaviors(List<File> classpath, File cacheDirectory) {
+    this.jars = classpath.stream()
+      .filter(entry -> entry.getName().endsWith(".jar"))
+      .map(jar -> new JarBehaviors(jar, cacheDirectory))
+      .collect(Collectors.toList());
+  }
+
+  @CheckForNull
+  public synchronized MethodBehavior get(String signature) {
+    MethodBehavior methodBehavior = deserializedBehaviors.get(signature);
+    if (methodBehavior != null) {
+      return methodBehavior;
+    }
+    String packageName = packageName(signature);
+    if (packageName.isEmpty()) {
+      return null;
+    }
+    if (readPackages.add(packageName)) {
+      jars.forEach(jar -> jar.read(packageName, serializedBehaviors));
+    }
+    JsonElement serializedBehavior = serializedBehaviors.remove(signature);
+    if (serializedBehavior == null) {
+      return null;
+    }
+    methodBehavior = GSON.fromJson(serializedBehavior, MethodBehavior.class);
+    deserializedBehaviors.put(signature, methodBehavior);
+    return methodBehavior;
+  }
+
+  private static String packageName(String signature) {
+    int classEnd = signature.indexOf('#');
+    int packageEnd = signature.lastIndexOf('.', classEnd < 0 ? signature.length() : classEnd);
+    return packageEnd < 0 ? "" : signature.substring(0, packageEnd);
+  }
+
+  /**
+   * @return the directory storing the behaviors of the given jar, one file per package
+   */
+  @VisibleForTesting
+  static File jarCacheDirectory(File cacheDirectory, File jar) {
+    String key = jar.getAbsolutePath() + "\t" + jar.length() + "\t" + jar.lastModified();
+    return new File(cacheDirectory, "behaviors-" + FORMAT_VERSION + "-" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * @return the behaviors of the methods of the jar, by package. Classes outside any package are ignored.
+   */
+  @VisibleForTesting
+  static Map<String, JsonArray> summarize(File jar) throws IOException {
+    Map<String, JsonArray> behaviorsByPackage = new HashMap<>();
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String name = entry.getName();
+        String packageName = packageOfEntry(name);
+        if (name.endsWith(".class") && !name.startsWith("META-INF/") && !packageName.isEmpty()) {
+          summarize(zipFile, entry, behaviorsByPackage.computeIfAbsent(packageName, k -> new JsonArray()));
+        }
+      }
+    }
+    behaviorsByPackage.values().removeIf(JsonArray::isEmpty);
+    return behaviorsByPackage;
+  }
+
+  private static void summarize(ZipFile zipFile, ZipEntry entry, JsonArray behaviors) {
+    try (InputStream classFile = zipFile.getInputStream(entry)) {
+      ClassFileBehaviors.read(classFile).forEach(behavior -> behaviors.add(GSON.toJsonTree(behavior, MethodBehavior.class)));
+    } catch (IOException | RuntimeException e) {
+      // the methods of an unexpected class file have no behavior
+      LOG.debug("[SE] Unable to read the class file {}: {}", entry.getName(), e.getMessage());
+    }
+  }
+
+  private static String packageOfEntry(String name) {
+    int packageEnd = name.lastIndexOf('/');
+    return packageEnd < 0 ? "" : name.substring(0, packageEnd).replace('/', '.');
+  }
+
+  private static class JarBehaviors {
+    private final File jar;
+    private final File cacheDirectory;
+    private File directory = null;
+    private Set<String> packages = null;
+    // behaviors by package of a jar whose cache directory could not be written
+    private Map<String, JsonArray> unwrittenBehaviors = null;
+
+    private JarBehaviors(File jar, File cacheDirectory) {
+      this.jar = jar;
+      this.cacheDirectory = cacheDirectory;
+    }
+
+    private void read(String packageName, Map<String, JsonElement> serializedBehaviors) {
+      if (!jar.isFile()) {
+        return;
+      }
+      PerformanceMeasure.Duration duration = PerformanceMeasure.start("LibraryMethodBehaviors");
+      try {
+        if (directory == null) {
+          directory = jarCacheDirectory(cacheDirectory, jar);
+        }
+        if (unwrittenBehaviors == null && !directory.isDirectory()) {
+          if (!packages().contains(packageName)) {
+            // the jar is only summarized once one of its packages is needed
+            return;
+          }
+          Map<String, JsonArray> behaviorsByPackage = summarize(jar);
+          if (!write(behaviorsByPackage)) {
+            unwrittenBehaviors = behaviorsByPackage;
+          }
+        }
+        JsonArray behaviors = unwrittenBehaviors != null ? unwrittenBehaviors.get(packageName) : readPackageFile(packageName);
+        if (behaviors == null) {
+          return;
+        }
+        for (JsonElement behavior : behaviors) {
+          serializedBehaviors.putIfAbsent(behavior.getAsJsonObject().get("signature").getAsString(), behavior);
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("[SE] Unable to compute the method behaviors of {}: {}", jar, e.getMessage());
+      } finally {
+        duration.stop();
+      }
+    }
+
+    @CheckForNull
+    private JsonArray readPackageFile(String packageName) throws IOException {
+      File packageFile = new File(directory, packageName + ".json");
+      if (!packageFile.isFile()) {
+        return null;
+      }
+      try (Reader reader = Files.newBufferedReader(packageFile.toPath(), StandardCharsets.UTF_8)) {
+        return JsonParser.parseReader(reader).getAsJsonArray();
+      }
+    }
+
+    private Set<String> packages() throws IOException {
+      if (packages == null) {
+        packages = new HashSet<>();
+        try (ZipFile zipFile = new ZipFile(jar)) {
+          Enumeration<? extends ZipEntry> entries = zipFile.entries();
+          while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.endsWith(".class")) {
+              packages.add(packageOfEntry(name));
+            }
+          }
+        }
+      }
+      return packages;
+    }
+
+    /**
+     * Writes the files of the packages in a temporary directory, which is then renamed: concurrent analyses never read a partial
+     * directory, and the first one to finish wins.
+     *
+     * @return false when the directory could not be written, the behaviors are then only kept for the current analysis
+     */
+    private boolean write(Map<String, JsonArray> behaviorsByPackage) {
+      Path temporaryDirectory = null;
+      try {
+        Files.createDirectories(cacheDirectory.toPath());
+        temporaryDirectory = Files.createTempDirectory(cacheDirectory.toPath(), directory.getName() + "-");
+        for (Map.Entry<String, JsonArray> behaviors : behaviorsByPackage.entrySet()) {
+          Files.write(temporaryDirectory.resolve(behaviors.getKey() + ".json"), GSON.toJson(behaviors.getValue()).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.move(temporaryDirectory, directory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return true;
+      } catch (IOException | RuntimeException e) {
+        if (directory.isDirectory()) {
+          // written by a concurrent analysis in the meantime
+          return true;
+        }
+        LOG.debug("[SE] Unable to write the method behaviors of {} to {}: {}", jar, directory, e.getMessage());
+        return false;
+      } finally {
+        delete(temporaryDirectory);
+      }
+    }
+
+    private static void delete(@Nullable Path directory) {
+      if (directory == null || !Files.exists(directory)) {
+        return;
+      }
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("[SE] Unable to delete {}: {}", directory, e.getMessage());
+      }
+    }
+  }
+}
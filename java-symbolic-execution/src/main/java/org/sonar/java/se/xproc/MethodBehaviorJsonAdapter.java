@@ -56,12 +56,23 @@ public class MethodBehaviorJsonAdapter implements JsonSerializer<MethodBehavior>
   }
 
   public static Gson gson() {
+    return gsonBuilder()
+      .setPrettyPrinting()
+      .create();
+  }
+
+  /**
+   * Same as {@link #gson()}, without pretty printing.
+   */
+  public static Gson compactGson() {
+    return gsonBuilder().create();
+  }
+
+  private static GsonBuilder gsonBuilder() {
     return new GsonBuilder()
       .registerTypeAdapter(MethodBehavior.class,
         new MethodBehaviorJsonAdapter())
-      .serializeNulls()
-      .setPrettyPrinting()
-      .create();
+      .serializeNulls();
   }
 
   @Override
@@ -89,7 +100,9 @@ public class MethodBehaviorJsonAdapter implements JsonSerializer<MethodBehavior>
     MethodYield result;
     if (methodYield.has(JSON_THROWN_EXCEPTION)) {
       ExceptionalYield exceptionalYield = new ExceptionalYield(behavior);
-      exceptionalYield.setExceptionType(methodYield.get(JSON_THROWN_EXCEPTION).getAsString());
+      JsonElement exceptionType = methodYield.get(JSON_THROWN_EXCEPTION);
+      // the type is unknown for the yields of exceptions raised by unknown methods
+      exceptionalYield.setExceptionType(exceptionType.isJsonNull() ? null : exceptionType.getAsString());
       result = exceptionalYield;
     } else {
       HappyPathYield happyPathYield = new HappyPathYield(behavior);
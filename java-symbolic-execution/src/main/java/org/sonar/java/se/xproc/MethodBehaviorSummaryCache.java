@@ -0,0 +1,120 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.caching.FileHashingUtils;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+/**
+ * Keeps the completed behaviors of the methods declared in a file, so that the next analyses can use them for the invocations of these
+ * methods from other files, without exploring the unchanged file again.
+ *
+ * Entries are keyed by the content hash of the file: the behaviors of a file are only read back while its content is unchanged. An entry
+ * is the JSON list of the behaviors, in the format of the hardcoded behaviors.
+ */
+public class MethodBehaviorSummaryCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodBehaviorSummaryCache.class);
+  private static final String CACHE_KEY_PREFIX = String.format("java:se:methodBehaviors:%s:", FileHashingUtils.HASH_ALGORITHM);
+  private static final Type LIST_OF_METHOD_BEHAVIORS_TYPE = new TypeToken<List<MethodBehavior>>() {}.getType();
+  private static final Gson GSON = MethodBehaviorJsonAdapter.compactGson();
+
+  private final CacheContext cacheContext;
+
+  public MethodBehaviorSummaryCache(CacheContext cacheContext) {
+    this.cacheContext = cacheContext;
+  }
+
+  /**
+   * Stores the given behaviors for the next analysis. An entry is written even without behaviors, to be copied by the next analysis.
+   */
+  public void write(InputFile inputFile, List<MethodBehavior> behaviors) {
+    if (!cacheContext.isCacheEnabled()) {
+      return;
+    }
+    String key = cacheKey(inputFile);
+    if (key == null) {
+      return;
+    }
+    try {
+      cacheContext.getWriteCache().write(key, GSON.toJson(behaviors, LIST_OF_METHOD_BEHAVIORS_TYPE).getBytes(StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException e) {
+      // files with the same content have the same behaviors
+      LOG.trace(String.format("Tried to write multiple times to cache key %s. Ignoring writes after the first.", key));
+    }
+  }
+
+  /**
+   * Returns the behaviors computed by a previous analysis of a file with the same content as the given file, and keeps them for the next
+   * analysis.
+   *
+   * @return null when no behaviors were stored for this content, or when they can not be read.
+   */
+  @CheckForNull
+  public List<MethodBehavior> readPrevious(InputFile inputFile) {
+    if (!cacheContext.isCacheEnabled()) {
+      return null;
+    }
+    String key = cacheKey(inputFile);
+    if (key == null) {
+      return null;
+    }
+    byte[] bytes = cacheContext.getReadCache().readBytes(key);
+    if (bytes == null) {
+      return null;
+    }
+    List<MethodBehavior> behaviors;
+    try {
+      behaviors = GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), LIST_OF_METHOD_BEHAVIORS_TYPE);
+    } catch (RuntimeException e) {
+      // entry written by another version of the analyzer, the behaviors are not used
+      LOG.trace("Could not read the method behaviors of file {} from the cache", inputFile);
+      return null;
+    }
+    try {
+      cacheContext.getWriteCache().copyFromPrevious(key);
+    } catch (IllegalArgumentException e) {
+      LOG.trace(String.format("Tried to copy multiple times the cache key %s. Ignoring copies after the first.", key));
+    }
+    return behaviors;
+  }
+
+  @CheckForNull
+  private static String cacheKey(InputFile inputFile) {
+    try {
+      return CACHE_KEY_PREFIX + new BigInteger(1, FileHashingUtils.inputFileContentHash(inputFile)).toString(16);
+    } catch (IOException e) {
+      LOG.trace("Could not compute the content hash of file {}", inputFile);
+      return null;
+    }
+  }
+
+}
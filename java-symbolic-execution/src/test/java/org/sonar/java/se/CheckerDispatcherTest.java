@@ -20,6 +20,8 @@
 package org.sonar.java.se;
 
 import java.util.Arrays;
+import java.util.Collections;
+import javax.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.se.checks.NullDereferenceCheck;
@@ -30,6 +32,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class CheckerDispatcherTest {
 
@@ -45,6 +48,30 @@ class CheckerDispatcherTest {
     }
   }
 
+  @Test
+  void checks_are_only_executed_on_the_nodes_they_visit() {
+    CheckTest allNodes = new CheckTest();
+    CheckTest identifiers = new CheckTest(Tree.Kind.IDENTIFIER);
+    CheckTest invocations = new CheckTest(Tree.Kind.METHOD_INVOCATION, Tree.Kind.NEW_CLASS);
+    List<SECheck> checks = Arrays.asList(allNodes, identifiers, invocations);
+    assertThat(CheckerDispatcher.checksByKind(checks))
+      .containsEntry(Tree.Kind.IDENTIFIER, Arrays.asList(allNodes, identifiers))
+      .containsEntry(Tree.Kind.NEW_CLASS, Arrays.asList(allNodes, invocations))
+      .containsEntry(Tree.Kind.ASSIGNMENT, Collections.singletonList(allNodes));
+
+    CheckerDispatcher checkerDispatcher = new CheckerDispatcher(mockExplodedGraphWalker(), checks, null);
+    Tree methodInvocation = mock(Tree.class);
+    when(methodInvocation.kind()).thenReturn(Tree.Kind.METHOD_INVOCATION);
+    assertThat(checkerDispatcher.executeCheckPreStatement(methodInvocation)).isTrue();
+    checkerDispatcher.executeCheckPostStatement(methodInvocation);
+    assertThat(allNodes.preStatementExecution).isEqualTo(1);
+    assertThat(allNodes.postStatementExecution).isEqualTo(1);
+    assertThat(identifiers.preStatementExecution).isZero();
+    assertThat(identifiers.postStatementExecution).isZero();
+    assertThat(invocations.preStatementExecution).isEqualTo(1);
+    assertThat(invocations.postStatementExecution).isEqualTo(1);
+  }
+
   private static ExplodedGraphWalker mockExplodedGraphWalker() {
     ExplodedGraphWalker explodedGraphWalker = mock(ExplodedGraphWalker.class);
     explodedGraphWalker.programPosition = new ProgramPoint(new CFG.Block(1));
@@ -54,8 +81,26 @@ class CheckerDispatcherTest {
   }
 
   private static class CheckTest extends SECheck {
+    @Nullable
+    private final List<Tree.Kind> nodesToVisit;
+    int preStatementExecution = 0;
     int postStatementExecution = 0;
 
+    CheckTest(Tree.Kind... nodesToVisit) {
+      this.nodesToVisit = nodesToVisit.length == 0 ? null : Arrays.asList(nodesToVisit);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return nodesToVisit == null ? super.nodesToVisit() : nodesToVisit;
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      preStatementExecution++;
+      return context.getState();
+    }
+
     @Override
     public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
       postStatementExecution++;
@@ -20,6 +20,8 @@
 package org.sonar.java.se;
 
 import org.junit.jupiter.api.Test;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.se.utils.CFGTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -52,6 +54,23 @@ class ExplodedGraphTest {
     assertThat(child.edges()).hasSize(2);
     assertThat(child.edges()).extracting("parent").contains(parent, parent2);
     assertThat(child.parents()).hasSize(2);
+
+    // adding parents once edges are stored in a map
+    child.addParent(parent, null);
+    ExplodedGraph.Node parent3 = eg.node(mockProgramPoint("parent3"), null);
+    child.addParent(parent3, null);
+    assertThat(child.edges()).extracting("parent").containsExactlyInAnyOrder(parent, parent2, parent3);
+    assertThat(child.parents()).containsExactlyInAnyOrder(parent, parent2, parent3);
+  }
+
+  @Test
+  void program_points_are_shared_by_the_nodes_of_the_graph() {
+    CFG cfg = CFGTestUtils.buildCFG("void foo() {foo();}");
+    ExplodedGraph eg = new ExplodedGraph();
+    ProgramPoint programPoint = eg.programPoint(cfg.blocks().get(0));
+    assertThat(eg.programPoint(cfg.blocks().get(0))).isSameAs(programPoint);
+    assertThat(programPoint).isEqualTo(new ProgramPoint(cfg.blocks().get(0)));
+    assertThat(new ExplodedGraph().programPoint(cfg.blocks().get(0))).isNotSameAs(programPoint);
   }
 
   private ProgramPoint mockProgramPoint(String toString) {
@@ -21,6 +21,9 @@ package org.sonar.java.se;
 
 import com.google.common.reflect.ClassPath;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -29,7 +32,11 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.checks.verifier.CheckVerifier;
 import org.sonar.java.checks.verifier.TestUtils;
 import org.sonar.java.se.checks.AllowXMLInclusionCheck;
 import org.sonar.java.se.checks.BooleanGratuitousExpressionsCheck;
@@ -210,10 +217,10 @@ class ExplodedGraphWalkerTest {
 
               if (getNode) {
                 if (firstExceptionalNode == null) {
-                  firstExceptionalNode = workList.peekFirst();
+                  firstExceptionalNode = workList.peek();
                 }
-                assertThat(workList).as("Should have created a new node in the graph for each of the exceptions").hasSize(workListSize + 1);
-                assertThat(workList.peekFirst().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
+                assertThat(workList.size()).as("Should have created a new node in the graph for each of the exceptions").isEqualTo(workListSize + 1);
+                assertThat(workList.peek().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
                 tested[0]++;
               }
             }
@@ -239,6 +246,17 @@ class ExplodedGraphWalkerTest {
     assertThat(tested[0]).isEqualTo(2);
   }
 
+  @ParameterizedTest
+  @EnumSource(ExplorationStrategy.class)
+  void exploration_strategies_find_the_same_issues(ExplorationStrategy explorationStrategy) {
+    NullDereferenceCheck check = new NullDereferenceCheck();
+    CheckVerifier.newVerifier()
+      .onFile("src/test/files/se/NullDereferenceCheck.java")
+      .withChecks(new SymbolicExecutionVisitor(Collections.singletonList(check), SEOptions.builder().explorationStrategy(explorationStrategy).build()), check)
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .verifyIssues();
+  }
+
   @Test
   void use_false_branch_on_loop_when_reaching_max_exec_program_point() {
     ProgramPoint[] programPoints = new ProgramPoint[2];
@@ -266,10 +284,10 @@ class ExplodedGraphWalkerTest {
 
               super.enqueue(programPoint, programState, exitPath);
 
-              assertThat(workList).hasSize(workListSize + 1);
+              assertThat(workList.size()).isEqualTo(workListSize + 1);
               if (shouldEnqueueFalseBranch) {
                 assertThat(programPoints[1]).isNull();
-                programPoints[1] = workList.peekFirst().programPoint;
+                programPoints[1] = workList.peek().programPoint;
               }
             }
           };
@@ -380,6 +398,75 @@ class ExplodedGraphWalkerTest {
       .verifyNoIssues();
   }
 
+  @Test
+  void test_timeout_reached() throws Exception {
+    SECheckVerifier.newVerifier()
+      .onFile("src/test/files/se/MaxSteps.java")
+      .withCheck(new SymbolicExecutionVisitor(Collections.emptyList()) {
+        @Override
+        public void visitNode(Tree tree) {
+          MethodTree methodTree = (MethodTree) tree;
+          ExplodedGraphWalker explodedGraphWalker = new ExplodedGraphWalker(this.behaviorCache, context);
+          explodedGraphWalker.setBudget(ExplodedGraphWalker.MAX_STEPS, 1L);
+          MethodBehavior methodBehavior = methodBehaviorForSymbol(methodTree.symbol());
+          try {
+            explodedGraphWalker.visitMethod(methodTree, methodBehavior);
+            fail("Exploration should have been interrupted by the timeout");
+          } catch (ExplodedGraphWalker.TimeoutReachedException exception) {
+            assertThat(exception.getMessage()).startsWith("reached timeout of 0 ms after 1 steps for method");
+          }
+        }
+      })
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .verifyNoIssues();
+  }
+
+  @Test
+  void methods_are_skipped_once_the_budget_of_the_file_is_exhausted(@TempDir Path tempDir) throws Exception {
+    SymbolicExecutionReport report = new SymbolicExecutionReport();
+    SymbolicExecutionBudget budget = new SymbolicExecutionBudget(0, 0L, ExplodedGraphWalker.MAX_STEPS, 0L);
+    SymbolicExecutionVisitor visitor = new SymbolicExecutionVisitor(Collections.emptyList(), SEOptions.builder().budget(budget).report(report).build());
+    SECheckVerifier.newVerifier()
+      .onFile("src/test/files/se/SymbolicExecutionBudget.java")
+      .withCheck(visitor)
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .verifyNoIssues();
+
+    assertThat(visitor.abortedMethodCount()).isEqualTo(1);
+    assertThat(visitor.skippedMethodCount()).isEqualTo(1);
+    assertThat(visitor.internedConstraintsCount()).isPositive();
+    assertThat(visitor.sharedConstraintsCount()).isPositive();
+
+    assertThat(report.abortedMethods())
+      .extracting(SymbolicExecutionReport.AbortedMethod::cause)
+      .containsExactly(SymbolicExecutionReport.Cause.MAX_STEPS, SymbolicExecutionReport.Cause.FILE_BUDGET_EXHAUSTED);
+    SymbolicExecutionReport.AbortedMethod aborted = report.abortedMethods().get(0);
+    assertThat(aborted.method()).isEqualTo("A#tooManySteps()V");
+    assertThat(aborted.line()).isEqualTo(2);
+    assertThat(aborted.steps()).isEqualTo(ExplodedGraphWalker.MAX_STEPS + 1);
+    assertThat(aborted.explodedGraphSize()).isPositive();
+    assertThat(aborted.message()).startsWith("reached limit of 16000 steps for method tooManySteps");
+    SymbolicExecutionReport.AbortedMethod skipped = report.abortedMethods().get(1);
+    assertThat(skipped.method()).isEqualTo("A#skippedOnceTheBudgetOfTheFileIsExhausted(Ljava/lang/Object;)V");
+    assertThat(skipped.steps()).isZero();
+
+    SymbolicExecutionReport.Explorations explorations = report.explorationsByStrategy().get(ExplorationStrategy.DEPTH_FIRST);
+    assertThat(explorations.methodCount()).isEqualTo(1);
+    assertThat(explorations.abortedMethodCount()).isEqualTo(1);
+    assertThat(explorations.steps()).isEqualTo(ExplodedGraphWalker.MAX_STEPS + 1L);
+    assertThat(report.internedConstraintsCount()).isEqualTo(visitor.internedConstraintsCount());
+    assertThat(report.sharedConstraintsCount()).isEqualTo(visitor.sharedConstraintsCount());
+
+    Path reportFile = tempDir.resolve("report.json");
+    report.write(reportFile);
+    assertThat(new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8))
+      .contains("\"abortedMethodCount\": 2")
+      .contains("\"DEPTH_FIRST\"")
+      .contains("\"sharedConstraintsCount\": " + visitor.sharedConstraintsCount())
+      .contains("\"cause\": \"FILE_BUDGET_EXHAUSTED\"")
+      .contains("SymbolicExecutionBudget.java");
+  }
+
   @Test
   void test_maximum_steps_reached_with_issue() throws Exception {
     SECheckVerifier.newVerifier()
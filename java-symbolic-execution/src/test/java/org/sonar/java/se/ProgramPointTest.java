@@ -36,4 +36,14 @@ class ProgramPointTest {
     assertThat(pp).hasToString("B1.2  ");
   }
 
+  @Test
+  void next_program_point_is_created_once() {
+    CFG cfg = CFGTestUtils.buildCFG("void foo() {foo();}");
+    ProgramPoint pp = new ProgramPoint(cfg.blocks().get(0));
+    ProgramPoint next = pp.next();
+    assertThat(pp.next()).isSameAs(next);
+    assertThat(next).isEqualTo(new ProgramPoint(cfg.blocks().get(0)).next());
+    assertThat(next.i).isEqualTo(1);
+  }
+
 }
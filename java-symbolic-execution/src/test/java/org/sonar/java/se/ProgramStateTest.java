@@ -28,6 +28,7 @@ import org.sonar.java.se.ProgramState.Pop;
 import org.sonar.java.se.checks.UnclosedResourcesCheck;
 import org.sonar.java.se.constraint.BooleanConstraint;
 import org.sonar.java.se.constraint.Constraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
 import org.sonar.java.se.constraint.ObjectConstraint;
 import org.sonar.java.se.symbolicvalues.RelationalSymbolicValue;
 import org.sonar.java.se.symbolicvalues.SymbolicValue;
@@ -53,6 +54,24 @@ class ProgramStateTest {
       .isEqualTo(state2);
   }
 
+  @Test
+  void constraints_are_shared_by_the_states_of_the_same_interner() {
+    SymbolicValue sv1 = new SymbolicValue();
+    SymbolicValue sv2 = new SymbolicValue();
+    ConstraintsByDomain.Interner interner = new ConstraintsByDomain.Interner();
+    ProgramState state = ProgramState.EMPTY_STATE.withConstraintsInterner(interner)
+      .addConstraint(sv1, ObjectConstraint.NOT_NULL)
+      .stackValue(sv2)
+      .addConstraint(sv2, ObjectConstraint.NOT_NULL);
+    assertThat(state.getConstraints(sv1)).isSameAs(state.getConstraints(sv2));
+    assertThat(interner.sharedCount()).isEqualTo(1);
+
+    ProgramState notShared = ProgramState.EMPTY_STATE
+      .addConstraint(sv1, ObjectConstraint.NOT_NULL)
+      .addConstraint(sv2, ObjectConstraint.NOT_NULL);
+    assertThat(notShared.getConstraints(sv1)).isNotSameAs(notShared.getConstraints(sv2)).isEqualTo(notShared.getConstraints(sv2));
+  }
+
   @Test
   void testStackUnstack() {
     SymbolicValue sv1 = new SymbolicValue();
@@ -19,16 +19,31 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.mockito.InOrder;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.constraint.Constraint;
 import org.sonar.java.se.constraint.ObjectConstraint;
 import org.sonar.java.se.symbolicvalues.SymbolicValue;
 import org.sonar.java.se.utils.CFGTestUtils;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 class SECheckTest {
   @Test
@@ -42,4 +57,96 @@ class SECheckTest {
     assertThat(flows.iterator().next().isEmpty()).isTrue();
   }
 
+  @Test
+  void issues_are_reported_once_per_tree_in_the_order_they_were_found() {
+    SECheck check = new SECheck() {
+    };
+    Tree first = mock(Tree.class);
+    Tree second = mock(Tree.class);
+    JavaFileScannerContext.Location location = new JavaFileScannerContext.Location("flow", second);
+    check.reportIssue(second, "second");
+    check.reportIssue(first, "first");
+    check.reportIssue(second, "second again", Collections.singleton(Flow.of(location)));
+
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    check.scanFile(context);
+    InOrder inOrder = inOrder(context);
+    inOrder.verify(context).reportIssueWithFlow(check, second, "second", Collections.singleton(Collections.singletonList(location)), null);
+    inOrder.verify(context).reportIssueWithFlow(check, first, "first", Collections.emptySet(), null);
+    inOrder.verifyNoMoreInteractions();
+
+    check.scanFile(context);
+    verifyNoMoreInteractions(context);
+  }
+
+  @Test
+  void issues_cleared_by_subclasses_are_reported_again() {
+    List<String> reported = new ArrayList<>();
+    SECheck check = new SECheck() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        // like InvariantReturnCheck, reports the buffered issues itself
+        issues.forEach(issue -> reported.add(issue.getMessage()));
+        issues.clear();
+      }
+    };
+    Tree tree = mock(Tree.class);
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    check.reportIssue(tree, "first file");
+    check.scanFile(context);
+    check.reportIssue(tree, "next file");
+    check.scanFile(context);
+    assertThat(reported).containsExactly("first file", "next file");
+  }
+
+  @Test
+  void flows_of_every_report_of_a_tree_are_merged() {
+    SECheck check = new SECheck() {
+    };
+    Tree tree = mock(Tree.class);
+    Set<Flow> flows = IntStream.range(0, FlowComputation.MAX_REPORTED_FLOWS)
+      .mapToObj(i -> Flow.of(new JavaFileScannerContext.Location("flow " + i, tree)))
+      .collect(Collectors.toSet());
+    Flow otherFlow = Flow.of(new JavaFileScannerContext.Location("other flow", tree));
+    check.reportIssue(tree, "message", flows);
+    check.reportIssue(tree, "message", Collections.singleton(otherFlow));
+
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    check.scanFile(context);
+    Set<List<JavaFileScannerContext.Location>> expectedFlows = flows.stream().map(Flow::elements).collect(Collectors.toSet());
+    expectedFlows.add(otherFlow.elements());
+    verify(context).reportIssueWithFlow(check, tree, "message", expectedFlows, null);
+  }
+
+  @Test
+  void flows_are_computed_once_per_node_and_value_until_the_graph_changes() {
+    CFG cfg = CFGTestUtils.buildCFG("void foo(boolean a) { if(a) {foo(true);} foo(false); }");
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node node = eg.node(new ProgramPoint(cfg.blocks().get(3)), ProgramState.EMPTY_STATE);
+    node.addParent(eg.node(new ProgramPoint(cfg.blocks().get(2)).next().next(), ProgramState.EMPTY_STATE), null);
+    SymbolicValue sv = new SymbolicValue();
+    Set<Flow> flows = FlowComputation.flow(node, sv, Collections.singletonList(ObjectConstraint.class), FlowComputation.MAX_REPORTED_FLOWS);
+    Set<Flow> sameFlows = FlowComputation.flow(node, sv, Collections.singletonList(ObjectConstraint.class), FlowComputation.MAX_REPORTED_FLOWS);
+    assertThat(sameFlows).isEqualTo(flows).isNotSameAs(flows);
+
+    AtomicInteger computations = new AtomicInteger();
+    Supplier<Set<Flow>> computation = () -> {
+      computations.incrementAndGet();
+      return Collections.emptySet();
+    };
+    List<Class<? extends Constraint>> domains = Collections.singletonList(ObjectConstraint.class);
+    FlowComputation.Key key = new FlowComputation.Key(node, Collections.singleton(sv), domains, Collections.emptySet(), 1);
+    FlowComputation.Key equalKey = new FlowComputation.Key(node, Collections.singleton(sv), new ArrayList<>(domains), Collections.emptySet(), 1);
+    FlowComputation.Key otherKey = new FlowComputation.Key(node, Collections.singleton(new SymbolicValue()), domains, Collections.emptySet(), 1);
+    node.flows(key, computation);
+    node.flows(equalKey, computation);
+    assertThat(computations).hasValue(1);
+    node.flows(otherKey, computation);
+    assertThat(computations).hasValue(2);
+
+    node.addParent(eg.node(new ProgramPoint(cfg.blocks().get(1)), ProgramState.EMPTY_STATE), null);
+    node.flows(key, computation);
+    assertThat(computations).hasValue(3);
+  }
+
 }
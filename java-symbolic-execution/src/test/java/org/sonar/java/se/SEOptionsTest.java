@@ -0,0 +1,55 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.java.SonarComponents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SEOptionsTest {
+
+  @Test
+  void default_options() {
+    assertThat(SEOptions.DEFAULT.shareBehaviorsAcrossFiles()).isFalse();
+    assertThat(SEOptions.DEFAULT.explorationStrategy()).isEqualTo(ExplorationStrategy.DEPTH_FIRST);
+    assertThat(SEOptions.DEFAULT.libraryBehaviors()).isNull();
+    assertThat(SEOptions.DEFAULT.budget()).isSameAs(SymbolicExecutionBudget.DEFAULT);
+    assertThat(SEOptions.DEFAULT.report()).isNull();
+  }
+
+  @Test
+  void options_are_read_from_sonar_components() {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.shouldShareMethodBehaviors()).thenReturn(true);
+    when(sonarComponents.symbolicExecutionStrategy()).thenReturn("breadth_first");
+    when(sonarComponents.shouldReportAbortedSymbolicExecutions()).thenReturn(true);
+
+    SEOptions options = SEOptions.from(sonarComponents);
+
+    assertThat(options.shareBehaviorsAcrossFiles()).isTrue();
+    assertThat(options.explorationStrategy()).isEqualTo(ExplorationStrategy.BREADTH_FIRST);
+    assertThat(options.libraryBehaviors()).isNull();
+    assertThat(options.report()).isNotNull();
+  }
+
+}
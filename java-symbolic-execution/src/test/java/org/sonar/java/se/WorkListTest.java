@@ -0,0 +1,115 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.se.utils.CFGTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkListTest {
+
+  private final CFG cfg = CFGTestUtils.buildCFG("void foo(boolean a) { if (a) { bar(); } else { qix(); } baz(); }");
+  private final ExplodedGraph explodedGraph = new ExplodedGraph();
+  private final CFG.Block entry = cfg.entryBlock();
+  private final CFG.Block thenBlock = entry.trueBlock();
+  private final CFG.Block elseBlock = entry.falseBlock();
+  private final CFG.Block join = thenBlock.successors().iterator().next();
+
+  @Test
+  void depth_first_explores_last_enqueued_node_first() {
+    assertThat(explorationOrder(ExplorationStrategy.DEPTH_FIRST, join, thenBlock, elseBlock, entry))
+      .containsExactly(entry, elseBlock, thenBlock, join);
+  }
+
+  @Test
+  void breadth_first_explores_first_enqueued_node_first() {
+    assertThat(explorationOrder(ExplorationStrategy.BREADTH_FIRST, join, thenBlock, elseBlock, entry))
+      .containsExactly(join, thenBlock, elseBlock, entry);
+  }
+
+  @Test
+  void breadth_first_explores_last_enqueued_node_first_once_full() {
+    WorkList workList = new WorkList.Fifo(2);
+    ExplodedGraph.Node first = explodedGraph.node(explodedGraph.programPoint(entry), null);
+    ExplodedGraph.Node second = explodedGraph.node(explodedGraph.programPoint(thenBlock), null);
+    ExplodedGraph.Node third = explodedGraph.node(explodedGraph.programPoint(elseBlock), null);
+    ExplodedGraph.Node fourth = explodedGraph.node(explodedGraph.programPoint(join), null);
+    workList.push(first);
+    workList.push(second);
+    workList.push(third);
+    assertThat(workList.pop()).isSameAs(third);
+    workList.push(fourth);
+    assertThat(workList.pop()).isSameAs(fourth);
+    assertThat(workList.pop()).isSameAs(first);
+    assertThat(workList.pop()).isSameAs(second);
+    assertThat(workList.isEmpty()).isTrue();
+  }
+
+  @Test
+  void reverse_post_order_explores_join_points_after_their_predecessors() {
+    List<CFG.IBlock<?>> order = explorationOrder(ExplorationStrategy.REVERSE_POST_ORDER, join, thenBlock, elseBlock, entry);
+    assertThat(order.get(0)).isSameAs(entry);
+    assertThat(order.subList(1, 3)).containsExactlyInAnyOrder(thenBlock, elseBlock);
+    assertThat(order.get(3)).isSameAs(join);
+  }
+
+  @Test
+  void reverse_post_order_explores_nodes_of_the_same_block_by_position_then_last_enqueued_first() {
+    WorkList workList = ExplorationStrategy.REVERSE_POST_ORDER.newWorkList(cfg);
+    ProgramPoint start = explodedGraph.programPoint(join);
+    ExplodedGraph.Node second = explodedGraph.node(start.next(), null);
+    ExplodedGraph.Node firstEnqueued = explodedGraph.node(start, null);
+    ExplodedGraph.Node lastEnqueued = explodedGraph.node(start, ProgramState.EMPTY_STATE);
+    workList.push(second);
+    workList.push(firstEnqueued);
+    workList.push(lastEnqueued);
+    assertThat(workList.peek()).isSameAs(lastEnqueued);
+    assertThat(workList.pop()).isSameAs(lastEnqueued);
+    assertThat(workList.pop()).isSameAs(firstEnqueued);
+    assertThat(workList.pop()).isSameAs(second);
+    assertThat(workList.isEmpty()).isTrue();
+    assertThat(workList.peek()).isNull();
+  }
+
+  @Test
+  void unknown_strategy_names_default_to_depth_first() {
+    assertThat(ExplorationStrategy.fromName("reverse_post_order")).isEqualTo(ExplorationStrategy.REVERSE_POST_ORDER);
+    assertThat(ExplorationStrategy.fromName(" Breadth_First ")).isEqualTo(ExplorationStrategy.BREADTH_FIRST);
+    assertThat(ExplorationStrategy.fromName("unknown")).isEqualTo(ExplorationStrategy.DEPTH_FIRST);
+  }
+
+  private List<CFG.IBlock<?>> explorationOrder(ExplorationStrategy strategy, CFG.Block... blocks) {
+    WorkList workList = strategy.newWorkList(cfg);
+    for (CFG.Block block : blocks) {
+      workList.push(explodedGraph.node(explodedGraph.programPoint(block), null));
+    }
+    assertThat(workList.size()).isEqualTo(blocks.length);
+    List<CFG.IBlock<?>> order = new ArrayList<>();
+    while (!workList.isEmpty()) {
+      order.add(workList.pop().programPoint.block);
+    }
+    return order;
+  }
+
+}
@@ -70,6 +70,22 @@ class ConstraintsByDomainTest {
     assertThat(c1).isSameAs(c2);
   }
 
+  @Test
+  void equal_constraints_are_shared_by_the_interner() {
+    ConstraintsByDomain.Interner interner = new ConstraintsByDomain.Interner();
+    ConstraintsByDomain c1 = ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL).put(BooleanConstraint.TRUE);
+    ConstraintsByDomain c2 = ConstraintsByDomain.empty().put(BooleanConstraint.TRUE).put(ObjectConstraint.NOT_NULL);
+    assertThat(c1).isNotSameAs(c2).isEqualTo(c2);
+    assertThat(interner.intern(c1)).isSameAs(c1);
+    assertThat(interner.intern(c2)).isSameAs(c1);
+    assertThat(interner.intern(c1)).isSameAs(c1);
+    assertThat(interner.intern(c1.put(BooleanConstraint.FALSE))).isNotSameAs(c1).isNotEqualTo(c1);
+    assertThat(interner.internedCount()).isEqualTo(2);
+    assertThat(interner.sharedCount()).isEqualTo(1);
+
+    assertThat(new ConstraintsByDomain.Interner().intern(c2)).isSameAs(c2);
+  }
+
   @Test
   void test_forEach() {
     ConstraintsByDomain constraints = ConstraintsByDomain.empty();
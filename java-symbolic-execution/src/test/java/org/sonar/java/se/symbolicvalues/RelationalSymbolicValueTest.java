@@ -60,6 +60,7 @@ import static org.sonar.java.se.constraint.BooleanConstraint.TRUE;
 import static org.sonar.java.se.symbolicvalues.RelationState.FULFILLED;
 import static org.sonar.java.se.symbolicvalues.RelationState.UNFULFILLED;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.EQUAL;
+import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.LESS_THAN;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.METHOD_EQUALS;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.NOT_EQUAL;
 import static org.sonar.java.se.symbolicvalues.SymbolicValue.NULL_LITERAL;
@@ -357,6 +358,25 @@ class RelationalSymbolicValueTest {
     assertThat(transitive).containsOnly(relationalSV(Tree.Kind.EQUAL_TO, a, c), relationalSV(Tree.Kind.EQUAL_TO, b, d), relationalSV(Tree.Kind.EQUAL_TO, a, d));
   }
 
+  @Test
+  void transitive_relations_of_a_chain_of_comparisons() {
+    SymbolicValue[] values = new SymbolicValue[25];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new SymbolicValue();
+    }
+    ProgramState ps = ProgramState.EMPTY_STATE;
+    for (int i = 0; i < values.length - 1; i++) {
+      ps = setTrue(ps, new RelationalSymbolicValue(LESS_THAN, values[i], values[i + 1]));
+    }
+    SymbolicValue first = values[0];
+    SymbolicValue last = values[values.length - 1];
+    assertThat(ps.knownRelations()).hasSize(values.length * (values.length - 1) / 2);
+    assertThat(ps.getConstraint(new RelationalSymbolicValue(LESS_THAN, first, last), BooleanConstraint.class)).isEqualTo(TRUE);
+    assertThat(new RelationalSymbolicValue(LESS_THAN, last, first).setConstraint(ps, TRUE)).isEmpty();
+    assertThat(new RelationalSymbolicValue(EQUAL, first, last).setConstraint(ps, TRUE)).isEmpty();
+    assertThat(new RelationalSymbolicValue(LESS_THAN, first, new SymbolicValue()).setConstraint(ps, TRUE)).hasSize(1);
+  }
+
   @Test
   void test_constraints_are_copied_over_transitive_relations() throws Exception {
     ProgramState ps = ProgramState.EMPTY_STATE;
@@ -19,10 +19,15 @@
  */
 package org.sonar.java.se.xproc;
 
+import com.google.gson.JsonParser;
 import java.io.File;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +50,7 @@ import org.sonar.java.se.CheckerDispatcher;
 import org.sonar.java.se.Pair;
 import org.sonar.java.se.ProgramState;
 import org.sonar.java.se.SECheckVerifier;
+import org.sonar.java.se.SEOptions;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.checks.BooleanGratuitousExpressionsCheck;
 import org.sonar.java.se.checks.ConditionalUnreachableCodeCheck;
@@ -53,7 +59,12 @@ import org.sonar.java.se.checks.NullDereferenceCheck;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.java.se.utils.JParserTestUtils;
 import org.sonar.java.se.utils.SETestUtils;
+import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
+import org.sonar.plugins.java.api.ModuleScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -64,9 +75,12 @@ import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.mainCodeSourcesPath;
 import static org.sonar.java.se.utils.SETestUtils.createSymbolicExecutionVisitor;
 import static org.sonar.java.se.utils.SETestUtils.createSymbolicExecutionVisitorAndSemantic;
@@ -74,6 +88,18 @@ import static org.sonar.java.se.utils.SETestUtils.getMethodBehavior;
 
 class BehaviorCacheTest {
 
+  private static final String[] HARDCODED_BEHAVIORS_RESOURCES = {
+    "java.lang.json",
+    "java.util.json",
+    "com.google.common.base.json",
+    "org.apache.commons.collections.json",
+    "org.apache.commons.lang.json",
+    "org.apache.commons.lang3.json",
+    "org.apache.logging.log4j.core.util.json",
+    "org.eclipse.core.runtime.json",
+    "org.springframework.util.json"
+  };
+
   @RegisterExtension
   public LogTesterJUnit5 logTester  = new LogTesterJUnit5().setLevel(Level.DEBUG);
 
@@ -168,6 +194,68 @@ class BehaviorCacheTest {
     assertThat(exceptionalYields.stream().filter(y -> y.exceptionType(semanticModel).isUnknown())).hasSize(1);
   }
 
+  @Test
+  void completed_behaviors_are_summarized() {
+    SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/files/se/PartialMethodYieldMaxStep.java", new NullDereferenceCheck());
+    MethodBehavior bar = getMethodBehavior(sev, "bar");
+
+    List<MethodBehavior> summaries = sev.behaviorCache.completedSummaries();
+    assertThat(summaries).extracting(MethodBehavior::signature).containsExactly(bar.signature());
+    sev.behaviorCache.cleanup();
+    assertThat(sev.behaviorCache.peek(bar.signature())).isNull();
+
+    sev.behaviorCache.addSummaries(summaries);
+    MethodBehavior summary = sev.behaviorCache.peek(bar.signature());
+    assertThat(summary).isNotNull().isNotSameAs(bar);
+    assertThat(summary.isComplete()).isTrue();
+    assertThat(summary.yields()).hasSameSizeAs(bar.yields());
+    assertThat(summary.yields()).allMatch(methodYield -> methodYield.node == null);
+    assertThat(sev.behaviorCache.peek("PartialMethodYieldMaxStep#unknown()V")).isNull();
+
+    sev.behaviorCache.clearSummaries();
+    assertThat(sev.behaviorCache.peek(bar.signature())).isNull();
+  }
+
+  @Test
+  void behaviors_are_shared_with_the_next_files_and_analyses() throws Exception {
+    Map<String, byte[]> cache = new HashMap<>();
+    CacheContext cacheContext = cacheContext(cache);
+    InputFile inputFile = SETestUtils.inputFile("src/test/resources/se/MethodBehavior.java");
+    CompilationUnitTreeImpl cut = (CompilationUnitTreeImpl) JParserTestUtils.parse("test", inputFile.contents(), SETestUtils.CLASS_PATH);
+
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(Collections.singletonList(new NullDereferenceCheck()),
+      SEOptions.builder().shareBehaviorsAcrossFiles(true).build());
+    sev.scanFile(new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, null, new JavaVersionImpl(8), true, false, cacheContext));
+    // entries are keyed by the content hash of the file
+    assertThat(cache).hasSize(1);
+    String key = cache.keySet().iterator().next();
+    assertThat(key).startsWith("java:se:methodBehaviors:MURMUR3_128:");
+    sev.behaviorCache.cleanup();
+    assertThat(sev.behaviorCache.peek("MethodBehavior#bar(Z)Z")).isNotNull();
+    sev.endOfAnalysis(mock(ModuleScannerContext.class));
+    assertThat(sev.behaviorCache.peek("MethodBehavior#bar(Z)Z")).isNull();
+
+    SymbolicExecutionVisitor nextAnalysis = new SymbolicExecutionVisitor(Collections.singletonList(new NullDereferenceCheck()),
+      SEOptions.builder().shareBehaviorsAcrossFiles(true).build());
+    InputFileScannerContext unchangedFileContext = mock(InputFileScannerContext.class);
+    when(unchangedFileContext.getCacheContext()).thenReturn(cacheContext);
+    when(unchangedFileContext.getInputFile()).thenReturn(inputFile);
+    assertThat(nextAnalysis.scanWithoutParsing(unchangedFileContext)).isTrue();
+    assertThat(nextAnalysis.behaviorCache.peek("MethodBehavior#bar(Z)Z")).isNotNull();
+    assertThat(nextAnalysis.behaviorCache.peek("MethodBehavior#topMethod(Z)Z")).isNotNull();
+    verify(cacheContext.getWriteCache()).copyFromPrevious(key);
+  }
+
+  @Test
+  void behaviors_are_not_shared_by_default() {
+    CacheContext cacheContext = mock(CacheContext.class);
+    InputFileScannerContext unchangedFileContext = mock(InputFileScannerContext.class);
+    when(unchangedFileContext.getCacheContext()).thenReturn(cacheContext);
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(Collections.singletonList(new NullDereferenceCheck()));
+    assertThat(sev.scanWithoutParsing(unchangedFileContext)).isTrue();
+    verifyNoInteractions(cacheContext);
+  }
+
   @Test
   void hardcoded_behaviors() throws Exception {
     BehaviorCache behaviorCache = new BehaviorCache();
@@ -198,8 +286,23 @@ class BehaviorCacheTest {
     }
 
     assertThat(behaviorCache.behaviors).isEmpty();
-    assertThat(behaviorCache.hardcodedBehaviors()).hasSize(238);
-    assertThat(logTester.logs(Level.DEBUG)).containsOnly("[SE] Loaded 238 hardcoded method behaviors.");
+
+    Set<String> signatures = new HashSet<>();
+    for (String resource : HARDCODED_BEHAVIORS_RESOURCES) {
+      try (Reader reader = new InputStreamReader(BehaviorCache.class.getResourceAsStream(resource), StandardCharsets.UTF_8)) {
+        JsonParser.parseReader(reader).getAsJsonArray()
+          .forEach(serializedBehavior -> signatures.add(serializedBehavior.getAsJsonObject().get("signature").getAsString()));
+      }
+    }
+    assertThat(signatures).hasSize(238);
+    for (String signature : signatures) {
+      MethodBehavior methodBehavior = behaviorCache.get(signature);
+      assertThat(methodBehavior).isNotNull();
+      assertThat(methodBehavior.signature()).isEqualTo(signature);
+    }
+    assertThat(behaviorCache.behaviors).isEmpty();
+    assertThat(logTester.logs(Level.DEBUG)).isEmpty();
+    assertThat(logTester.logs(Level.ERROR)).isEmpty();
   }
 
   @Test
@@ -339,19 +442,48 @@ class BehaviorCacheTest {
     assertThat(testedPost).containsOnly("foo", "bar", "isBlank");
   }
 
+  @Test
+  void hardcoded_behaviors_are_read_on_demand() {
+    List<String> openedResources = new ArrayList<>();
+    BehaviorCache.HardcodedMethodBehaviors hardcodedBehaviors = new BehaviorCache.HardcodedMethodBehaviors(resource -> {
+      openedResources.add(resource);
+      return BehaviorCache.class.getResourceAsStream(resource);
+    });
+
+    String signature = "org.apache.commons.collections4.CollectionUtils#isEmpty(Ljava/util/Collection;)Z";
+    MethodBehavior methodBehavior = hardcodedBehaviors.get(signature);
+    assertThat(methodBehavior).isNotNull();
+    assertThat(methodBehavior.signature()).isEqualTo(signature);
+    assertThat(methodBehavior.yields()).isNotEmpty();
+    assertThat(hardcodedBehaviors.get(signature)).isSameAs(methodBehavior);
+    assertThat(openedResources).containsExactly("org.apache.commons.collections.json");
+
+    assertThat(hardcodedBehaviors.get("java.lang.Math#max(DD)D")).isNotNull();
+    assertThat(hardcodedBehaviors.get("java.lang.Math#unknown()V")).isNull();
+    assertThat(hardcodedBehaviors.get("org.foo.A#foo()V")).isNull();
+    assertThat(openedResources).containsExactly("org.apache.commons.collections.json", "java.lang.json");
+  }
+
+  @Test
+  void hardcoded_behaviors_are_shared_by_all_the_caches() {
+    String signature = "java.lang.Math#max(DD)D";
+    MethodBehavior methodBehavior = new BehaviorCache().get(signature);
+    assertThat(methodBehavior).isNotNull();
+    assertThat(new BehaviorCache().get(signature)).isSameAs(methodBehavior);
+  }
+
   @Test
   void log_when_unable_to_load_resources_with_method_behavior() throws Exception {
-    Map<String, MethodBehavior> result = BehaviorCache.HardcodedMethodBehaviors
-      .loadHardcodedBehaviors(() -> Collections.singletonList((InputStream) null));
-    assertThat(result).isEmpty();
+    BehaviorCache.HardcodedMethodBehaviors hardcodedBehaviors = new BehaviorCache.HardcodedMethodBehaviors(resource -> null);
+    assertThat(hardcodedBehaviors.get("java.lang.Math#max(DD)D")).isNull();
     assertThat(logTester.logs(Level.DEBUG)).containsOnlyOnce("[SE] Unable to load hardcoded method behaviors. Defaulting to no hardcoded method behaviors.");
   }
 
   @Test
   void log_when_unable_to_load_resources_with_invalid_method_behaviors() throws Exception {
-    Map<String, MethodBehavior> result = BehaviorCache.HardcodedMethodBehaviors
-      .loadHardcodedBehaviors(() -> Collections.singletonList(BehaviorCacheTest.class.getResourceAsStream("invalid.json")));
-    assertThat(result).isEmpty();
+    BehaviorCache.HardcodedMethodBehaviors hardcodedBehaviors = new BehaviorCache.HardcodedMethodBehaviors(
+      resource -> BehaviorCacheTest.class.getResourceAsStream("invalid.json"));
+    assertThat(hardcodedBehaviors.get("java.lang.Math#max(DD)D")).isNull();
     assertThat(logTester.logs(Level.ERROR)).containsOnlyOnce("[SE] Unable to load hardcoded method behaviors. Defaulting to no hardcoded method behaviors.");
   }
 
@@ -374,4 +506,17 @@ class BehaviorCacheTest {
       .verifyIssues();
   }
 
+
+  private static CacheContext cacheContext(Map<String, byte[]> cache) {
+    JavaReadCache readCache = mock(JavaReadCache.class);
+    doAnswer(invocation -> cache.get(invocation.<String>getArgument(0))).when(readCache).readBytes(anyString());
+    JavaWriteCache writeCache = mock(JavaWriteCache.class);
+    doAnswer(invocation -> cache.put(invocation.getArgument(0), invocation.getArgument(1))).when(writeCache).write(anyString(), any(byte[].class));
+    CacheContext cacheContext = mock(CacheContext.class);
+    when(cacheContext.isCacheEnabled()).thenReturn(true);
+    when(cacheContext.getReadCache()).thenReturn(readCache);
+    when(cacheContext.getWriteCache()).thenReturn(writeCache);
+    return cacheContext;
+  }
+
 }
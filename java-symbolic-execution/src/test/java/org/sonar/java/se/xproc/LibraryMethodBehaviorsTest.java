@@ -0,0 +1,203 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LibraryMethodBehaviorsTest {
+
+  private static final String SOURCE = "package lib;\n"
+    + "public class Checks {\n"
+    + "  public static String both(String a, long l, Object b) {\n"
+    + "    if (a == null) {\n"
+    + "      throw new IllegalArgumentException(\"a is null\");\n"
+    + "    }\n"
+    + "    java.util.Objects.requireNonNull(b, \"b\");\n"
+    + "    return a + l + b;\n"
+    + "  }\n"
+    + "  public final void instance(Object o) {\n"
+    + "    if (o == null) {\n"
+    + "      throw new NullPointerException();\n"
+    + "    }\n"
+    + "  }\n"
+    + "  public void overridable(Object o) {\n"
+    + "    java.util.Objects.requireNonNull(o);\n"
+    + "  }\n"
+    + "  public static void notAtStart(Object o) {\n"
+    + "    System.out.println();\n"
+    + "    java.util.Objects.requireNonNull(o);\n"
+    + "  }\n"
+    + "  public static void notThrowing(Object o) {\n"
+    + "    if (o == null) {\n"
+    + "      return;\n"
+    + "    }\n"
+    + "  }\n"
+    + "}\n";
+
+  @TempDir
+  Path temp;
+
+  @Test
+  void behaviors_of_methods_starting_with_parameter_checks() throws IOException {
+    File jar = compileToJar();
+    LibraryMethodBehaviors libraryBehaviors = new LibraryMethodBehaviors(Collections.singletonList(jar), temp.resolve("cache").toFile());
+
+    MethodBehavior both = libraryBehaviors.get("lib.Checks#both(Ljava/lang/String;JLjava/lang/Object;)Ljava/lang/String;");
+    assertThat(both).isNotNull();
+    assertThat(both.isComplete()).isTrue();
+    List<MethodYield> yields = both.yields();
+    assertThat(yields).hasSize(3);
+
+    ConstraintsByDomain nullConstraint = ConstraintsByDomain.empty().put(ObjectConstraint.NULL);
+    ConstraintsByDomain notNullConstraint = ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL);
+    ExceptionalYield aIsNull = (ExceptionalYield) yields.get(0);
+    assertThat(aIsNull.getExceptionType()).isEqualTo("java.lang.IllegalArgumentException");
+    assertThat(aIsNull.parametersConstraints).containsExactly(nullConstraint, ConstraintsByDomain.empty(), ConstraintsByDomain.empty());
+    ExceptionalYield bIsNull = (ExceptionalYield) yields.get(1);
+    assertThat(bIsNull.getExceptionType()).isEqualTo("java.lang.NullPointerException");
+    assertThat(bIsNull.parametersConstraints).containsExactly(notNullConstraint, ConstraintsByDomain.empty(), nullConstraint);
+    HappyPathYield happyPath = (HappyPathYield) yields.get(2);
+    assertThat(happyPath.resultIndex()).isEqualTo(-1);
+    assertThat(happyPath.resultConstraint()).isNull();
+    assertThat(happyPath.parametersConstraints).containsExactly(notNullConstraint, ConstraintsByDomain.empty(), notNullConstraint);
+
+    MethodBehavior instance = libraryBehaviors.get("lib.Checks#instance(Ljava/lang/Object;)V");
+    assertThat(instance).isNotNull();
+    assertThat(instance.exceptionalPathYields()).extracting(ExceptionalYield::getExceptionType).containsExactly("java.lang.NullPointerException");
+
+    assertThat(libraryBehaviors.get("lib.Checks#overridable(Ljava/lang/Object;)V")).isNull();
+    assertThat(libraryBehaviors.get("lib.Checks#notAtStart(Ljava/lang/Object;)V")).isNull();
+    assertThat(libraryBehaviors.get("lib.Checks#notThrowing(Ljava/lang/Object;)V")).isNull();
+    assertThat(libraryBehaviors.get("lib.Checks#both(Ljava/lang/String;JLjava/lang/Object;)Ljava/lang/String;")).isSameAs(both);
+  }
+
+  @Test
+  void behaviors_are_read_from_the_cache_directory_of_the_jar() throws IOException {
+    File jar = compileToJar();
+    File cacheDirectory = temp.resolve("cache").toFile();
+    String signature = "lib.Checks#instance(Ljava/lang/Object;)V";
+
+    assertThat(new LibraryMethodBehaviors(Collections.singletonList(jar), cacheDirectory).get(signature)).isNotNull();
+    File jarCacheDirectory = LibraryMethodBehaviors.jarCacheDirectory(cacheDirectory, jar);
+    assertThat(jarCacheDirectory.getName()).startsWith("behaviors-" + LibraryMethodBehaviors.FORMAT_VERSION + "-");
+    // only the renamed directory is left, without temporary files
+    assertThat(cacheDirectory.listFiles()).containsExactly(jarCacheDirectory);
+    File packageFile = new File(jarCacheDirectory, "lib.json");
+    assertThat(jarCacheDirectory.listFiles()).containsExactly(packageFile);
+    assertThat(new String(Files.readAllBytes(packageFile.toPath()), StandardCharsets.UTF_8)).contains(signature);
+
+    // the jar is not summarized again as long as it is unchanged
+    Files.write(packageFile.toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+    assertThat(new LibraryMethodBehaviors(Collections.singletonList(jar), cacheDirectory).get(signature)).isNull();
+
+    // a modified jar is summarized again
+    assertThat(jar.setLastModified(jar.lastModified() - 10_000)).isTrue();
+    assertThat(LibraryMethodBehaviors.jarCacheDirectory(cacheDirectory, jar)).isNotEqualTo(jarCacheDirectory);
+    assertThat(new LibraryMethodBehaviors(Collections.singletonList(jar), cacheDirectory).get(signature)).isNotNull();
+  }
+
+  @Test
+  void jars_are_only_summarized_for_their_packages() throws IOException {
+    File jar = compileToJar();
+    File cacheDirectory = temp.resolve("cache").toFile();
+    LibraryMethodBehaviors libraryBehaviors = new LibraryMethodBehaviors(Collections.singletonList(jar), cacheDirectory);
+
+    assertThat(libraryBehaviors.get("other.Checks#instance(Ljava/lang/Object;)V")).isNull();
+    assertThat(libraryBehaviors.get("Checks#instance(Ljava/lang/Object;)V")).isNull();
+    assertThat(cacheDirectory).doesNotExist();
+
+    assertThat(libraryBehaviors.get("lib.Checks#instance(Ljava/lang/Object;)V")).isNotNull();
+    assertThat(LibraryMethodBehaviors.jarCacheDirectory(cacheDirectory, jar)).isDirectory();
+  }
+
+  @Test
+  void behaviors_are_kept_in_memory_when_the_cache_directory_cannot_be_written() throws IOException {
+    File jar = compileToJar();
+    File cacheDirectory = temp.resolve("cache").toFile();
+    Files.write(cacheDirectory.toPath(), "not a directory".getBytes(StandardCharsets.UTF_8));
+    LibraryMethodBehaviors libraryBehaviors = new LibraryMethodBehaviors(Collections.singletonList(jar), cacheDirectory);
+
+    assertThat(libraryBehaviors.get("lib.Checks#instance(Ljava/lang/Object;)V")).isNotNull();
+    assertThat(libraryBehaviors.get("lib.Checks#both(Ljava/lang/String;JLjava/lang/Object;)Ljava/lang/String;")).isNotNull();
+    assertThat(cacheDirectory).isFile();
+  }
+
+  @Test
+  void invalid_entries_of_the_classpath_are_ignored() throws IOException {
+    File notAJar = temp.resolve("invalid.jar").toFile();
+    Files.write(notAJar.toPath(), "not a zip".getBytes(StandardCharsets.UTF_8));
+    File directory = temp.resolve("classes").toFile();
+    File jarWithInvalidClass = temp.resolve("invalidClass.jar").toFile();
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarWithInvalidClass.toPath()))) {
+      out.putNextEntry(new ZipEntry("a/A.class"));
+      out.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+      out.closeEntry();
+    }
+    LibraryMethodBehaviors libraryBehaviors = new LibraryMethodBehaviors(List.of(notAJar, directory, jarWithInvalidClass), temp.resolve("cache").toFile());
+
+    assertThat(libraryBehaviors.get("a.A#foo()V")).isNull();
+    assertThat(LibraryMethodBehaviors.summarize(jarWithInvalidClass)).isEmpty();
+  }
+
+  @Test
+  void behavior_cache_falls_back_to_library_behaviors() throws IOException {
+    File jar = compileToJar();
+    BehaviorCache behaviorCache = new BehaviorCache(new LibraryMethodBehaviors(Collections.singletonList(jar), temp.resolve("cache").toFile()));
+
+    assertThat(behaviorCache.get("lib.Checks#instance(Ljava/lang/Object;)V")).isNotNull();
+    // hardcoded behaviors come first
+    assertThat(behaviorCache.get("java.util.Objects#requireNonNull(Ljava/lang/Object;)Ljava/lang/Object;").happyPathYields())
+      .extracting(HappyPathYield::resultIndex)
+      .containsExactly(0);
+    assertThat(new BehaviorCache().get("lib.Checks#instance(Ljava/lang/Object;)V")).isNull();
+  }
+
+  private File compileToJar() throws IOException {
+    Path sources = Files.createDirectories(temp.resolve("src/lib"));
+    Path source = Files.write(sources.resolve("Checks.java"), SOURCE.getBytes(StandardCharsets.UTF_8));
+    Path classes = Files.createDirectories(temp.resolve("bin"));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertThat(compiler.run(null, null, null, "-d", classes.toString(), source.toString())).isZero();
+
+    File jar = temp.resolve("lib.jar").toFile();
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+      out.putNextEntry(new ZipEntry("lib/Checks.class"));
+      Files.copy(classes.resolve("lib/Checks.class"), out);
+      out.closeEntry();
+    }
+    return jar;
+  }
+}
@@ -305,6 +305,22 @@ class MethodBehaviorJsonAdapterTest {
     assertThat(deserialized).isEqualTo(mb);
   }
 
+  @Test
+  void exceptional_yield_with_unknown_exception_type_serialization_deserialization() {
+    MethodBehavior mb = newMethodBehavior("org.foo.A.bar(Ljava/lang/Object;)Z");
+    ExceptionalYield yield = new ExceptionalYield(mb);
+    yield.setExceptionType(null);
+    yield.parametersConstraints.add(ConstraintsByDomain.empty());
+    mb.addYield(yield);
+    mb.completed();
+
+    String serialized = gson.toJson(mb);
+    assertThat(serialized).contains("\"exception\": null");
+
+    MethodBehavior deserialized = gson.fromJson(serialized, MethodBehavior.class);
+    assertThat(deserialized).isEqualTo(mb);
+  }
+
   private static MethodBehavior newMethodBehavior(String signature) {
     return new MethodBehavior(signature, false);
   }
@@ -0,0 +1,156 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2024 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.ObjectConstraint;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class MethodBehaviorSummaryCacheTest {
+
+  private static final InputFile INPUT_FILE = TestInputFileBuilder.create("", "A.java").setCharset(StandardCharsets.UTF_8).setContents("class A {}").build();
+  private static final InputFile CHANGED_INPUT_FILE = TestInputFileBuilder.create("", "A.java").setCharset(StandardCharsets.UTF_8).setContents("class A { }").build();
+  private static final InputFile SAME_CONTENT_INPUT_FILE = TestInputFileBuilder.create("", "B.java").setCharset(StandardCharsets.UTF_8).setContents("class A {}").build();
+
+  private final Map<String, byte[]> previousCache = new HashMap<>();
+  private final Map<String, byte[]> nextCache = new HashMap<>();
+  private CacheContext cacheContext;
+  private JavaWriteCache writeCache;
+
+  @BeforeEach
+  void setUp() {
+    JavaReadCache readCache = mock(JavaReadCache.class);
+    doAnswer(invocation -> previousCache.get(invocation.<String>getArgument(0))).when(readCache).readBytes(anyString());
+    writeCache = mock(JavaWriteCache.class);
+    doAnswer(invocation -> nextCache.put(invocation.getArgument(0), invocation.getArgument(1))).when(writeCache).write(anyString(), any(byte[].class));
+    cacheContext = mock(CacheContext.class);
+    doReturn(true).when(cacheContext).isCacheEnabled();
+    doReturn(readCache).when(cacheContext).getReadCache();
+    doReturn(writeCache).when(cacheContext).getWriteCache();
+  }
+
+  @Test
+  void behaviors_are_restored_by_next_analysis() {
+    MethodBehavior behavior = new MethodBehavior("A#foo(Ljava/lang/Object;)Ljava/lang/Object;", false);
+    HappyPathYield yield = new HappyPathYield(behavior);
+    yield.parametersConstraints.add(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    yield.setResult(0, null);
+    behavior.addYield(yield);
+    behavior.completed();
+
+    new MethodBehaviorSummaryCache(cacheContext).write(INPUT_FILE, Collections.singletonList(behavior));
+    assertThat(nextCache).hasSize(1);
+    String key = nextCache.keySet().iterator().next();
+    assertThat(key).startsWith("java:se:methodBehaviors:MURMUR3_128:");
+
+    previousCache.putAll(nextCache);
+    List<MethodBehavior> behaviors = new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE);
+    assertThat(behaviors).containsExactly(behavior);
+    verify(writeCache).copyFromPrevious(key);
+  }
+
+  @Test
+  void behaviors_are_keyed_by_the_content_of_the_file() {
+    new MethodBehaviorSummaryCache(cacheContext).write(INPUT_FILE, Collections.emptyList());
+    previousCache.putAll(nextCache);
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(CHANGED_INPUT_FILE)).isNull();
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(SAME_CONTENT_INPUT_FILE)).isEmpty();
+    // the entry is only copied once for the files with the same content
+    doThrow(new IllegalArgumentException("Cache already contains key")).when(writeCache).copyFromPrevious(anyString());
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE)).isEmpty();
+  }
+
+  @Test
+  void nothing_is_stored_nor_restored_when_the_file_can_not_be_read() throws IOException {
+    InputFile unreadable = mock(InputFile.class);
+    doThrow(new IOException("boom")).when(unreadable).inputStream();
+    MethodBehaviorSummaryCache summaryCache = new MethodBehaviorSummaryCache(cacheContext);
+    summaryCache.write(unreadable, Collections.emptyList());
+    assertThat(summaryCache.readPrevious(unreadable)).isNull();
+    verifyNoInteractions(writeCache);
+  }
+
+  @Test
+  void files_without_behaviors_are_stored() {
+    new MethodBehaviorSummaryCache(cacheContext).write(INPUT_FILE, Collections.emptyList());
+    previousCache.putAll(nextCache);
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE)).isEmpty();
+    verify(writeCache).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void nothing_is_restored_for_files_without_entry() {
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void corrupted_entries_are_ignored() {
+    new MethodBehaviorSummaryCache(cacheContext).write(INPUT_FILE, Collections.emptyList());
+    String key = nextCache.keySet().iterator().next();
+    previousCache.put(key, "[{\"signature\":\"A#foo()V\"}]".getBytes(StandardCharsets.UTF_8));
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE)).isNull();
+    previousCache.put(key, new byte[] {'[', '{'});
+    assertThat(new MethodBehaviorSummaryCache(cacheContext).readPrevious(INPUT_FILE)).isNull();
+    verify(writeCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void second_write_for_the_same_file_is_ignored() {
+    doThrow(new IllegalArgumentException("Cache already contains key")).when(writeCache).write(anyString(), any(byte[].class));
+    new MethodBehaviorSummaryCache(cacheContext).write(INPUT_FILE, Collections.emptyList());
+    assertThat(nextCache).isEmpty();
+  }
+
+  @Test
+  void nothing_is_stored_nor_restored_when_the_cache_is_disabled() {
+    CacheContext disabled = mock(CacheContext.class);
+    MethodBehaviorSummaryCache summaryCache = new MethodBehaviorSummaryCache(disabled);
+    summaryCache.write(INPUT_FILE, Collections.emptyList());
+    assertThat(summaryCache.readPrevious(INPUT_FILE)).isNull();
+    verify(disabled, never()).getWriteCache();
+    verify(disabled, never()).getReadCache();
+    verifyNoInteractions(writeCache);
+  }
+
+}
@@ -20,6 +20,7 @@
 package org.sonar.plugins.java;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -49,6 +50,8 @@ import org.sonar.java.filters.PostAnalysisIssueFilter;
 import org.sonar.java.jsp.Jasper;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.SEOptions;
+import org.sonar.java.se.SymbolicExecutionReport;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -66,6 +69,7 @@ public class JavaSensor implements Sensor {
   private static final String PERFORMANCE_MEASURE_ACTIVATION_PROPERTY = "sonar.java.performance.measure";
   private static final String PERFORMANCE_MEASURE_FILE_PATH_PROPERTY = "sonar.java.performance.measure.path";
   private static final String PERFORMANCE_MEASURE_DESTINATION_FILE = "sonar.java.performance.measure.json";
+  private static final String SYMBOLIC_EXECUTION_REPORT_FILE = "sonar.java.symbolic-execution.aborted-methods.json";
 
   private final SonarComponents sonarComponents;
   private final FileSystem fs;
@@ -109,13 +113,29 @@ public class JavaSensor implements Sensor {
 
     Measurer measurer = new Measurer(context, noSonarFilter);
 
+    SEOptions seOptions = SEOptions.from(sonarComponents);
     JavaFrontend frontend = new JavaFrontend(getJavaVersion(), sonarComponents, measurer, javaResourceLocator, postAnalysisIssueFilter,
-      insertSymbolicExecutionVisitor(sonarComponents.mainChecks()));
+      insertSymbolicExecutionVisitor(sonarComponents.mainChecks(), seOptions));
     frontend.scan(getSourceFiles(), getTestFiles(), runJasper(context));
+    SymbolicExecutionReport symbolicExecutionReport = seOptions.report();
+    if (symbolicExecutionReport != null) {
+      writeSymbolicExecutionReport(context, symbolicExecutionReport);
+    }
 
     sensorDuration.stop();
   }
 
+  private static void writeSymbolicExecutionReport(SensorContext context, SymbolicExecutionReport report) {
+    File workDir = context.fileSystem().workDir();
+    File reportFile = new File(workDir, SYMBOLIC_EXECUTION_REPORT_FILE);
+    try {
+      report.write(reportFile.toPath());
+      LOG.info("Symbolic execution aborted for {} method(s), see {}", report.abortedMethods().size(), reportFile);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the symbolic execution report to {}: {}", reportFile, e.getMessage());
+    }
+  }
+
   private UnaryOperator<List<JavaCheck>> createCheckFilter(boolean isAutoScanCheckFiltering) {
     if (isAutoScanCheckFiltering) {
       Set<RuleKey> autoScanCompatibleRules = new HashSet<>(JavaSonarWayProfile.sonarJavaSonarWayRuleKeys());
@@ -148,7 +168,7 @@ public class JavaSensor implements Sensor {
   }
 
   @VisibleForTesting
-  static JavaCheck[] insertSymbolicExecutionVisitor(List<JavaCheck> checks) {
+  static JavaCheck[] insertSymbolicExecutionVisitor(List<JavaCheck> checks, SEOptions seOptions) {
     List<SECheck> seChecks = checks.stream()
       .filter(SECheck.class::isInstance)
       .map(SECheck.class::cast)
@@ -160,7 +180,7 @@ public class JavaSensor implements Sensor {
     }
     List<JavaCheck> newList = new ArrayList<>(checks);
     // insert an instance of SymbolicExecutionVisitor before the first SECheck
-    newList.add(newList.indexOf(seChecks.get(0)), new SymbolicExecutionVisitor(seChecks));
+    newList.add(newList.indexOf(seChecks.get(0)), new SymbolicExecutionVisitor(seChecks, seOptions));
     return newList.toArray(new JavaCheck[0]);
   }
 
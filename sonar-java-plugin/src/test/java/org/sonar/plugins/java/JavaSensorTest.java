@@ -66,6 +66,7 @@ import org.sonar.java.jsp.Jasper;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JavaVersionImpl;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.java.se.SEOptions;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -254,7 +255,7 @@ class JavaSensorTest {
       new org.sonar.java.se.checks.NullDereferenceCheck(),
       new org.sonar.java.se.checks.DivisionByZeroCheck()
     );
-    JavaCheck[] ordered = JavaSensor.insertSymbolicExecutionVisitor(javaChecks);
+    JavaCheck[] ordered = JavaSensor.insertSymbolicExecutionVisitor(javaChecks, SEOptions.DEFAULT);
     assertThat(ordered).extracting(JavaCheck::getClass).extracting(Class::getSimpleName)
       .containsExactly(
         "MagicNumberCheck",
@@ -270,7 +271,7 @@ class JavaSensorTest {
       new org.sonar.java.checks.MagicNumberCheck(),
     new org.sonar.java.checks.ParameterReassignedToCheck()
     );
-    JavaCheck[] ordered = JavaSensor.insertSymbolicExecutionVisitor(javaChecks);
+    JavaCheck[] ordered = JavaSensor.insertSymbolicExecutionVisitor(javaChecks, SEOptions.DEFAULT);
     assertThat(ordered).extracting(JavaCheck::getClass).extracting(Class::getSimpleName)
       .containsExactly(
         "MagicNumberCheck",